@@ -3,9 +3,11 @@ package com.aurelius.tech.eventmanagementservice;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableJpaRepositories(basePackages = "com.aurelius.tech.eventmanagementservice.repository")
+@EnableScheduling
 public class EventManagementServiceApplication {
 
     public static void main(String[] args) {
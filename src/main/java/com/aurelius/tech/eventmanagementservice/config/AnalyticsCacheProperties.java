@@ -0,0 +1,102 @@
+package com.aurelius.tech.eventmanagementservice.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.analytics.cache")
+public class AnalyticsCacheProperties {
+
+    /**
+     * Whether analytics responses are cached at all.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Time-to-live of the in-process tier. Kept short because other instances
+     * only see invalidations through Redis.
+     */
+    private Duration localTtl = Duration.ofSeconds(5);
+
+    /**
+     * Maximum number of responses held in the in-process tier.
+     */
+    private long localMaxSize = 10_000;
+
+    /**
+     * Redis time-to-live of event analytics responses.
+     */
+    private Duration eventTtl = Duration.ofMinutes(5);
+
+    /**
+     * Redis time-to-live of organizer dashboard responses.
+     */
+    private Duration organizerTtl = Duration.ofMinutes(5);
+
+    /**
+     * Redis time-to-live of platform analytics responses. User and event counts are
+     * not invalidated explicitly, so this bounds how stale they can get.
+     */
+    private Duration platformTtl = Duration.ofMinutes(1);
+
+    /**
+     * How long Redis is bypassed after a failed call before it is tried again.
+     */
+    private Duration redisRetryInterval = Duration.ofSeconds(30);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getLocalTtl() {
+        return localTtl;
+    }
+
+    public void setLocalTtl(Duration localTtl) {
+        this.localTtl = localTtl;
+    }
+
+    public long getLocalMaxSize() {
+        return localMaxSize;
+    }
+
+    public void setLocalMaxSize(long localMaxSize) {
+        this.localMaxSize = localMaxSize;
+    }
+
+    public Duration getEventTtl() {
+        return eventTtl;
+    }
+
+    public void setEventTtl(Duration eventTtl) {
+        this.eventTtl = eventTtl;
+    }
+
+    public Duration getOrganizerTtl() {
+        return organizerTtl;
+    }
+
+    public void setOrganizerTtl(Duration organizerTtl) {
+        this.organizerTtl = organizerTtl;
+    }
+
+    public Duration getPlatformTtl() {
+        return platformTtl;
+    }
+
+    public void setPlatformTtl(Duration platformTtl) {
+        this.platformTtl = platformTtl;
+    }
+
+    public Duration getRedisRetryInterval() {
+        return redisRetryInterval;
+    }
+
+    public void setRedisRetryInterval(Duration redisRetryInterval) {
+        this.redisRetryInterval = redisRetryInterval;
+    }
+}
@@ -0,0 +1,48 @@
+package com.aurelius.tech.eventmanagementservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.analytics.query")
+public class AnalyticsQueryProperties {
+
+    /**
+     * Whether independent analytics queries run concurrently. When disabled they run
+     * one after another on the request thread.
+     */
+    private boolean parallel = true;
+
+    /**
+     * Worker threads shared by all analytics requests. Each running query holds a
+     * database connection, so keep this well below the connection pool size.
+     */
+    private int threads = 4;
+
+    /**
+     * Queries waiting for a worker. When full, the request thread runs the query itself.
+     */
+    private int queueCapacity = 100;
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+}
@@ -0,0 +1,79 @@
+package com.aurelius.tech.eventmanagementservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "app.invoice.archive")
+public class InvoiceArchiveProperties {
+    
+    /**
+     * Size at which a segment file is closed and a new one started.
+     */
+    private DataSize segmentSize = DataSize.ofMegabytes(256);
+    
+    /**
+     * How long a segment file is appended to before a new one is started, however small.
+     * Compaction only touches segments that have not changed for twice this long, so it
+     * never rewrites a file that is still being written.
+     */
+    private Duration segmentMaxAge = Duration.ofHours(1);
+    
+    /**
+     * How often segments are compacted.
+     */
+    private Duration compactionInterval = Duration.ofDays(1);
+    
+    /**
+     * Fraction of a segment that must still belong to invoices for it to be kept as is.
+     * Sparser segments have their invoices copied to the current segment; the emptied file
+     * is deleted on the following compaction run, once no download can still be reading it.
+     */
+    private double compactionThreshold = 0.5;
+    
+    /**
+     * Invoices moved per transaction, by migration from individual files and by compaction.
+     */
+    private int batchSize = 200;
+    
+    public DataSize getSegmentSize() {
+        return segmentSize;
+    }
+    
+    public void setSegmentSize(DataSize segmentSize) {
+        this.segmentSize = segmentSize;
+    }
+    
+    public Duration getSegmentMaxAge() {
+        return segmentMaxAge;
+    }
+    
+    public void setSegmentMaxAge(Duration segmentMaxAge) {
+        this.segmentMaxAge = segmentMaxAge;
+    }
+    
+    public Duration getCompactionInterval() {
+        return compactionInterval;
+    }
+    
+    public void setCompactionInterval(Duration compactionInterval) {
+        this.compactionInterval = compactionInterval;
+    }
+    
+    public double getCompactionThreshold() {
+        return compactionThreshold;
+    }
+    
+    public void setCompactionThreshold(double compactionThreshold) {
+        this.compactionThreshold = compactionThreshold;
+    }
+    
+    public int getBatchSize() {
+        return batchSize;
+    }
+    
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+}
@@ -0,0 +1,63 @@
+package com.aurelius.tech.eventmanagementservice.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.invoices.bulk")
+public class InvoiceBulkProperties {
+    
+    /**
+     * Threads rendering invoice PDFs for bulk jobs. Separate from the queue worker, so a
+     * bulk job does not hold up invoices of new payments.
+     */
+    private int threads = 4;
+    
+    /**
+     * Payments loaded, rendered and written per step of a job. Bounds the PDFs held in
+     * memory, and is the size of the JDBC batches writing the invoice rows.
+     */
+    private int batchSize = 200;
+    
+    /**
+     * Jobs running at a time. Further submissions are rejected until one finishes.
+     */
+    private int maxActiveJobs = 2;
+    
+    /**
+     * How long finished jobs can still be looked up.
+     */
+    private Duration jobTtl = Duration.ofHours(1);
+    
+    public int getThreads() {
+        return threads;
+    }
+    
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+    
+    public int getBatchSize() {
+        return batchSize;
+    }
+    
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+    
+    public int getMaxActiveJobs() {
+        return maxActiveJobs;
+    }
+    
+    public void setMaxActiveJobs(int maxActiveJobs) {
+        this.maxActiveJobs = maxActiveJobs;
+    }
+    
+    public Duration getJobTtl() {
+        return jobTtl;
+    }
+    
+    public void setJobTtl(Duration jobTtl) {
+        this.jobTtl = jobTtl;
+    }
+}
@@ -0,0 +1,131 @@
+package com.aurelius.tech.eventmanagementservice.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.invoices.worker")
+public class InvoiceWorkerProperties {
+    
+    /**
+     * Threads rendering invoices of a batch concurrently. Each holds a database connection
+     * while it generates one invoice.
+     */
+    private int threads = 4;
+    
+    /**
+     * Invoice requests taken from the queue and processed together.
+     */
+    private int batchSize = 50;
+    
+    /**
+     * How long the consumer waits for more requests before processing a partial batch.
+     */
+    private Duration batchReceiveTimeout = Duration.ofSeconds(1);
+    
+    /**
+     * Attempts per payment before its request is parked on the failed queue.
+     */
+    private int maxAttempts = 5;
+    
+    /**
+     * Delay before a failed request is delivered again. Fixed on the retry queue when it is
+     * first declared; changing it later means deleting the queue.
+     */
+    private Duration retryDelay = Duration.ofMinutes(1);
+    
+    /**
+     * How often successful payments without an invoice are looked for and queued again,
+     * covering requests lost when the broker was unavailable after a payment committed.
+     */
+    private Duration sweepInterval = Duration.ofHours(1);
+    
+    /**
+     * Age a payment must reach before the sweep considers it, so requests still in the
+     * queue are not sent twice.
+     */
+    private Duration sweepGracePeriod = Duration.ofMinutes(15);
+    
+    /**
+     * How far back the sweep looks. Bounds how often a payment whose invoice keeps failing
+     * is retried.
+     */
+    private Duration sweepLookback = Duration.ofHours(24);
+    
+    /**
+     * Payments queued per sweep at most.
+     */
+    private int sweepLimit = 1000;
+    
+    public int getThreads() {
+        return threads;
+    }
+    
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+    
+    public int getBatchSize() {
+        return batchSize;
+    }
+    
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+    
+    public Duration getBatchReceiveTimeout() {
+        return batchReceiveTimeout;
+    }
+    
+    public void setBatchReceiveTimeout(Duration batchReceiveTimeout) {
+        this.batchReceiveTimeout = batchReceiveTimeout;
+    }
+    
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+    
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+    
+    public Duration getRetryDelay() {
+        return retryDelay;
+    }
+    
+    public void setRetryDelay(Duration retryDelay) {
+        this.retryDelay = retryDelay;
+    }
+    
+    public Duration getSweepInterval() {
+        return sweepInterval;
+    }
+    
+    public void setSweepInterval(Duration sweepInterval) {
+        this.sweepInterval = sweepInterval;
+    }
+    
+    public Duration getSweepGracePeriod() {
+        return sweepGracePeriod;
+    }
+    
+    public void setSweepGracePeriod(Duration sweepGracePeriod) {
+        this.sweepGracePeriod = sweepGracePeriod;
+    }
+    
+    public Duration getSweepLookback() {
+        return sweepLookback;
+    }
+    
+    public void setSweepLookback(Duration sweepLookback) {
+        this.sweepLookback = sweepLookback;
+    }
+    
+    public int getSweepLimit() {
+        return sweepLimit;
+    }
+    
+    public void setSweepLimit(int sweepLimit) {
+        this.sweepLimit = sweepLimit;
+    }
+}
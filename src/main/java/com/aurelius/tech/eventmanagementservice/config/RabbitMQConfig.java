@@ -1,19 +1,26 @@
 package com.aurelius.tech.eventmanagementservice.config;
 
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
 import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
+@EnableConfigurationProperties(InvoiceWorkerProperties.class)
 public class RabbitMQConfig {
     
     public static final String REGISTRATION_QUEUE = "registration.queue";
     public static final String NOTIFICATION_QUEUE = "notification.queue";
+    public static final String INVOICE_QUEUE = "invoice.queue";
+    public static final String INVOICE_RETRY_QUEUE = "invoice.retry.queue";
+    public static final String INVOICE_FAILED_QUEUE = "invoice.failed.queue";
+    public static final String INVOICE_LISTENER_CONTAINER_FACTORY = "invoiceListenerContainerFactory";
     
     @Bean
     public Queue registrationQueue() {
@@ -25,6 +32,26 @@ public class RabbitMQConfig {
         return new Queue(NOTIFICATION_QUEUE, true);
     }
     
+    @Bean
+    public Queue invoiceQueue() {
+        return new Queue(INVOICE_QUEUE, true);
+    }
+    
+    // Failed invoice requests wait here, then dead-letter back onto the invoice queue
+    @Bean
+    public Queue invoiceRetryQueue(InvoiceWorkerProperties properties) {
+        return QueueBuilder.durable(INVOICE_RETRY_QUEUE)
+                .ttl((int) properties.getRetryDelay().toMillis())
+                .deadLetterExchange("")
+                .deadLetterRoutingKey(INVOICE_QUEUE)
+                .build();
+    }
+    
+    @Bean
+    public Queue invoiceFailedQueue() {
+        return new Queue(INVOICE_FAILED_QUEUE, true);
+    }
+    
     @Bean
     public MessageConverter jsonMessageConverter() {
         return new Jackson2JsonMessageConverter();
@@ -44,13 +71,19 @@ public class RabbitMQConfig {
         factory.setMessageConverter(jsonMessageConverter());
         return factory;
     }
+    
+    @Bean(INVOICE_LISTENER_CONTAINER_FACTORY)
+    public SimpleRabbitListenerContainerFactory invoiceListenerContainerFactory(ConnectionFactory connectionFactory,
+                                                                                InvoiceWorkerProperties properties) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(jsonMessageConverter());
+        // Deliveries are gathered into one listener call, acknowledged together when it returns
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(properties.getBatchSize());
+        factory.setPrefetchCount(properties.getBatchSize());
+        factory.setReceiveTimeout(properties.getBatchReceiveTimeout().toMillis());
+        return factory;
+    }
 }
-
-
-
-
-
-
-
-
-
@@ -1,5 +1,8 @@
 package com.aurelius.tech.eventmanagementservice.config;
 
+import io.lettuce.core.ClientOptions;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.data.redis.autoconfigure.LettuceClientOptionsBuilderCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
@@ -8,6 +11,7 @@ import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSeriali
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 @Configuration
+@EnableConfigurationProperties(AnalyticsCacheProperties.class)
 public class RedisConfig {
     
     @Bean
@@ -20,6 +24,12 @@ public class RedisConfig {
         template.setHashValueSerializer(new GenericJackson2JsonRedisSerializer());
         return template;
     }
+    
+    // Fail fast while disconnected instead of queueing commands until the timeout
+    @Bean
+    public LettuceClientOptionsBuilderCustomizer lettuceClientOptionsCustomizer() {
+        return builder -> builder.disconnectedBehavior(ClientOptions.DisconnectedBehavior.REJECT_COMMANDS);
+    }
 }
 
 
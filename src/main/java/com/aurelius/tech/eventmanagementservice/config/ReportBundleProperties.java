@@ -0,0 +1,49 @@
+package com.aurelius.tech.eventmanagementservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.reports.bundle")
+public class ReportBundleProperties {
+    
+    /**
+     * Worker threads generating bundle parts, shared by all bundle downloads. Each running
+     * part holds a database connection while it reads.
+     */
+    private int threads = 4;
+    
+    /**
+     * Parts waiting for a worker. When full, the downloading request thread generates the
+     * part itself.
+     */
+    private int queueCapacity = 100;
+    
+    /**
+     * Parts one download may have generating or finished but not yet written to the ZIP.
+     * Bounds the temp files a slow client can pile up.
+     */
+    private int maxPendingParts = 6;
+    
+    public int getThreads() {
+        return threads;
+    }
+    
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+    
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+    
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+    
+    public int getMaxPendingParts() {
+        return maxPendingParts;
+    }
+    
+    public void setMaxPendingParts(int maxPendingParts) {
+        this.maxPendingParts = maxPendingParts;
+    }
+}
@@ -0,0 +1,51 @@
+package com.aurelius.tech.eventmanagementservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "app.reports.cache")
+public class ReportCacheProperties {
+    
+    /**
+     * Directory rendered reports are kept in. Emptied on startup.
+     */
+    private Path dir = Path.of(System.getProperty("java.io.tmpdir"), "event-report-cache");
+    
+    /**
+     * Total size of the cached reports. The least recently used are deleted beyond it.
+     */
+    private DataSize maxSize = DataSize.ofMegabytes(512);
+    
+    /**
+     * Cached reports not downloaded for this long are deleted. Superseded versions are
+     * never downloaded again, so this is also how long they linger.
+     */
+    private Duration expireAfterAccess = Duration.ofMinutes(30);
+    
+    public Path getDir() {
+        return dir;
+    }
+    
+    public void setDir(Path dir) {
+        this.dir = dir;
+    }
+    
+    public DataSize getMaxSize() {
+        return maxSize;
+    }
+    
+    public void setMaxSize(DataSize maxSize) {
+        this.maxSize = maxSize;
+    }
+    
+    public Duration getExpireAfterAccess() {
+        return expireAfterAccess;
+    }
+    
+    public void setExpireAfterAccess(Duration expireAfterAccess) {
+        this.expireAfterAccess = expireAfterAccess;
+    }
+}
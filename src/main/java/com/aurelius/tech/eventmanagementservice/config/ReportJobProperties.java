@@ -0,0 +1,76 @@
+package com.aurelius.tech.eventmanagementservice.config;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.reports.jobs")
+public class ReportJobProperties {
+    
+    /**
+     * Worker threads generating report files. Each running job holds a database
+     * connection while it reads.
+     */
+    private int threads = 2;
+    
+    /**
+     * Jobs waiting for a worker. Submissions beyond this are rejected.
+     */
+    private int queueCapacity = 50;
+    
+    /**
+     * Queued or running jobs allowed per organizer at a time.
+     */
+    private int maxActivePerOrganizer = 3;
+    
+    /**
+     * Directory the finished report files are written to.
+     */
+    private Path storageDir = Path.of(System.getProperty("java.io.tmpdir"), "event-reports");
+    
+    /**
+     * How long finished jobs and their files are kept for download.
+     */
+    private Duration artifactTtl = Duration.ofHours(1);
+    
+    public int getThreads() {
+        return threads;
+    }
+    
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+    
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+    
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+    
+    public int getMaxActivePerOrganizer() {
+        return maxActivePerOrganizer;
+    }
+    
+    public void setMaxActivePerOrganizer(int maxActivePerOrganizer) {
+        this.maxActivePerOrganizer = maxActivePerOrganizer;
+    }
+    
+    public Path getStorageDir() {
+        return storageDir;
+    }
+    
+    public void setStorageDir(Path storageDir) {
+        this.storageDir = storageDir;
+    }
+    
+    public Duration getArtifactTtl() {
+        return artifactTtl;
+    }
+    
+    public void setArtifactTtl(Duration artifactTtl) {
+        this.artifactTtl = artifactTtl;
+    }
+}
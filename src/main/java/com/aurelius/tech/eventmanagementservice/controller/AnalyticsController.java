@@ -1,84 +1,201 @@
 package com.aurelius.tech.eventmanagementservice.controller;
 
+import com.aurelius.tech.eventmanagementservice.dto.request.CreateReportJobRequest;
+import com.aurelius.tech.eventmanagementservice.dto.request.EventAnalyticsBatchRequest;
 import com.aurelius.tech.eventmanagementservice.dto.response.EventAnalyticsResponse;
 import com.aurelius.tech.eventmanagementservice.dto.response.OrganizerDashboardResponse;
 import com.aurelius.tech.eventmanagementservice.dto.response.PlatformAnalyticsResponse;
+import com.aurelius.tech.eventmanagementservice.dto.response.ReportJobResponse;
+import com.aurelius.tech.eventmanagementservice.entity.Event;
+import com.aurelius.tech.eventmanagementservice.entity.enums.ReportType;
+import com.aurelius.tech.eventmanagementservice.service.AnalyticsCacheService;
+import com.aurelius.tech.eventmanagementservice.service.AnalyticsCounterService;
 import com.aurelius.tech.eventmanagementservice.service.AnalyticsService;
+import com.aurelius.tech.eventmanagementservice.service.ReportBundleService;
+import com.aurelius.tech.eventmanagementservice.service.ReportCacheService;
+import com.aurelius.tech.eventmanagementservice.service.ReportJobService;
 import com.aurelius.tech.eventmanagementservice.service.ReportService;
+import com.aurelius.tech.eventmanagementservice.util.ChangeCursor;
+import jakarta.validation.Valid;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/v1/analytics")
 public class AnalyticsController {
     
+    private static final String REPORT_LEASE_ATTRIBUTE = AnalyticsController.class.getName() + ".reportLease";
+    
     private final AnalyticsService analyticsService;
     private final ReportService reportService;
+    private final AnalyticsCounterService analyticsCounterService;
+    private final AnalyticsCacheService analyticsCacheService;
+    private final ReportJobService reportJobService;
+    private final ReportBundleService reportBundleService;
+    private final ReportCacheService reportCacheService;
     
-    public AnalyticsController(AnalyticsService analyticsService, ReportService reportService) {
+    public AnalyticsController(AnalyticsService analyticsService,
+                               ReportService reportService,
+                               AnalyticsCounterService analyticsCounterService,
+                               AnalyticsCacheService analyticsCacheService,
+                               ReportJobService reportJobService,
+                               ReportBundleService reportBundleService,
+                               ReportCacheService reportCacheService) {
         this.analyticsService = analyticsService;
         this.reportService = reportService;
+        this.analyticsCounterService = analyticsCounterService;
+        this.analyticsCacheService = analyticsCacheService;
+        this.reportJobService = reportJobService;
+        this.reportBundleService = reportBundleService;
+        this.reportCacheService = reportCacheService;
     }
     
     @GetMapping("/events/{id}")
-    public ResponseEntity<EventAnalyticsResponse> getEventAnalytics(@PathVariable UUID id) {
-        return ResponseEntity.ok(analyticsService.getEventAnalytics(id));
+    public ResponseEntity<EventAnalyticsResponse> getEventAnalytics(
+            @PathVariable UUID id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String granularity,
+            @RequestParam(required = false) String fields) {
+        return ResponseEntity.ok(analyticsService.getEventAnalytics(id, from, to, granularity, fields));
+    }
+    
+    @PostMapping("/events:batch")
+    public ResponseEntity<Map<UUID, EventAnalyticsResponse>> getEventAnalyticsBatch(
+            @Valid @RequestBody EventAnalyticsBatchRequest request,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String granularity,
+            @RequestParam(required = false) String fields) {
+        return ResponseEntity.ok(analyticsService.getEventAnalyticsBatch(request.getEventIds(), from, to,
+                granularity, fields));
     }
     
     @GetMapping("/organizer/{id}")
-    public ResponseEntity<OrganizerDashboardResponse> getOrganizerDashboard(@PathVariable UUID id) {
-        return ResponseEntity.ok(analyticsService.getOrganizerDashboard(id));
+    public ResponseEntity<OrganizerDashboardResponse> getOrganizerDashboard(
+            @PathVariable UUID id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String granularity,
+            @RequestParam(required = false) String fields) {
+        return ResponseEntity.ok(analyticsService.getOrganizerDashboard(id, from, to, granularity, fields));
+    }
+    
+    @GetMapping("/organizer/{id}/export")
+    public ResponseEntity<StreamingResponseBody> exportOrganizerBundle(@PathVariable UUID id) {
+        List<Event> events = reportBundleService.getBundleEvents(id);
+        String fileName = "organizer_reports_" + id + ".zip";
+        
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .body(out -> reportBundleService.writeBundle(events, out));
     }
     
     @GetMapping("/platform")
-    public ResponseEntity<PlatformAnalyticsResponse> getPlatformAnalytics() {
-        return ResponseEntity.ok(analyticsService.getPlatformAnalytics());
+    public ResponseEntity<PlatformAnalyticsResponse> getPlatformAnalytics(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String granularity,
+            @RequestParam(required = false) String fields) {
+        return ResponseEntity.ok(analyticsService.getPlatformAnalytics(from, to, granularity, fields));
+    }
+    
+    @PostMapping("/counters/rebuild")
+    public ResponseEntity<Map<String, Integer>> rebuildCounters() {
+        Map<String, Integer> rebuilt = analyticsCounterService.rebuildCounters();
+        analyticsCacheService.invalidateAll();
+        return ResponseEntity.ok(rebuilt);
     }
     
     @GetMapping("/reports/export")
-    public ResponseEntity<byte[]> exportReport(
+    public ResponseEntity<Resource> exportReport(
             @RequestParam UUID eventId,
-            @RequestParam(defaultValue = "csv") String format) throws IOException {
-        
-        byte[] reportData;
-        String contentType;
-        String fileName;
+            @RequestParam(defaultValue = "csv") String format,
+            WebRequest webRequest) throws IOException {
+        ReportType type = "pdf".equalsIgnoreCase(format) ? ReportType.EVENT_PDF : ReportType.REGISTRATIONS_CSV;
+        return cachedReport(eventId, type, webRequest);
+    }
+    
+    @GetMapping("/reports/payments/export")
+    public ResponseEntity<Resource> exportPaymentsReport(
+            @RequestParam UUID eventId,
+            WebRequest webRequest) throws IOException {
+        return cachedReport(eventId, ReportType.PAYMENTS_CSV, webRequest);
+    }
+    
+    @GetMapping("/reports/payments/changes")
+    public ResponseEntity<StreamingResponseBody> exportPaymentChanges(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "1000") int limit) {
+        // Checked up front so a bad cursor or limit is a 400 rather than a broken stream
+        ChangeCursor.decode(cursor);
+        reportService.validateChangeLimit(limit);
         
-        if ("pdf".equalsIgnoreCase(format)) {
-            reportData = reportService.exportEventReportPDF(eventId);
-            contentType = MediaType.APPLICATION_PDF_VALUE;
-            fileName = "event_report_" + eventId + ".pdf";
-        } else {
-            reportData = reportService.exportEventRegistrationsCSV(eventId);
-            contentType = "text/csv";
-            fileName = "event_registrations_" + eventId + ".csv";
-        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .body(out -> reportService.writePaymentChangesCSV(cursor, limit, out));
+    }
+    
+    @PostMapping("/reports")
+    public ResponseEntity<ReportJobResponse> createReportJob(@Valid @RequestBody CreateReportJobRequest request) {
+        ReportJobResponse job = reportJobService.submit(request.getEventId(), request.getType());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+    
+    @GetMapping("/reports/{jobId}")
+    public ResponseEntity<ReportJobResponse> getReportJob(@PathVariable UUID jobId) {
+        return ResponseEntity.ok(reportJobService.getJob(jobId));
+    }
+    
+    @GetMapping("/reports/{jobId}/download")
+    public ResponseEntity<Resource> downloadReport(@PathVariable UUID jobId) {
+        ReportJobResponse job = reportJobService.getJob(jobId);
+        ReportJobService.Lease artifact = reportJobService.openArtifact(jobId);
+        // Released once the response has been written, so expiry cannot delete the file under it
+        RequestContextHolder.currentRequestAttributes()
+                .registerDestructionCallback(REPORT_LEASE_ATTRIBUTE, artifact::close, RequestAttributes.SCOPE_REQUEST);
+        Resource file = new FileSystemResource(artifact.getFile());
         
         return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
-                .contentType(MediaType.parseMediaType(contentType))
-                .body(reportData);
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + job.getFileName() + "\"")
+                .contentType(MediaType.parseMediaType(job.getType().getContentType()))
+                .body(file);
     }
     
-    @GetMapping("/reports/payments/export")
-    public ResponseEntity<byte[]> exportPaymentsReport(@RequestParam UUID eventId) throws IOException {
-        byte[] reportData = reportService.exportEventPaymentsCSV(eventId);
-        String fileName = "event_payments_" + eventId + ".csv";
+    // Answers 304 while the client's copy is current, without touching the report itself
+    private ResponseEntity<Resource> cachedReport(UUID eventId, ReportType type, WebRequest webRequest)
+            throws IOException {
+        String etag = reportCacheService.getETag(eventId, type);
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        ReportCacheService.Lease report = reportCacheService.getReport(eventId, type, etag);
+        // Released once the response has been written, so eviction cannot delete the file under it
+        RequestContextHolder.currentRequestAttributes()
+                .registerDestructionCallback(REPORT_LEASE_ATTRIBUTE, report::close, RequestAttributes.SCOPE_REQUEST);
+        Resource file = new FileSystemResource(report.getFile());
         
         return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
-                .contentType(MediaType.parseMediaType("text/csv"))
-                .body(reportData);
+                .eTag(etag)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + type.fileName(eventId) + "\"")
+                .contentType(MediaType.parseMediaType(type.getContentType()))
+                .body(file);
     }
 }
-
-
-
-
-
-
@@ -1,28 +1,54 @@
 package com.aurelius.tech.eventmanagementservice.controller;
 
+import com.aurelius.tech.eventmanagementservice.dto.request.BulkInvoiceRequest;
 import com.aurelius.tech.eventmanagementservice.dto.request.CreatePayoutRequest;
+import com.aurelius.tech.eventmanagementservice.dto.response.InvoiceArchiveMigrationResponse;
+import com.aurelius.tech.eventmanagementservice.dto.response.InvoiceBulkJobResponse;
 import com.aurelius.tech.eventmanagementservice.dto.response.InvoiceResponse;
 import com.aurelius.tech.eventmanagementservice.entity.Payout;
+import com.aurelius.tech.eventmanagementservice.service.AccountingExportService;
+import com.aurelius.tech.eventmanagementservice.service.InvoiceArchiveService;
+import com.aurelius.tech.eventmanagementservice.service.InvoiceBulkService;
 import com.aurelius.tech.eventmanagementservice.service.BillingService;
+import com.aurelius.tech.eventmanagementservice.util.FileDownloads;
 import jakarta.validation.Valid;
+import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/v1/billing")
 public class BillingController {
     
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+    
     private final BillingService billingService;
+    private final AccountingExportService accountingExportService;
+    private final InvoiceArchiveService invoiceArchiveService;
+    private final InvoiceBulkService invoiceBulkService;
     
-    public BillingController(BillingService billingService) {
+    public BillingController(BillingService billingService,
+                             AccountingExportService accountingExportService,
+                             InvoiceArchiveService invoiceArchiveService,
+                             InvoiceBulkService invoiceBulkService) {
         this.billingService = billingService;
+        this.accountingExportService = accountingExportService;
+        this.invoiceArchiveService = invoiceArchiveService;
+        this.invoiceBulkService = invoiceBulkService;
     }
     
     @PostMapping("/invoices/generate")
@@ -32,6 +58,16 @@ public class BillingController {
                 billingService.generateInvoice(paymentId).getPaymentId()));
     }
     
+    @PostMapping("/invoices/bulk")
+    public ResponseEntity<InvoiceBulkJobResponse> generateInvoices(@RequestBody BulkInvoiceRequest request) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(invoiceBulkService.submit(request));
+    }
+    
+    @GetMapping("/invoices/bulk/{jobId}")
+    public ResponseEntity<InvoiceBulkJobResponse> getBulkInvoiceJob(@PathVariable UUID jobId) {
+        return ResponseEntity.ok(invoiceBulkService.getJob(jobId));
+    }
+    
     @GetMapping("/invoices/payment/{paymentId}")
     public ResponseEntity<InvoiceResponse> getInvoiceByPaymentId(@PathVariable UUID paymentId) {
         return ResponseEntity.ok(billingService.getInvoiceByPaymentId(paymentId));
@@ -43,13 +79,13 @@ public class BillingController {
     }
     
     @GetMapping("/invoices/{id}/pdf")
-    public ResponseEntity<byte[]> getInvoicePDF(@PathVariable UUID id) throws IOException {
-        byte[] pdfData = billingService.getInvoicePDF(id);
-        
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"invoice.pdf\"")
-                .contentType(MediaType.APPLICATION_PDF)
-                .body(pdfData);
+    public ResponseEntity<Resource> getInvoicePDF(@PathVariable UUID id, WebRequest webRequest) throws IOException {
+        return FileDownloads.invoicePDF(billingService.getInvoiceDownload(id), webRequest);
+    }
+    
+    @PostMapping("/invoices/archive/migrate")
+    public ResponseEntity<InvoiceArchiveMigrationResponse> migrateInvoiceFiles() throws IOException {
+        return ResponseEntity.ok(invoiceArchiveService.migrateLegacyFiles());
     }
     
     @PostMapping("/payouts")
@@ -74,10 +110,30 @@ public class BillingController {
     public ResponseEntity<List<Payout>> getPayoutsByEvent(@PathVariable UUID eventId) {
         return ResponseEntity.ok(billingService.getPayoutsByEvent(eventId));
     }
+    
+    @GetMapping("/accounting/export")
+    public ResponseEntity<StreamingResponseBody> exportAccountingLedger(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        accountingExportService.validateRange(from, to);
+        String fileName = "accounting_" + from.toLocalDate() + "_" + to.toLocalDate() + (gzip ? ".csv.gz" : ".csv");
+        
+        StreamingResponseBody body;
+        if (gzip) {
+            body = out -> {
+                // Closing ends the Deflater on every path; the response stream itself stays open
+                try (GZIPOutputStream compressed = new GZIPOutputStream(StreamUtils.nonClosing(out), GZIP_BUFFER_SIZE)) {
+                    accountingExportService.writeLedgerCSV(from, to, compressed);
+                }
+            };
+        } else {
+            body = out -> accountingExportService.writeLedgerCSV(from, to, out);
+        }
+        
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : "text/csv"))
+                .body(body);
+    }
 }
-
-
-
-
-
-
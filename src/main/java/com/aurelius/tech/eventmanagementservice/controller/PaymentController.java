@@ -4,10 +4,11 @@ import com.aurelius.tech.eventmanagementservice.dto.response.InvoiceResponse;
 import com.aurelius.tech.eventmanagementservice.entity.Payment;
 import com.aurelius.tech.eventmanagementservice.service.BillingService;
 import com.aurelius.tech.eventmanagementservice.service.PaymentService;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
+import com.aurelius.tech.eventmanagementservice.util.FileDownloads;
+import org.springframework.core.io.Resource;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.io.IOException;
 import java.util.List;
@@ -57,18 +58,9 @@ public class PaymentController {
     }
     
     @GetMapping("/{id}/invoice/pdf")
-    public ResponseEntity<byte[]> getInvoicePDF(@PathVariable UUID id) throws IOException {
+    public ResponseEntity<Resource> getInvoicePDF(@PathVariable UUID id, WebRequest webRequest) throws IOException {
         Payment payment = paymentService.getPaymentById(id);
         InvoiceResponse invoice = billingService.getInvoiceByPaymentId(payment.getId());
-        byte[] pdfData = billingService.getInvoicePDF(invoice.getId());
-        
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"invoice.pdf\"")
-                .contentType(MediaType.APPLICATION_PDF)
-                .body(pdfData);
+        return FileDownloads.invoicePDF(billingService.getInvoiceDownload(invoice.getId()), webRequest);
     }
 }
-
-
-
-
@@ -0,0 +1,31 @@
+package com.aurelius.tech.eventmanagementservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Revenue, cost and registration figures for one event, shared by the financial metrics
+ * and event analytics endpoints.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventFinancials {
+    private BigDecimal totalRevenue;      // Sum of successful payments
+    private BigDecimal totalServiceCosts; // Sum of event service rates
+    private BigDecimal profit;
+    private BigDecimal margin;            // Percentage of revenue, 0 without revenue
+    private long totalRegistrations;
+    private long confirmedRegistrations;
+    private long cancelledRegistrations;
+    private long pendingRegistrations;
+    private long totalTicketsSold;
+    
+    // Figures of an event without registrations, payments or services
+    public static EventFinancials empty() {
+        return new EventFinancials(BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, 0, 0, 0, 0, 0);
+    }
+}
@@ -0,0 +1,18 @@
+package com.aurelius.tech.eventmanagementservice.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkInvoiceRequest {
+    private UUID eventId;           // Event, date range, or both
+    private LocalDateTime from;     // Payments paid at or after this
+    private LocalDateTime to;       // Payments paid before this
+    private boolean regenerate;     // Re-render existing invoices too, keeping their numbers
+}
@@ -0,0 +1,20 @@
+package com.aurelius.tech.eventmanagementservice.dto.request;
+
+import com.aurelius.tech.eventmanagementservice.entity.enums.ReportType;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateReportJobRequest {
+    @NotNull(message = "Event ID is required")
+    private UUID eventId;
+    
+    @NotNull(message = "Report type is required")
+    private ReportType type;
+}
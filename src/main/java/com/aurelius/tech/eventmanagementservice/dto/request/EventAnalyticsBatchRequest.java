@@ -0,0 +1,18 @@
+package com.aurelius.tech.eventmanagementservice.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventAnalyticsBatchRequest {
+    @NotEmpty(message = "At least one event ID is required")
+    private List<@NotNull(message = "Event IDs must not be null") UUID> eventIds;
+}
@@ -0,0 +1,14 @@
+package com.aurelius.tech.eventmanagementservice.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceArchiveMigrationResponse {
+    private int migrated;
+    private int missing;     // Invoices whose file no longer exists; left as they are
+    private long bytes;      // Appended to segments
+}
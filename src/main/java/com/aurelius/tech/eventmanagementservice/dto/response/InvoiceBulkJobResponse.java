@@ -0,0 +1,30 @@
+package com.aurelius.tech.eventmanagementservice.dto.response;
+
+import com.aurelius.tech.eventmanagementservice.entity.enums.InvoiceJobStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceBulkJobResponse {
+    private UUID jobId;
+    private UUID eventId;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private boolean regenerate;
+    private InvoiceJobStatus status;
+    private Long total;             // Successful payments in scope; set once counted
+    private int generated;          // New invoices
+    private int regenerated;        // Existing invoices rendered again
+    private int skipped;            // Already invoiced, no longer successful, or gone
+    private int failed;
+    private String error;           // Set when the job failed
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+    private LocalDateTime expiresAt; // Finished jobs are forgotten after this
+}
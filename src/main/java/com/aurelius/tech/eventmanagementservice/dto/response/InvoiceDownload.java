@@ -0,0 +1,16 @@
+package com.aurelius.tech.eventmanagementservice.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.core.io.Resource;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+public class InvoiceDownload {
+    private Resource resource;
+    private String fileName;
+    private Instant lastModified;
+    private String eTag;
+}
@@ -0,0 +1,26 @@
+package com.aurelius.tech.eventmanagementservice.dto.response;
+
+import com.aurelius.tech.eventmanagementservice.entity.enums.ReportJobStatus;
+import com.aurelius.tech.eventmanagementservice.entity.enums.ReportType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportJobResponse {
+    private UUID jobId;
+    private UUID eventId;
+    private ReportType type;
+    private ReportJobStatus status;
+    private String fileName;
+    private Long sizeBytes;         // Set once completed
+    private String error;           // Set when failed
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+    private LocalDateTime expiresAt; // Finished jobs and their files are removed after this
+}
@@ -0,0 +1,67 @@
+package com.aurelius.tech.eventmanagementservice.entity;
+
+import com.aurelius.tech.eventmanagementservice.entity.enums.CounterScope;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "analytics_counters",
+       uniqueConstraints = @UniqueConstraint(name = "uk_analytics_counters_scope", columnNames = {"scope", "scope_id"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalyticsCounter {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private CounterScope scope;
+    
+    @Column(name = "scope_id", nullable = false)
+    private UUID scopeId; // Event or organizer id; a fixed nil UUID for the platform row
+    
+    @ColumnDefault("0")
+    @Column(name = "total_registrations", nullable = false)
+    private Long totalRegistrations = 0L;
+    
+    @ColumnDefault("0")
+    @Column(name = "pending_registrations", nullable = false)
+    private Long pendingRegistrations = 0L;
+    
+    @ColumnDefault("0")
+    @Column(name = "confirmed_registrations", nullable = false)
+    private Long confirmedRegistrations = 0L;
+    
+    @ColumnDefault("0")
+    @Column(name = "cancelled_registrations", nullable = false)
+    private Long cancelledRegistrations = 0L;
+    
+    @ColumnDefault("0")
+    @Column(name = "tickets_sold", nullable = false)
+    private Long ticketsSold = 0L;
+    
+    @ColumnDefault("0")
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue = BigDecimal.ZERO; // Sum of SUCCESS payments
+    
+    @ColumnDefault("0")
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal refunds = BigDecimal.ZERO; // Sum of REFUNDED payments
+    
+    @ColumnDefault("0")
+    @Column(name = "data_version", nullable = false)
+    private Long dataVersion = 0L; // Moves with every change to the scope's data
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,52 @@
+package com.aurelius.tech.eventmanagementservice.entity;
+
+import com.aurelius.tech.eventmanagementservice.entity.enums.CounterScope;
+import com.aurelius.tech.eventmanagementservice.entity.enums.RollupGranularity;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "analytics_rollups",
+       uniqueConstraints = @UniqueConstraint(name = "uk_analytics_rollups_bucket",
+               columnNames = {"scope", "scope_id", "granularity", "bucket_start"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalyticsRollup {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private CounterScope scope;
+    
+    @Column(name = "scope_id", nullable = false)
+    private UUID scopeId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private RollupGranularity granularity;
+    
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart; // Start of the hour, day or month
+    
+    @Column(nullable = false)
+    private Long registrations = 0L;
+    
+    @Column(name = "tickets_sold", nullable = false)
+    private Long ticketsSold = 0L;
+    
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue = BigDecimal.ZERO; // Bucketed by payment time
+    
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal refunds = BigDecimal.ZERO;
+}
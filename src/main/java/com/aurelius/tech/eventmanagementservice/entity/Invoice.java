@@ -37,7 +37,17 @@ public class Invoice {
     private String currency = "USD";
     
     @Column(name = "file_path")
-    private String filePath; // Path to stored PDF file
+    private String filePath; // Path to stored PDF file, for invoices not yet moved into a segment
+    
+    // Where the PDF lies in the invoice segment store
+    @Column(name = "segment_id")
+    private Long segmentId;
+    
+    @Column(name = "segment_offset")
+    private Long segmentOffset;
+    
+    @Column(name = "segment_length")
+    private Integer segmentLength;
     
     @Column(name = "issued_at", nullable = false)
     private LocalDateTime issuedAt;
@@ -50,13 +50,27 @@ public class Payment {
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
+    // Moves on every change, including status changes; the payment change feed pages on it
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    // When the invoice worker gave up on this payment; parked payments are left out of its sweep
+    @Column(name = "invoice_failed_at")
+    private LocalDateTime invoiceFailedAt;
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
         if (status == PaymentStatus.SUCCESS && paidAt == null) {
             paidAt = LocalDateTime.now();
         }
     }
+    
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
 }
 
 
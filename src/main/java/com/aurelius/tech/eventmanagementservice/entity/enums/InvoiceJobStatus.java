@@ -0,0 +1,8 @@
+package com.aurelius.tech.eventmanagementservice.entity.enums;
+
+public enum InvoiceJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
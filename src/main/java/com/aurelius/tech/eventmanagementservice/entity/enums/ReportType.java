@@ -0,0 +1,31 @@
+package com.aurelius.tech.eventmanagementservice.entity.enums;
+
+import java.util.UUID;
+
+public enum ReportType {
+    REGISTRATIONS_CSV("event_registrations_", ".csv", "text/csv"),
+    PAYMENTS_CSV("event_payments_", ".csv", "text/csv"),
+    EVENT_PDF("event_report_", ".pdf", "application/pdf");
+    
+    private final String filePrefix;
+    private final String fileExtension;
+    private final String contentType;
+    
+    ReportType(String filePrefix, String fileExtension, String contentType) {
+        this.filePrefix = filePrefix;
+        this.fileExtension = fileExtension;
+        this.contentType = contentType;
+    }
+    
+    public String fileName(UUID eventId) {
+        return filePrefix + eventId + fileExtension;
+    }
+    
+    public String getFileExtension() {
+        return fileExtension;
+    }
+    
+    public String getContentType() {
+        return contentType;
+    }
+}
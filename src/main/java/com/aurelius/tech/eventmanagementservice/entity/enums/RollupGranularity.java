@@ -0,0 +1,7 @@
+package com.aurelius.tech.eventmanagementservice.entity.enums;
+
+public enum RollupGranularity {
+    HOUR,
+    DAY,
+    MONTH
+}
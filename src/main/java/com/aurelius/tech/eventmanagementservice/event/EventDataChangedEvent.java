@@ -0,0 +1,11 @@
+package com.aurelius.tech.eventmanagementservice.event;
+
+import lombok.Value;
+
+import java.util.UUID;
+
+@Value
+public class EventDataChangedEvent {
+    UUID eventId;
+    UUID organizerId; // May be null when the caller does not have it at hand
+}
@@ -0,0 +1,16 @@
+package com.aurelius.tech.eventmanagementservice.event;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Value
+public class PaymentRefundedEvent {
+    UUID paymentId;
+    UUID registrationId;
+    UUID eventId;
+    BigDecimal amount;
+    LocalDateTime paidAt; // Original payment time, so revenue can be reversed where it was booked
+}
@@ -0,0 +1,16 @@
+package com.aurelius.tech.eventmanagementservice.event;
+
+import com.aurelius.tech.eventmanagementservice.entity.enums.RegistrationStatus;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Value
+public class RegistrationCreatedEvent {
+    UUID registrationId;
+    UUID eventId;
+    RegistrationStatus status;
+    int quantity;
+    LocalDateTime registeredAt;
+}
@@ -0,0 +1,14 @@
+package com.aurelius.tech.eventmanagementservice.event;
+
+import com.aurelius.tech.eventmanagementservice.entity.enums.RegistrationStatus;
+import lombok.Value;
+
+import java.util.UUID;
+
+@Value
+public class RegistrationStatusChangedEvent {
+    UUID registrationId;
+    UUID eventId;
+    RegistrationStatus previousStatus;
+    RegistrationStatus newStatus;
+}
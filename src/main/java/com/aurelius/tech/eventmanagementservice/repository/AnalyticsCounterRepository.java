@@ -0,0 +1,112 @@
+package com.aurelius.tech.eventmanagementservice.repository;
+
+import com.aurelius.tech.eventmanagementservice.entity.AnalyticsCounter;
+import com.aurelius.tech.eventmanagementservice.entity.enums.CounterScope;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface AnalyticsCounterRepository extends JpaRepository<AnalyticsCounter, UUID> {
+    Optional<AnalyticsCounter> findByScopeAndScopeId(CounterScope scope, UUID scopeId);
+    List<AnalyticsCounter> findByScopeAndScopeIdIn(CounterScope scope, Collection<UUID> scopeIds);
+    
+    // Atomic in-place increment so concurrent writers never lose updates. Every column is written
+    // explicitly: a Hibernate-managed schema has none of the defaults V15/V19 declare
+    @Modifying
+    @Query(value = "INSERT INTO analytics_counters (id, scope, scope_id, total_registrations, pending_registrations, " +
+                   "confirmed_registrations, cancelled_registrations, tickets_sold, revenue, refunds, data_version, updated_at) " +
+                   "VALUES (gen_random_uuid(), :scope, :scopeId, :totalRegistrations, :pendingRegistrations, " +
+                   ":confirmedRegistrations, :cancelledRegistrations, :ticketsSold, :revenue, :refunds, 1, now()) " +
+                   "ON CONFLICT (scope, scope_id) DO UPDATE SET " +
+                   "total_registrations = analytics_counters.total_registrations + EXCLUDED.total_registrations, " +
+                   "pending_registrations = analytics_counters.pending_registrations + EXCLUDED.pending_registrations, " +
+                   "confirmed_registrations = analytics_counters.confirmed_registrations + EXCLUDED.confirmed_registrations, " +
+                   "cancelled_registrations = analytics_counters.cancelled_registrations + EXCLUDED.cancelled_registrations, " +
+                   "tickets_sold = analytics_counters.tickets_sold + EXCLUDED.tickets_sold, " +
+                   "revenue = analytics_counters.revenue + EXCLUDED.revenue, " +
+                   "refunds = analytics_counters.refunds + EXCLUDED.refunds, " +
+                   "data_version = analytics_counters.data_version + 1, " +
+                   "updated_at = EXCLUDED.updated_at",
+           nativeQuery = true)
+    void increment(@Param("scope") String scope,
+                   @Param("scopeId") UUID scopeId,
+                   @Param("totalRegistrations") long totalRegistrations,
+                   @Param("pendingRegistrations") long pendingRegistrations,
+                   @Param("confirmedRegistrations") long confirmedRegistrations,
+                   @Param("cancelledRegistrations") long cancelledRegistrations,
+                   @Param("ticketsSold") long ticketsSold,
+                   @Param("revenue") BigDecimal revenue,
+                   @Param("refunds") BigDecimal refunds);
+    
+    // Moves the event's data version without changing any total; a no-op once the event is gone
+    @Modifying
+    @Query(value = "INSERT INTO analytics_counters (id, scope, scope_id, total_registrations, pending_registrations, " +
+                   "confirmed_registrations, cancelled_registrations, tickets_sold, revenue, refunds, data_version, updated_at) " +
+                   "SELECT gen_random_uuid(), 'EVENT', e.id, 0, 0, 0, 0, 0, 0, 0, 1, now() FROM events e WHERE e.id = :eventId " +
+                   "ON CONFLICT (scope, scope_id) DO UPDATE SET " +
+                   "data_version = analytics_counters.data_version + 1, " +
+                   "updated_at = EXCLUDED.updated_at",
+           nativeQuery = true)
+    void touchEvent(@Param("eventId") UUID eventId);
+    
+    // Blocks counter writers until the rebuild commits, so no increment lands in between
+    @Modifying
+    @Query(value = "LOCK TABLE analytics_counters IN SHARE ROW EXCLUSIVE MODE", nativeQuery = true)
+    void lockForRebuild();
+    
+    @Modifying
+    @Query(value = "DELETE FROM analytics_counters", nativeQuery = true)
+    int deleteAllCounters();
+    
+    @Modifying
+    @Query(value = "INSERT INTO analytics_counters (id, scope, scope_id, total_registrations, pending_registrations, " +
+                   "confirmed_registrations, cancelled_registrations, tickets_sold, revenue, refunds, data_version, updated_at) " +
+                   "SELECT gen_random_uuid(), 'EVENT', e.id, COALESCE(r.total, 0), COALESCE(r.pending, 0), " +
+                   "COALESCE(r.confirmed, 0), COALESCE(r.cancelled, 0), COALESCE(r.tickets, 0), " +
+                   "COALESCE(p.revenue, 0), COALESCE(p.refunds, 0), 0, now() " +
+                   "FROM events e " +
+                   "LEFT JOIN (SELECT event_id, COUNT(*) AS total, " +
+                   "COUNT(*) FILTER (WHERE status = 'PENDING') AS pending, " +
+                   "COUNT(*) FILTER (WHERE status = 'CONFIRMED') AS confirmed, " +
+                   "COUNT(*) FILTER (WHERE status = 'CANCELLED') AS cancelled, " +
+                   "SUM(quantity) AS tickets " +
+                   "FROM registrations GROUP BY event_id) r ON r.event_id = e.id " +
+                   "LEFT JOIN (SELECT reg.event_id, " +
+                   "SUM(pay.amount) FILTER (WHERE pay.status = 'SUCCESS') AS revenue, " +
+                   "SUM(pay.amount) FILTER (WHERE pay.status = 'REFUNDED') AS refunds " +
+                   "FROM payments pay JOIN registrations reg ON reg.id = pay.registration_id " +
+                   "GROUP BY reg.event_id) p ON p.event_id = e.id",
+           nativeQuery = true)
+    int rebuildEventCounters();
+    
+    @Modifying
+    @Query(value = "INSERT INTO analytics_counters (id, scope, scope_id, total_registrations, pending_registrations, " +
+                   "confirmed_registrations, cancelled_registrations, tickets_sold, revenue, refunds, data_version, updated_at) " +
+                   "SELECT gen_random_uuid(), 'ORGANIZER', e.organizer_id, SUM(c.total_registrations), " +
+                   "SUM(c.pending_registrations), SUM(c.confirmed_registrations), SUM(c.cancelled_registrations), " +
+                   "SUM(c.tickets_sold), SUM(c.revenue), SUM(c.refunds), 0, now() " +
+                   "FROM analytics_counters c JOIN events e ON e.id = c.scope_id " +
+                   "WHERE c.scope = 'EVENT' GROUP BY e.organizer_id",
+           nativeQuery = true)
+    int rebuildOrganizerCounters();
+    
+    @Modifying
+    @Query(value = "INSERT INTO analytics_counters (id, scope, scope_id, total_registrations, pending_registrations, " +
+                   "confirmed_registrations, cancelled_registrations, tickets_sold, revenue, refunds, data_version, updated_at) " +
+                   "SELECT gen_random_uuid(), 'PLATFORM', :platformId, COALESCE(SUM(c.total_registrations), 0), " +
+                   "COALESCE(SUM(c.pending_registrations), 0), COALESCE(SUM(c.confirmed_registrations), 0), " +
+                   "COALESCE(SUM(c.cancelled_registrations), 0), COALESCE(SUM(c.tickets_sold), 0), " +
+                   "COALESCE(SUM(c.revenue), 0), COALESCE(SUM(c.refunds), 0), 0, now() " +
+                   "FROM analytics_counters c WHERE c.scope = 'EVENT'",
+           nativeQuery = true)
+    int rebuildPlatformCounter(@Param("platformId") UUID platformId);
+}
@@ -0,0 +1,101 @@
+package com.aurelius.tech.eventmanagementservice.repository;
+
+import com.aurelius.tech.eventmanagementservice.entity.AnalyticsRollup;
+import com.aurelius.tech.eventmanagementservice.entity.enums.CounterScope;
+import com.aurelius.tech.eventmanagementservice.entity.enums.RollupGranularity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface AnalyticsRollupRepository extends JpaRepository<AnalyticsRollup, UUID> {
+    // Range scan over the unique (scope, scope_id, granularity, bucket_start) index
+    @Query("SELECT r FROM AnalyticsRollup r WHERE r.scope = :scope AND r.scopeId = :scopeId " +
+           "AND r.granularity = :granularity AND r.bucketStart >= :from AND r.bucketStart <= :to " +
+           "ORDER BY r.bucketStart")
+    List<AnalyticsRollup> findBuckets(@Param("scope") CounterScope scope,
+                                      @Param("scopeId") UUID scopeId,
+                                      @Param("granularity") RollupGranularity granularity,
+                                      @Param("from") LocalDateTime from,
+                                      @Param("to") LocalDateTime to);
+    
+    @Query("SELECT r FROM AnalyticsRollup r WHERE r.scope = :scope AND r.scopeId IN :scopeIds " +
+           "AND r.granularity = :granularity AND r.bucketStart >= :from AND r.bucketStart <= :to")
+    List<AnalyticsRollup> findBucketsIn(@Param("scope") CounterScope scope,
+                                        @Param("scopeIds") Collection<UUID> scopeIds,
+                                        @Param("granularity") RollupGranularity granularity,
+                                        @Param("from") LocalDateTime from,
+                                        @Param("to") LocalDateTime to);
+    
+    // Adds the delta to the hour, day and month buckets containing occurredAt in one statement
+    @Modifying
+    @Query(value = "INSERT INTO analytics_rollups (id, scope, scope_id, granularity, bucket_start, " +
+                   "registrations, tickets_sold, revenue, refunds) " +
+                   "SELECT gen_random_uuid(), :scope, :scopeId, g.granularity, " +
+                   "date_trunc(g.unit, CAST(:occurredAt AS timestamp)), " +
+                   ":registrations, :ticketsSold, :revenue, :refunds " +
+                   "FROM (VALUES ('HOUR', 'hour'), ('DAY', 'day'), ('MONTH', 'month')) AS g(granularity, unit) " +
+                   "ON CONFLICT (scope, scope_id, granularity, bucket_start) DO UPDATE SET " +
+                   "registrations = analytics_rollups.registrations + EXCLUDED.registrations, " +
+                   "tickets_sold = analytics_rollups.tickets_sold + EXCLUDED.tickets_sold, " +
+                   "revenue = analytics_rollups.revenue + EXCLUDED.revenue, " +
+                   "refunds = analytics_rollups.refunds + EXCLUDED.refunds",
+           nativeQuery = true)
+    void increment(@Param("scope") String scope,
+                   @Param("scopeId") UUID scopeId,
+                   @Param("occurredAt") LocalDateTime occurredAt,
+                   @Param("registrations") long registrations,
+                   @Param("ticketsSold") long ticketsSold,
+                   @Param("revenue") BigDecimal revenue,
+                   @Param("refunds") BigDecimal refunds);
+    
+    @Modifying
+    @Query(value = "DELETE FROM analytics_rollups", nativeQuery = true)
+    int deleteAllRollups();
+    
+    @Modifying
+    @Query(value = "INSERT INTO analytics_rollups (id, scope, scope_id, granularity, bucket_start, " +
+                   "registrations, tickets_sold, revenue, refunds) " +
+                   "SELECT gen_random_uuid(), 'EVENT', x.event_id, g.granularity, date_trunc(g.unit, x.occurred_at), " +
+                   "SUM(x.registrations), SUM(x.tickets_sold), SUM(x.revenue), SUM(x.refunds) " +
+                   "FROM (SELECT event_id, registered_at AS occurred_at, 1 AS registrations, " +
+                   "quantity AS tickets_sold, 0 AS revenue, 0 AS refunds " +
+                   "FROM registrations WHERE registered_at IS NOT NULL " +
+                   "UNION ALL " +
+                   "SELECT reg.event_id, pay.paid_at, 0, 0, " +
+                   "CASE WHEN pay.status = 'SUCCESS' THEN pay.amount ELSE 0 END, " +
+                   "CASE WHEN pay.status = 'REFUNDED' THEN pay.amount ELSE 0 END " +
+                   "FROM payments pay JOIN registrations reg ON reg.id = pay.registration_id " +
+                   "WHERE pay.status IN ('SUCCESS', 'REFUNDED') AND pay.paid_at IS NOT NULL) x " +
+                   "CROSS JOIN (VALUES ('HOUR', 'hour'), ('DAY', 'day'), ('MONTH', 'month')) AS g(granularity, unit) " +
+                   "GROUP BY x.event_id, g.granularity, date_trunc(g.unit, x.occurred_at)",
+           nativeQuery = true)
+    int rebuildEventRollups();
+    
+    @Modifying
+    @Query(value = "INSERT INTO analytics_rollups (id, scope, scope_id, granularity, bucket_start, " +
+                   "registrations, tickets_sold, revenue, refunds) " +
+                   "SELECT gen_random_uuid(), 'ORGANIZER', e.organizer_id, r.granularity, r.bucket_start, " +
+                   "SUM(r.registrations), SUM(r.tickets_sold), SUM(r.revenue), SUM(r.refunds) " +
+                   "FROM analytics_rollups r JOIN events e ON e.id = r.scope_id " +
+                   "WHERE r.scope = 'EVENT' GROUP BY e.organizer_id, r.granularity, r.bucket_start",
+           nativeQuery = true)
+    int rebuildOrganizerRollups();
+    
+    @Modifying
+    @Query(value = "INSERT INTO analytics_rollups (id, scope, scope_id, granularity, bucket_start, " +
+                   "registrations, tickets_sold, revenue, refunds) " +
+                   "SELECT gen_random_uuid(), 'PLATFORM', :platformId, r.granularity, r.bucket_start, " +
+                   "SUM(r.registrations), SUM(r.tickets_sold), SUM(r.revenue), SUM(r.refunds) " +
+                   "FROM analytics_rollups r WHERE r.scope = 'EVENT' GROUP BY r.granularity, r.bucket_start",
+           nativeQuery = true)
+    int rebuildPlatformRollups(@Param("platformId") UUID platformId);
+}
@@ -3,13 +3,18 @@ package com.aurelius.tech.eventmanagementservice.repository;
 import com.aurelius.tech.eventmanagementservice.entity.Event;
 import com.aurelius.tech.eventmanagementservice.entity.enums.EventStatus;
 import com.aurelius.tech.eventmanagementservice.entity.enums.EventVisibility;
+import com.aurelius.tech.eventmanagementservice.repository.projection.CategoryEventCount;
+import com.aurelius.tech.eventmanagementservice.repository.projection.EventFinancialTotals;
+import com.aurelius.tech.eventmanagementservice.repository.projection.EventStatusCount;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
@@ -31,6 +36,36 @@ public interface EventRepository extends JpaRepository<Event, UUID> {
     
     @Query("SELECT e FROM Event e WHERE e.startDateTime BETWEEN :startDate AND :endDate")
     List<Event> findByDateRange(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+    
+    @Query("SELECT e.status AS status, COUNT(e) AS total, " +
+           "SUM(CASE WHEN e.startDateTime > :now THEN 1 ELSE 0 END) AS upcoming " +
+           "FROM Event e GROUP BY e.status")
+    List<EventStatusCount> countGroupedByStatus(@Param("now") LocalDateTime now);
+    
+    @Query("SELECT e.status AS status, COUNT(e) AS total FROM Event e " +
+           "WHERE e.organizerId = :organizerId GROUP BY e.status")
+    List<EventStatusCount> countGroupedByStatusForOrganizer(@Param("organizerId") UUID organizerId);
+    
+    List<Event> findTop10ByOrganizerIdOrderByCreatedAtDesc(UUID organizerId);
+    
+    @Query("SELECT e.organizerId FROM Event e WHERE e.id = :eventId")
+    Optional<UUID> findOrganizerIdById(@Param("eventId") UUID eventId);
+    
+    @Query("SELECT c.id AS categoryId, c.name AS categoryName, COUNT(e) AS eventCount " +
+           "FROM Event e JOIN e.category c GROUP BY c.id, c.name")
+    List<CategoryEventCount> countGroupedByCategory();
+    
+    // Revenue and registration totals come from the analytics counters; events without a counter row yet read as zero
+    @Query("SELECT e.id AS eventId, COALESCE(c.revenue, 0) AS revenue, " +
+           "(SELECT COALESCE(SUM(s.rate), 0) FROM EventServiceItem s WHERE s.eventId = e.id) AS serviceCosts, " +
+           "COALESCE(c.totalRegistrations, 0) AS totalRegistrations, " +
+           "COALESCE(c.confirmedRegistrations, 0) AS confirmedRegistrations, " +
+           "COALESCE(c.cancelledRegistrations, 0) AS cancelledRegistrations, " +
+           "COALESCE(c.pendingRegistrations, 0) AS pendingRegistrations, " +
+           "COALESCE(c.ticketsSold, 0) AS ticketsSold " +
+           "FROM Event e LEFT JOIN AnalyticsCounter c ON c.scope = 'EVENT' AND c.scopeId = e.id " +
+           "WHERE e.id IN :eventIds")
+    List<EventFinancialTotals> findFinancialTotals(@Param("eventIds") Collection<UUID> eventIds);
 }
 
 
@@ -2,13 +2,19 @@ package com.aurelius.tech.eventmanagementservice.repository;
 
 import com.aurelius.tech.eventmanagementservice.entity.EventServiceItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface EventServiceRepository extends JpaRepository<EventServiceItem, UUID> {
     List<EventServiceItem> findByEventId(UUID eventId);
+    
+    @Query("SELECT COALESCE(SUM(s.rate), 0) FROM EventServiceItem s JOIN s.event e WHERE e.organizerId = :organizerId")
+    BigDecimal sumRateForOrganizer(@Param("organizerId") UUID organizerId);
 }
 
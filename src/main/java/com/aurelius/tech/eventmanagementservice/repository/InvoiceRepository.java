@@ -1,9 +1,17 @@
 package com.aurelius.tech.eventmanagementservice.repository;
 
 import com.aurelius.tech.eventmanagementservice.entity.Invoice;
+import com.aurelius.tech.eventmanagementservice.repository.projection.SegmentUsageRow;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -11,6 +19,56 @@ import java.util.UUID;
 public interface InvoiceRepository extends JpaRepository<Invoice, UUID> {
     Optional<Invoice> findByPaymentId(UUID paymentId);
     Optional<Invoice> findByInvoiceNumber(String invoiceNumber);
+    List<Invoice> findByPaymentIdIn(Collection<UUID> paymentIds);
+    
+    // First number of a newly reserved block of InvoiceNumberAllocator.BLOCK_SIZE numbers
+    @Query(value = "SELECT nextval('invoice_number_seq')", nativeQuery = true)
+    long reserveInvoiceNumberBlock();
+    
+    // Same sequence as V20, for schemas Flyway does not manage; INCREMENT BY is InvoiceNumberAllocator.BLOCK_SIZE
+    @Modifying
+    @Transactional
+    @Query(value = "CREATE SEQUENCE IF NOT EXISTS invoice_number_seq START WITH 1 INCREMENT BY 100", nativeQuery = true)
+    void createInvoiceNumberSequence();
+    
+    @Query("SELECT i.paymentId FROM Invoice i WHERE i.paymentId IN :paymentIds")
+    List<UUID> findInvoicedPaymentIds(@Param("paymentIds") Collection<UUID> paymentIds);
+    
+    // Id of a new segment file of InvoiceSegmentStore
+    @Query(value = "SELECT nextval('invoice_segment_seq')", nativeQuery = true)
+    long reserveSegmentId();
+    
+    // Same sequence as V21, for schemas Flyway does not manage
+    @Modifying
+    @Transactional
+    @Query(value = "CREATE SEQUENCE IF NOT EXISTS invoice_segment_seq", nativeQuery = true)
+    void createSegmentSequence();
+    
+    @Query("SELECT i.segmentId AS segmentId, SUM(i.segmentLength) AS liveBytes FROM Invoice i " +
+           "WHERE i.segmentId IN :segmentIds GROUP BY i.segmentId")
+    List<SegmentUsageRow> sumLiveBytesBySegment(@Param("segmentIds") Collection<Long> segmentIds);
+    
+    @Query("SELECT i FROM Invoice i WHERE i.segmentId = :segmentId AND i.segmentOffset > :afterOffset " +
+           "ORDER BY i.segmentOffset")
+    List<Invoice> findBySegment(@Param("segmentId") long segmentId, @Param("afterOffset") long afterOffset, Limit limit);
+    
+    // Invoices still stored as individual files, in id order
+    @Query("SELECT i FROM Invoice i WHERE i.segmentId IS NULL AND i.filePath IS NOT NULL AND i.id > :afterId " +
+           "ORDER BY i.id")
+    List<Invoice> findUnarchived(@Param("afterId") UUID afterId, Limit limit);
+    
+    // Only moves an invoice still at the location it was copied from
+    @Modifying
+    @Query("UPDATE Invoice i SET i.segmentId = :segmentId, i.segmentOffset = :offset, i.segmentLength = :length, " +
+           "i.filePath = NULL WHERE i.id = :id AND ((i.segmentId = :fromSegmentId AND i.segmentOffset = :fromOffset) " +
+           "OR (i.segmentId IS NULL AND i.filePath = :fromFilePath))")
+    int relocate(@Param("id") UUID id,
+                 @Param("fromSegmentId") Long fromSegmentId,
+                 @Param("fromOffset") Long fromOffset,
+                 @Param("fromFilePath") String fromFilePath,
+                 @Param("segmentId") long segmentId,
+                 @Param("offset") long offset,
+                 @Param("length") int length);
 }
 
 
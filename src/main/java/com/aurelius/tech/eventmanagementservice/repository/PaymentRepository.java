@@ -2,19 +2,113 @@ package com.aurelius.tech.eventmanagementservice.repository;
 
 import com.aurelius.tech.eventmanagementservice.entity.Payment;
 import com.aurelius.tech.eventmanagementservice.entity.enums.PaymentStatus;
+import com.aurelius.tech.eventmanagementservice.repository.projection.InvoiceContextRow;
+import com.aurelius.tech.eventmanagementservice.repository.projection.PaymentChangeRow;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, UUID> {
+    
+    String INVOICE_CONTEXT_SELECT =
+            "SELECT p.id AS paymentId, p.amount AS amount, p.currency AS currency, " +
+            "p.paymentMethod AS paymentMethod, p.transactionId AS transactionId, p.status AS status, " +
+            "r.quantity AS quantity, u.firstName AS firstName, u.lastName AS lastName, u.email AS email, " +
+            "e.title AS eventTitle, e.startDateTime AS eventStartDateTime, t.name AS ticketName " +
+            "FROM Payment p JOIN p.registration r JOIN r.event e JOIN r.user u LEFT JOIN r.ticket t ";
+    
     Optional<Payment> findByRegistrationId(UUID registrationId);
     List<Payment> findAllByRegistrationId(UUID registrationId);
     List<Payment> findByTransactionId(String transactionId);
     List<Payment> findByStatus(PaymentStatus status);
     List<Payment> findAllByRegistration_EventIdAndStatus(UUID eventId, PaymentStatus status);
+    
+    // Row-locked read for status transitions, so concurrent ones see each other's result
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Payment p WHERE p.id = :id")
+    Optional<Payment> findByIdForUpdate(@Param("id") UUID id);
+    
+    // Server-side cursor for exports; must be consumed inside a transaction and closed
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Payment p WHERE p.registration.eventId = :eventId AND p.status = :status")
+    Stream<Payment> streamByEventIdAndStatus(@Param("eventId") UUID eventId, @Param("status") PaymentStatus status);
+    
+    // Keyset page of payments changed after (updatedAt, id) and before until, oldest first
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT p.id AS paymentId, p.registrationId AS registrationId, r.eventId AS eventId, " +
+           "p.amount AS amount, p.currency AS currency, p.paymentMethod AS paymentMethod, " +
+           "p.transactionId AS transactionId, p.status AS status, p.paidAt AS paidAt, " +
+           "p.createdAt AS createdAt, p.updatedAt AS updatedAt " +
+           "FROM Payment p JOIN p.registration r " +
+           "WHERE (p.updatedAt, p.id) > (:updatedAt, :id) AND p.updatedAt < :until " +
+           "ORDER BY p.updatedAt, p.id")
+    Stream<PaymentChangeRow> streamChangedAfter(@Param("updatedAt") LocalDateTime updatedAt,
+                                                @Param("id") UUID id,
+                                                @Param("until") LocalDateTime until,
+                                                Limit limit);
+    
+    // Payment, registration, event, user and ticket of an invoice in one round trip
+    @Query(INVOICE_CONTEXT_SELECT + "WHERE p.id = :paymentId")
+    Optional<InvoiceContextRow> findInvoiceContext(@Param("paymentId") UUID paymentId);
+    
+    @Query(INVOICE_CONTEXT_SELECT + "WHERE p.id IN :paymentIds")
+    List<InvoiceContextRow> findInvoiceContexts(@Param("paymentIds") Collection<UUID> paymentIds);
+    
+    // Keyset page of payments for bulk invoicing; a null event or bound is not filtered on.
+    // The casts give PostgreSQL a type for a null bound.
+    @Query("SELECT p.id FROM Payment p JOIN p.registration r WHERE p.status = :status " +
+           "AND (:eventId IS NULL OR r.eventId = :eventId) " +
+           "AND (CAST(:from AS LocalDateTime) IS NULL OR p.paidAt >= :from) " +
+           "AND (CAST(:to AS LocalDateTime) IS NULL OR p.paidAt < :to) " +
+           "AND p.id > :afterId ORDER BY p.id")
+    List<UUID> findIdsForInvoicing(@Param("status") PaymentStatus status,
+                                   @Param("eventId") UUID eventId,
+                                   @Param("from") LocalDateTime from,
+                                   @Param("to") LocalDateTime to,
+                                   @Param("afterId") UUID afterId,
+                                   Limit limit);
+    
+    @Query("SELECT COUNT(p) FROM Payment p JOIN p.registration r WHERE p.status = :status " +
+           "AND (:eventId IS NULL OR r.eventId = :eventId) " +
+           "AND (CAST(:from AS LocalDateTime) IS NULL OR p.paidAt >= :from) " +
+           "AND (CAST(:to AS LocalDateTime) IS NULL OR p.paidAt < :to)")
+    long countForInvoicing(@Param("status") PaymentStatus status,
+                           @Param("eventId") UUID eventId,
+                           @Param("from") LocalDateTime from,
+                           @Param("to") LocalDateTime to);
+    
+    // Payments parked after running out of invoicing attempts are not picked up again
+    @Query("SELECT p.id FROM Payment p WHERE p.status = :status AND p.paidAt >= :from AND p.paidAt < :to " +
+           "AND p.invoiceFailedAt IS NULL " +
+           "AND NOT EXISTS (SELECT 1 FROM Invoice i WHERE i.paymentId = p.id) ORDER BY p.paidAt")
+    List<UUID> findIdsWithoutInvoice(@Param("status") PaymentStatus status,
+                                     @Param("from") LocalDateTime from,
+                                     @Param("to") LocalDateTime to,
+                                     Limit limit);
+    
+    // Bulk update, so neither updated_at nor the payment change feed moves
+    @Modifying
+    @Transactional
+    @Query("UPDATE Payment p SET p.invoiceFailedAt = :failedAt WHERE p.id = :id")
+    int markInvoiceFailed(@Param("id") UUID id, @Param("failedAt") LocalDateTime failedAt);
 }
-
@@ -2,12 +2,21 @@ package com.aurelius.tech.eventmanagementservice.repository;
 
 import com.aurelius.tech.eventmanagementservice.entity.Registration;
 import com.aurelius.tech.eventmanagementservice.entity.enums.RegistrationStatus;
+import com.aurelius.tech.eventmanagementservice.repository.projection.RegistrationExportRow;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface RegistrationRepository extends JpaRepository<Registration, UUID> {
@@ -16,6 +25,19 @@ public interface RegistrationRepository extends JpaRepository<Registration, UUID
     List<Registration> findByEventIdAndStatus(UUID eventId, RegistrationStatus status);
     Optional<Registration> findByQrCode(String qrCode);
     boolean existsByUserIdAndEventId(UUID userId, UUID eventId);
+    
+    // Row-locked read for status transitions, so concurrent ones see each other's result
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Registration r WHERE r.id = :id")
+    Optional<Registration> findByIdForUpdate(@Param("id") UUID id);
+    
+    // Server-side cursor over the export columns only, with user and ticket joined in
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT r.id AS registrationId, CONCAT(u.firstName, ' ', u.lastName) AS userName, u.email AS email, " +
+           "t.name AS ticketName, r.quantity AS quantity, r.totalAmount AS totalAmount, r.status AS status, " +
+           "r.registeredAt AS registeredAt " +
+           "FROM Registration r LEFT JOIN r.user u LEFT JOIN r.ticket t WHERE r.eventId = :eventId")
+    Stream<RegistrationExportRow> streamExportRowsByEventId(@Param("eventId") UUID eventId);
 }
 
 
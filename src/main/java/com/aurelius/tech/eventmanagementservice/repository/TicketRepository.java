@@ -2,9 +2,13 @@ package com.aurelius.tech.eventmanagementservice.repository;
 
 import com.aurelius.tech.eventmanagementservice.entity.Ticket;
 import com.aurelius.tech.eventmanagementservice.entity.enums.TicketStatus;
+import com.aurelius.tech.eventmanagementservice.repository.projection.EventQuantityTotal;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -12,6 +16,13 @@ import java.util.UUID;
 public interface TicketRepository extends JpaRepository<Ticket, UUID> {
     List<Ticket> findByEventId(UUID eventId);
     List<Ticket> findByEventIdAndStatus(UUID eventId, TicketStatus status);
+    
+    @Query("SELECT COALESCE(SUM(t.quantity), 0) FROM Ticket t WHERE t.eventId = :eventId")
+    long sumQuantityByEventId(@Param("eventId") UUID eventId);
+    
+    @Query("SELECT t.eventId AS eventId, SUM(t.quantity) AS total FROM Ticket t " +
+           "WHERE t.eventId IN :eventIds GROUP BY t.eventId")
+    List<EventQuantityTotal> sumQuantityGroupedByEventId(@Param("eventIds") Collection<UUID> eventIds);
 }
 
 
@@ -3,7 +3,9 @@ package com.aurelius.tech.eventmanagementservice.repository;
 import com.aurelius.tech.eventmanagementservice.entity.User;
 import com.aurelius.tech.eventmanagementservice.entity.enums.UserRole;
 import com.aurelius.tech.eventmanagementservice.entity.enums.UserStatus;
+import com.aurelius.tech.eventmanagementservice.repository.projection.UserRoleStatusCount;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -16,6 +18,9 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     List<User> findByRole(UserRole role);
     List<User> findByStatus(UserStatus status);
     boolean existsByEmail(String email);
+    
+    @Query("SELECT u.role AS role, u.status AS status, COUNT(u) AS total FROM User u GROUP BY u.role, u.status")
+    List<UserRoleStatusCount> countGroupedByRoleAndStatus();
 }
 
 
@@ -0,0 +1,9 @@
+package com.aurelius.tech.eventmanagementservice.repository.projection;
+
+import java.util.UUID;
+
+public interface CategoryEventCount {
+    UUID getCategoryId();
+    String getCategoryName();
+    Long getEventCount();
+}
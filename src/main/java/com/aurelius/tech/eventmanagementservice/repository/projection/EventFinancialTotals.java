@@ -0,0 +1,15 @@
+package com.aurelius.tech.eventmanagementservice.repository.projection;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public interface EventFinancialTotals {
+    UUID getEventId();
+    BigDecimal getRevenue();
+    BigDecimal getServiceCosts();
+    Long getTotalRegistrations();
+    Long getConfirmedRegistrations();
+    Long getCancelledRegistrations();
+    Long getPendingRegistrations();
+    Long getTicketsSold();
+}
@@ -0,0 +1,8 @@
+package com.aurelius.tech.eventmanagementservice.repository.projection;
+
+import java.util.UUID;
+
+public interface EventQuantityTotal {
+    UUID getEventId();
+    Long getTotal();
+}
@@ -0,0 +1,9 @@
+package com.aurelius.tech.eventmanagementservice.repository.projection;
+
+import com.aurelius.tech.eventmanagementservice.entity.enums.EventStatus;
+
+public interface EventStatusCount {
+    EventStatus getStatus();
+    Long getTotal();
+    Long getUpcoming(); // Events in this status starting after the reference time
+}
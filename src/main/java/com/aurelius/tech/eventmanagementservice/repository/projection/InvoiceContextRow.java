@@ -0,0 +1,24 @@
+package com.aurelius.tech.eventmanagementservice.repository.projection;
+
+import com.aurelius.tech.eventmanagementservice.entity.enums.PaymentStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Everything an invoice is issued and rendered from, for one payment
+public interface InvoiceContextRow {
+    UUID getPaymentId();
+    BigDecimal getAmount();
+    String getCurrency();
+    String getPaymentMethod();
+    String getTransactionId();
+    PaymentStatus getStatus();
+    Integer getQuantity();
+    String getFirstName();
+    String getLastName();
+    String getEmail();
+    String getEventTitle();
+    LocalDateTime getEventStartDateTime();
+    String getTicketName(); // Null when the registration has no ticket
+}
@@ -0,0 +1,21 @@
+package com.aurelius.tech.eventmanagementservice.repository.projection;
+
+import com.aurelius.tech.eventmanagementservice.entity.enums.PaymentStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public interface PaymentChangeRow {
+    UUID getPaymentId();
+    UUID getRegistrationId();
+    UUID getEventId();
+    BigDecimal getAmount();
+    String getCurrency();
+    String getPaymentMethod();
+    String getTransactionId();
+    PaymentStatus getStatus();
+    LocalDateTime getPaidAt();
+    LocalDateTime getCreatedAt();
+    LocalDateTime getUpdatedAt();
+}
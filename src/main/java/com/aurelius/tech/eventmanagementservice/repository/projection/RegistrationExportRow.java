@@ -0,0 +1,18 @@
+package com.aurelius.tech.eventmanagementservice.repository.projection;
+
+import com.aurelius.tech.eventmanagementservice.entity.enums.RegistrationStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public interface RegistrationExportRow {
+    UUID getRegistrationId();
+    String getUserName(); // Null when the registration has no user
+    String getEmail();
+    String getTicketName();
+    Integer getQuantity();
+    BigDecimal getTotalAmount();
+    RegistrationStatus getStatus();
+    LocalDateTime getRegisteredAt();
+}
@@ -0,0 +1,6 @@
+package com.aurelius.tech.eventmanagementservice.repository.projection;
+
+public interface SegmentUsageRow {
+    Long getSegmentId();
+    Long getLiveBytes();
+}
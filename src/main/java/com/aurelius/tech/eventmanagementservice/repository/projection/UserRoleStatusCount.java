@@ -0,0 +1,10 @@
+package com.aurelius.tech.eventmanagementservice.repository.projection;
+
+import com.aurelius.tech.eventmanagementservice.entity.enums.UserRole;
+import com.aurelius.tech.eventmanagementservice.entity.enums.UserStatus;
+
+public interface UserRoleStatusCount {
+    UserRole getRole();
+    UserStatus getStatus();
+    Long getTotal();
+}
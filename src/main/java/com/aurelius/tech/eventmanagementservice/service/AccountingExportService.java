@@ -0,0 +1,86 @@
+package com.aurelius.tech.eventmanagementservice.service;
+
+import com.aurelius.tech.eventmanagementservice.exception.BusinessException;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Platform-wide accounting ledger: every collected payment, refund and payout in a date range,
+ * one row per money movement. The CSV is produced by PostgreSQL itself with
+ * {@code COPY ... TO STDOUT} and copied straight to the caller's stream, so no rows are
+ * loaded into the JVM.
+ */
+@Service
+public class AccountingExportService {
+    
+    // COPY takes no bind parameters; the range is inlined from LocalDateTime values only.
+    // A refund is booked when the payment turned REFUNDED, its last change, and negated so
+    // the amounts of a period sum to the money kept.
+    private static final String LEDGER_QUERY =
+            "SELECT entry_type, entry_id, occurred_at, organizer_id, event_id, event_title, " +
+            "registration_id, amount, currency, status, payment_method, reference FROM (" +
+            "SELECT 'PAYMENT' AS entry_type, p.id AS entry_id, p.paid_at AS occurred_at, " +
+            "e.organizer_id, e.id AS event_id, e.title AS event_title, r.id AS registration_id, " +
+            "p.amount, p.currency, p.status, p.payment_method, p.transaction_id AS reference " +
+            "FROM payments p JOIN registrations r ON r.id = p.registration_id JOIN events e ON e.id = r.event_id " +
+            "WHERE p.status IN ('SUCCESS', 'REFUNDED') AND p.paid_at >= %1$s AND p.paid_at < %2$s " +
+            "UNION ALL " +
+            "SELECT 'REFUND', p.id, p.updated_at, e.organizer_id, e.id, e.title, r.id, " +
+            "-p.amount, p.currency, p.status, p.payment_method, p.transaction_id " +
+            "FROM payments p JOIN registrations r ON r.id = p.registration_id JOIN events e ON e.id = r.event_id " +
+            "WHERE p.status = 'REFUNDED' AND p.updated_at >= %1$s AND p.updated_at < %2$s " +
+            "UNION ALL " +
+            "SELECT 'PAYOUT', po.id, COALESCE(po.processed_at, po.created_at), po.organizer_id, po.event_id, " +
+            "e.title, NULL, po.amount, po.currency, po.status, po.payment_method, po.transaction_reference " +
+            "FROM payouts po LEFT JOIN events e ON e.id = po.event_id " +
+            "WHERE COALESCE(po.processed_at, po.created_at) >= %1$s AND COALESCE(po.processed_at, po.created_at) < %2$s" +
+            ") ledger ORDER BY occurred_at, entry_id, entry_type";
+    
+    private static final DateTimeFormatter TIMESTAMP_LITERAL = DateTimeFormatter.ofPattern("uuuu-MM-dd HH:mm:ss.SSSSSS");
+    
+    private final DataSource dataSource;
+    
+    public AccountingExportService(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+    
+    public void validateRange(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new BusinessException("'from' must be before 'to'");
+        }
+    }
+    
+    /**
+     * Writes the ledger for {@code [from, to)} as CSV with a header row to {@code out}, and
+     * returns the number of rows written. {@code out} is left open.
+     */
+    public long writeLedgerCSV(LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException {
+        validateRange(from, to);
+        String query = LEDGER_QUERY.formatted(timestampLiteral(from), timestampLiteral(to));
+        String copy = "COPY (" + query + ") TO STDOUT WITH (FORMAT csv, HEADER true)";
+        
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            return copyManager.copyOut(copy, out);
+        } catch (SQLException e) {
+            throw new IOException("Accounting export failed: " + e.getMessage(), e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+    
+    private static String timestampLiteral(LocalDateTime value) {
+        return "TIMESTAMP '" + value.format(TIMESTAMP_LITERAL) + "'";
+    }
+}
@@ -0,0 +1,240 @@
+package com.aurelius.tech.eventmanagementservice.service;
+
+import com.aurelius.tech.eventmanagementservice.config.AnalyticsCacheProperties;
+import com.aurelius.tech.eventmanagementservice.entity.enums.CounterScope;
+import com.aurelius.tech.eventmanagementservice.event.EventDataChangedEvent;
+import com.aurelius.tech.eventmanagementservice.event.PaymentCompletedEvent;
+import com.aurelius.tech.eventmanagementservice.event.PaymentRefundedEvent;
+import com.aurelius.tech.eventmanagementservice.event.RegistrationCreatedEvent;
+import com.aurelius.tech.eventmanagementservice.event.RegistrationStatusChangedEvent;
+import com.aurelius.tech.eventmanagementservice.repository.EventRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Two-tier cache for analytics responses: a short-lived in-process Caffeine tier in front
+ * of Redis. Redis keys embed a per-scope generation number, so invalidating a scope is a
+ * single INCR and a response computed from data older than the invalidation is written
+ * under a generation nobody reads anymore. Redis failures fall through to computing the
+ * response and Redis is skipped for a while.
+ */
+@Service
+public class AnalyticsCacheService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AnalyticsCacheService.class);
+    
+    private static final String KEY_PREFIX = "analytics:";
+    private static final String GLOBAL_GENERATION_KEY = KEY_PREFIX + "gen";
+    private static final Duration GENERATION_TTL = Duration.ofDays(1);
+    
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final EventRepository eventRepository;
+    private final AnalyticsCacheProperties properties;
+    private final JsonMapper jsonMapper;
+    private final Cache<String, CompletableFuture<Object>> localCache;
+    private final AtomicLong invalidations = new AtomicLong();
+    private volatile long redisRetryAt;
+    
+    public AnalyticsCacheService(RedisTemplate<String, Object> redisTemplate,
+                                 EventRepository eventRepository,
+                                 AnalyticsCacheProperties properties,
+                                 JsonMapper jsonMapper) {
+        this.redisTemplate = redisTemplate;
+        this.eventRepository = eventRepository;
+        this.properties = properties;
+        // Map-valued fields hold money; keep "12.50" from coming back as 12.5
+        this.jsonMapper = jsonMapper.rebuild()
+                .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+                .build();
+        this.localCache = Caffeine.newBuilder()
+                .expireAfterWrite(properties.getLocalTtl())
+                .maximumSize(properties.getLocalMaxSize())
+                .build();
+    }
+    
+    /**
+     * Returns the cached response for the scope and variant, loading and caching it on a miss.
+     * Concurrent misses for the same key on this instance share a single load. Loaders may
+     * themselves read other entries of this cache.
+     */
+    public <T> T get(CounterScope scope, UUID scopeId, String variant, Class<T> type, Supplier<T> loader) {
+        if (!properties.isEnabled()) {
+            return loader.get();
+        }
+        
+        String scopeKey = scopeKey(scope, scopeId);
+        String localKey = scopeKey + ":" + variant;
+        long stamp = invalidations.get();
+        
+        // The load runs outside the map's locks, so a loader reading another key cannot deadlock
+        CompletableFuture<Object> pending = new CompletableFuture<>();
+        CompletableFuture<Object> existing = localCache.asMap().putIfAbsent(localKey, pending);
+        if (existing != null) {
+            return type.cast(await(existing));
+        }
+        
+        T value;
+        try {
+            value = loadThroughRedis(scope, scopeKey, variant, type, loader);
+        } catch (RuntimeException e) {
+            localCache.asMap().remove(localKey, pending);
+            pending.completeExceptionally(e);
+            throw e;
+        }
+        pending.complete(value);
+        
+        // An invalidation raced with the load; serve the value once but do not keep it
+        if (invalidations.get() != stamp) {
+            localCache.asMap().remove(localKey, pending);
+        }
+        return value;
+    }
+    
+    public void invalidate(CounterScope scope, UUID scopeId) {
+        String scopeKey = scopeKey(scope, scopeId);
+        invalidations.incrementAndGet();
+        localCache.asMap().keySet().removeIf(key -> key.startsWith(scopeKey + ":"));
+        bumpGeneration(scopeKey + ":gen");
+    }
+    
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        localCache.invalidateAll();
+        bumpGeneration(GLOBAL_GENERATION_KEY);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRegistrationCreated(RegistrationCreatedEvent event) {
+        invalidateEvent(event.getEventId(), null);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRegistrationStatusChanged(RegistrationStatusChangedEvent event) {
+        invalidateEvent(event.getEventId(), null);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPaymentCompleted(PaymentCompletedEvent event) {
+        invalidateEvent(event.getEventId(), null);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPaymentRefunded(PaymentRefundedEvent event) {
+        invalidateEvent(event.getEventId(), null);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEventDataChanged(EventDataChangedEvent event) {
+        invalidateEvent(event.getEventId(), event.getOrganizerId());
+    }
+    
+    private void invalidateEvent(UUID eventId, UUID organizerId) {
+        invalidate(CounterScope.EVENT, eventId);
+        UUID owner = organizerId != null ? organizerId : eventRepository.findOrganizerIdById(eventId).orElse(null);
+        if (owner != null) {
+            invalidate(CounterScope.ORGANIZER, owner);
+        }
+        invalidate(CounterScope.PLATFORM, AnalyticsCounterService.PLATFORM_SCOPE_ID);
+    }
+    
+    private Object await(CompletableFuture<Object> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+    
+    private <T> T loadThroughRedis(CounterScope scope, String scopeKey, String variant,
+                                   Class<T> type, Supplier<T> loader) {
+        String redisKey = null;
+        if (redisAvailable()) {
+            try {
+                List<Object> generations = redisTemplate.opsForValue()
+                        .multiGet(Arrays.asList(GLOBAL_GENERATION_KEY, scopeKey + ":gen"));
+                redisKey = scopeKey + ":" + generation(generations, 0) + "." + generation(generations, 1) + ":" + variant;
+                Object cached = redisTemplate.opsForValue().get(redisKey);
+                if (cached instanceof String json) {
+                    return jsonMapper.readValue(json, type);
+                }
+            } catch (RuntimeException e) {
+                redisKey = handleRedisFailure(redisKey, e);
+            }
+        }
+        
+        T value = loader.get();
+        if (redisKey != null) {
+            try {
+                redisTemplate.opsForValue().set(redisKey, jsonMapper.writeValueAsString(value), ttl(scope));
+            } catch (RuntimeException e) {
+                handleRedisFailure(redisKey, e);
+            }
+        }
+        return value;
+    }
+    
+    private void bumpGeneration(String generationKey) {
+        if (!redisAvailable()) {
+            return;
+        }
+        try {
+            redisTemplate.opsForValue().increment(generationKey);
+            redisTemplate.expire(generationKey, GENERATION_TTL);
+        } catch (RuntimeException e) {
+            handleRedisFailure(generationKey, e);
+        }
+    }
+    
+    private boolean redisAvailable() {
+        return System.currentTimeMillis() >= redisRetryAt;
+    }
+    
+    // Returns the key to keep using, or null when Redis should be skipped for this call
+    private String handleRedisFailure(String key, RuntimeException e) {
+        if (e instanceof JacksonException) {
+            logger.warn("Skipping analytics cache entry {} that failed to (de)serialize: {}", key, e.getMessage());
+            return key;
+        }
+        redisRetryAt = System.currentTimeMillis() + properties.getRedisRetryInterval().toMillis();
+        logger.warn("Redis unavailable for analytics cache, bypassing it for {}: {}",
+                properties.getRedisRetryInterval(), e.getMessage());
+        return null;
+    }
+    
+    private Duration ttl(CounterScope scope) {
+        return switch (scope) {
+            case EVENT -> properties.getEventTtl();
+            case ORGANIZER -> properties.getOrganizerTtl();
+            case PLATFORM -> properties.getPlatformTtl();
+        };
+    }
+    
+    private static String scopeKey(CounterScope scope, UUID scopeId) {
+        return KEY_PREFIX + scope.name().toLowerCase() + ":" + scopeId;
+    }
+    
+    private static long generation(List<Object> generations, int index) {
+        Object value = generations != null && generations.size() > index ? generations.get(index) : null;
+        return value instanceof Number number ? number.longValue() : 0L;
+    }
+}
@@ -0,0 +1,188 @@
+package com.aurelius.tech.eventmanagementservice.service;
+
+import com.aurelius.tech.eventmanagementservice.entity.AnalyticsCounter;
+import com.aurelius.tech.eventmanagementservice.entity.enums.CounterScope;
+import com.aurelius.tech.eventmanagementservice.entity.enums.RegistrationStatus;
+import com.aurelius.tech.eventmanagementservice.event.EventDataChangedEvent;
+import com.aurelius.tech.eventmanagementservice.event.PaymentCompletedEvent;
+import com.aurelius.tech.eventmanagementservice.event.PaymentRefundedEvent;
+import com.aurelius.tech.eventmanagementservice.event.RegistrationCreatedEvent;
+import com.aurelius.tech.eventmanagementservice.event.RegistrationStatusChangedEvent;
+import com.aurelius.tech.eventmanagementservice.repository.AnalyticsCounterRepository;
+import com.aurelius.tech.eventmanagementservice.repository.EventRepository;
+import com.aurelius.tech.eventmanagementservice.repository.RegistrationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps per-event, per-organizer and platform-wide analytics totals and their time-bucketed
+ * rollups up to date. Listeners run synchronously, so every increment commits or rolls back
+ * together with the registration or payment change that caused it.
+ */
+@Service
+public class AnalyticsCounterService {
+    
+    public static final UUID PLATFORM_SCOPE_ID = new UUID(0L, 0L);
+    
+    private static final Logger logger = LoggerFactory.getLogger(AnalyticsCounterService.class);
+    
+    private final AnalyticsCounterRepository analyticsCounterRepository;
+    private final EventRepository eventRepository;
+    private final RegistrationRepository registrationRepository;
+    private final AnalyticsRollupService analyticsRollupService;
+    
+    public AnalyticsCounterService(AnalyticsCounterRepository analyticsCounterRepository,
+                                   EventRepository eventRepository,
+                                   RegistrationRepository registrationRepository,
+                                   AnalyticsRollupService analyticsRollupService) {
+        this.analyticsCounterRepository = analyticsCounterRepository;
+        this.eventRepository = eventRepository;
+        this.registrationRepository = registrationRepository;
+        this.analyticsRollupService = analyticsRollupService;
+    }
+    
+    @EventListener
+    public void onRegistrationCreated(RegistrationCreatedEvent event) {
+        CounterDelta delta = new CounterDelta();
+        delta.totalRegistrations = 1;
+        delta.addStatus(event.getStatus(), 1);
+        delta.ticketsSold = event.getQuantity();
+        apply(event.getEventId(), delta, event.getRegisteredAt());
+    }
+    
+    @EventListener
+    public void onRegistrationStatusChanged(RegistrationStatusChangedEvent event) {
+        CounterDelta delta = new CounterDelta();
+        delta.addStatus(event.getPreviousStatus(), -1);
+        delta.addStatus(event.getNewStatus(), 1);
+        apply(event.getEventId(), delta, null);
+    }
+    
+    @EventListener
+    public void onPaymentCompleted(PaymentCompletedEvent event) {
+        CounterDelta delta = new CounterDelta();
+        delta.revenue = event.getAmount();
+        apply(event.getEventId(), delta, event.getPaidAt());
+    }
+    
+    @EventListener
+    public void onPaymentRefunded(PaymentRefundedEvent event) {
+        CounterDelta delta = new CounterDelta();
+        delta.revenue = event.getAmount().negate();
+        delta.refunds = event.getAmount();
+        // Refunds are booked against the bucket of the original payment
+        apply(event.getEventId(), delta, event.getPaidAt());
+    }
+    
+    // Event details, tickets and services are not counted, but appear in reports
+    @EventListener
+    public void onEventDataChanged(EventDataChangedEvent event) {
+        analyticsCounterRepository.touchEvent(event.getEventId());
+    }
+    
+    public Optional<AnalyticsCounter> getEventCounter(UUID eventId) {
+        return analyticsCounterRepository.findByScopeAndScopeId(CounterScope.EVENT, eventId);
+    }
+    
+    public Map<UUID, AnalyticsCounter> getEventCounters(Collection<UUID> eventIds) {
+        if (eventIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return analyticsCounterRepository.findByScopeAndScopeIdIn(CounterScope.EVENT, eventIds).stream()
+                .collect(Collectors.toMap(AnalyticsCounter::getScopeId, Function.identity()));
+    }
+    
+    public Optional<AnalyticsCounter> getOrganizerCounter(UUID organizerId) {
+        return analyticsCounterRepository.findByScopeAndScopeId(CounterScope.ORGANIZER, organizerId);
+    }
+    
+    public Optional<AnalyticsCounter> getPlatformCounter() {
+        return analyticsCounterRepository.findByScopeAndScopeId(CounterScope.PLATFORM, PLATFORM_SCOPE_ID);
+    }
+    
+    /**
+     * Recomputes every counter and rollup bucket from the registrations and payments tables.
+     */
+    @Transactional
+    public Map<String, Integer> rebuildCounters() {
+        analyticsCounterRepository.lockForRebuild();
+        analyticsCounterRepository.deleteAllCounters();
+        
+        Map<String, Integer> rebuilt = new LinkedHashMap<>();
+        rebuilt.put("eventCounters", analyticsCounterRepository.rebuildEventCounters());
+        rebuilt.put("organizerCounters", analyticsCounterRepository.rebuildOrganizerCounters());
+        rebuilt.put("platformCounters", analyticsCounterRepository.rebuildPlatformCounter(PLATFORM_SCOPE_ID));
+        rebuilt.put("rollupBuckets", analyticsRollupService.rebuildRollups(PLATFORM_SCOPE_ID));
+        
+        logger.info("Rebuilt analytics counters: {}", rebuilt);
+        return rebuilt;
+    }
+    
+    // Counters and rollups start empty on a fresh schema; seed them once from existing data
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void initializeCounters() {
+        boolean empty = analyticsCounterRepository.count() == 0 || !analyticsRollupService.hasRollups();
+        if (empty && registrationRepository.count() > 0) {
+            rebuildCounters();
+        }
+    }
+    
+    private void apply(UUID eventId, CounterDelta delta, LocalDateTime occurredAt) {
+        increment(CounterScope.EVENT, eventId, delta, occurredAt);
+        eventRepository.findOrganizerIdById(eventId)
+                .ifPresent(organizerId -> increment(CounterScope.ORGANIZER, organizerId, delta, occurredAt));
+        increment(CounterScope.PLATFORM, PLATFORM_SCOPE_ID, delta, occurredAt);
+    }
+    
+    private void increment(CounterScope scope, UUID scopeId, CounterDelta delta, LocalDateTime occurredAt) {
+        analyticsCounterRepository.increment(
+                scope.name(),
+                scopeId,
+                delta.totalRegistrations,
+                delta.pendingRegistrations,
+                delta.confirmedRegistrations,
+                delta.cancelledRegistrations,
+                delta.ticketsSold,
+                delta.revenue,
+                delta.refunds
+        );
+        
+        // Status changes have no time of their own and only move the running totals
+        if (occurredAt != null) {
+            analyticsRollupService.record(scope, scopeId, occurredAt,
+                    delta.totalRegistrations, delta.ticketsSold, delta.revenue, delta.refunds);
+        }
+    }
+    
+    private static class CounterDelta {
+        private long totalRegistrations;
+        private long pendingRegistrations;
+        private long confirmedRegistrations;
+        private long cancelledRegistrations;
+        private long ticketsSold;
+        private BigDecimal revenue = BigDecimal.ZERO;
+        private BigDecimal refunds = BigDecimal.ZERO;
+        
+        private void addStatus(RegistrationStatus status, long amount) {
+            if (status == null) {
+                return;
+            }
+            switch (status) {
+                case PENDING -> pendingRegistrations += amount;
+                case CONFIRMED -> confirmedRegistrations += amount;
+                case CANCELLED -> cancelledRegistrations += amount;
+            }
+        }
+    }
+}
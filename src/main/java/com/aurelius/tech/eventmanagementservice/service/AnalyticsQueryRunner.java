@@ -0,0 +1,85 @@
+package com.aurelius.tech.eventmanagementservice.service;
+
+import com.aurelius.tech.eventmanagementservice.config.AnalyticsQueryProperties;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Supplier;
+
+/**
+ * Runs independent analytics reads concurrently on a small bounded pool, each in its own
+ * read-only transaction. With {@code app.analytics.query.parallel=false} the reads run
+ * inline on the calling thread instead.
+ */
+@Component
+@EnableConfigurationProperties(AnalyticsQueryProperties.class)
+public class AnalyticsQueryRunner {
+    
+    private final AnalyticsQueryProperties properties;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ThreadPoolTaskExecutor executor;
+    
+    public AnalyticsQueryRunner(AnalyticsQueryProperties properties,
+                                PlatformTransactionManager transactionManager) {
+        this.properties = properties;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        
+        this.executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getThreads());
+        executor.setMaxPoolSize(properties.getThreads());
+        executor.setQueueCapacity(properties.getQueueCapacity());
+        executor.setThreadNamePrefix("analytics-query-");
+        // A saturated pool pushes work back onto the request thread instead of failing it
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+    }
+    
+    /**
+     * Starts the query and returns a handle whose {@link Query#get()} waits for the result,
+     * rethrowing whatever the query threw.
+     */
+    public <T> Query<T> submit(Supplier<T> query) {
+        if (!properties.isParallel()) {
+            return new Query<>(CompletableFuture.completedFuture(query.get()));
+        }
+        return new Query<>(CompletableFuture.supplyAsync(
+                () -> readOnlyTransaction.execute(status -> query.get()), executor));
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+    
+    public static class Query<T> implements Supplier<T> {
+        
+        private final CompletableFuture<T> future;
+        
+        private Query(CompletableFuture<T> future) {
+            this.future = future;
+        }
+        
+        @Override
+        public T get() {
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                if (e.getCause() instanceof Error cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.aurelius.tech.eventmanagementservice.service;
+
+import com.aurelius.tech.eventmanagementservice.entity.AnalyticsRollup;
+import com.aurelius.tech.eventmanagementservice.entity.enums.CounterScope;
+import com.aurelius.tech.eventmanagementservice.entity.enums.RollupGranularity;
+import com.aurelius.tech.eventmanagementservice.exception.BusinessException;
+import com.aurelius.tech.eventmanagementservice.repository.AnalyticsRollupRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Hour, day and month buckets of registrations, tickets, revenue and refunds per event,
+ * organizer and platform. Buckets are written alongside the analytics counters, so trend
+ * queries of any length are a range scan over pre-aggregated rows.
+ */
+@Service
+public class AnalyticsRollupService {
+    
+    public static final int MAX_BUCKETS = 1000;
+    
+    private static final DateTimeFormatter HOUR_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:00");
+    
+    private final AnalyticsRollupRepository analyticsRollupRepository;
+    
+    public AnalyticsRollupService(AnalyticsRollupRepository analyticsRollupRepository) {
+        this.analyticsRollupRepository = analyticsRollupRepository;
+    }
+    
+    public boolean hasRollups() {
+        return analyticsRollupRepository.count() > 0;
+    }
+    
+    public void record(CounterScope scope, UUID scopeId, LocalDateTime occurredAt,
+                       long registrations, long ticketsSold, BigDecimal revenue, BigDecimal refunds) {
+        analyticsRollupRepository.increment(scope.name(), scopeId, occurredAt,
+                registrations, ticketsSold, revenue, refunds);
+    }
+    
+    /**
+     * Returns one bucket per hour, day or month from the bucket containing {@code from}
+     * through the bucket containing {@code to}, with empty buckets filled in.
+     */
+    public List<AnalyticsRollup> getBuckets(CounterScope scope, UUID scopeId, RollupGranularity granularity,
+                                            LocalDateTime from, LocalDateTime to) {
+        LocalDateTime start = truncate(from, granularity);
+        LocalDateTime end = truncate(to, granularity);
+        validateRange(start, end, granularity);
+        return fillBuckets(scope, scopeId, granularity, start, end,
+                analyticsRollupRepository.findBuckets(scope, scopeId, granularity, start, end));
+    }
+    
+    /**
+     * Same as {@link #getBuckets(CounterScope, UUID, RollupGranularity, LocalDateTime, LocalDateTime)}
+     * for several scope ids, read with a single query.
+     */
+    public Map<UUID, List<AnalyticsRollup>> getBuckets(CounterScope scope, Collection<UUID> scopeIds,
+                                                       RollupGranularity granularity,
+                                                       LocalDateTime from, LocalDateTime to) {
+        LocalDateTime start = truncate(from, granularity);
+        LocalDateTime end = truncate(to, granularity);
+        validateRange(start, end, granularity);
+        
+        Map<UUID, List<AnalyticsRollup>> stored = new HashMap<>();
+        if (!scopeIds.isEmpty()) {
+            for (AnalyticsRollup rollup : analyticsRollupRepository.findBucketsIn(scope, scopeIds, granularity, start, end)) {
+                stored.computeIfAbsent(rollup.getScopeId(), id -> new ArrayList<>()).add(rollup);
+            }
+        }
+        
+        Map<UUID, List<AnalyticsRollup>> buckets = new LinkedHashMap<>();
+        for (UUID scopeId : scopeIds) {
+            buckets.put(scopeId, fillBuckets(scope, scopeId, granularity, start, end,
+                    stored.getOrDefault(scopeId, Collections.emptyList())));
+        }
+        return buckets;
+    }
+    
+    /**
+     * Recomputes every bucket from the registrations and payments tables. Callers are
+     * expected to hold the analytics counter lock, see {@link AnalyticsCounterService#rebuildCounters()}.
+     */
+    @Transactional
+    public int rebuildRollups(UUID platformId) {
+        analyticsRollupRepository.deleteAllRollups();
+        return analyticsRollupRepository.rebuildEventRollups()
+                + analyticsRollupRepository.rebuildOrganizerRollups()
+                + analyticsRollupRepository.rebuildPlatformRollups(platformId);
+    }
+    
+    public RollupGranularity parseGranularity(String granularity, RollupGranularity defaultGranularity) {
+        if (granularity == null || granularity.isBlank()) {
+            return defaultGranularity;
+        }
+        try {
+            return RollupGranularity.valueOf(granularity.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("Invalid granularity: " + granularity + ". Expected hour, day or month");
+        }
+    }
+    
+    public String formatBucket(LocalDateTime bucketStart, RollupGranularity granularity) {
+        return switch (granularity) {
+            case HOUR -> bucketStart.format(HOUR_FORMAT);
+            case DAY, MONTH -> bucketStart.toLocalDate().toString();
+        };
+    }
+    
+    private void validateRange(LocalDateTime start, LocalDateTime end, RollupGranularity granularity) {
+        if (start.isAfter(end)) {
+            throw new BusinessException("Trend range start must not be after its end");
+        }
+        if (unitsBetween(start, end, granularity) >= MAX_BUCKETS) {
+            throw new BusinessException("Trend range cannot exceed " + MAX_BUCKETS + " " +
+                    granularity.name().toLowerCase() + " buckets");
+        }
+    }
+    
+    private List<AnalyticsRollup> fillBuckets(CounterScope scope, UUID scopeId, RollupGranularity granularity,
+                                              LocalDateTime start, LocalDateTime end, List<AnalyticsRollup> rollups) {
+        Map<LocalDateTime, AnalyticsRollup> stored = new HashMap<>();
+        for (AnalyticsRollup rollup : rollups) {
+            stored.put(rollup.getBucketStart(), rollup);
+        }
+        
+        List<AnalyticsRollup> buckets = new ArrayList<>();
+        for (LocalDateTime bucket = start; !bucket.isAfter(end); bucket = next(bucket, granularity)) {
+            AnalyticsRollup rollup = stored.get(bucket);
+            if (rollup == null) {
+                rollup = new AnalyticsRollup();
+                rollup.setScope(scope);
+                rollup.setScopeId(scopeId);
+                rollup.setGranularity(granularity);
+                rollup.setBucketStart(bucket);
+            }
+            buckets.add(rollup);
+        }
+        return buckets;
+    }
+    
+    private LocalDateTime truncate(LocalDateTime time, RollupGranularity granularity) {
+        return switch (granularity) {
+            case HOUR -> time.truncatedTo(ChronoUnit.HOURS);
+            case DAY -> time.truncatedTo(ChronoUnit.DAYS);
+            case MONTH -> time.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1);
+        };
+    }
+    
+    private LocalDateTime next(LocalDateTime bucket, RollupGranularity granularity) {
+        return switch (granularity) {
+            case HOUR -> bucket.plusHours(1);
+            case DAY -> bucket.plusDays(1);
+            case MONTH -> bucket.plusMonths(1);
+        };
+    }
+    
+    private long unitsBetween(LocalDateTime start, LocalDateTime end, RollupGranularity granularity) {
+        return switch (granularity) {
+            case HOUR -> ChronoUnit.HOURS.between(start, end);
+            case DAY -> ChronoUnit.DAYS.between(start, end);
+            case MONTH -> ChronoUnit.MONTHS.between(start, end);
+        };
+    }
+}
@@ -1,434 +1,525 @@
 package com.aurelius.tech.eventmanagementservice.service;
 
+import com.aurelius.tech.eventmanagementservice.dto.EventFinancials;
 import com.aurelius.tech.eventmanagementservice.dto.response.EventAnalyticsResponse;
 import com.aurelius.tech.eventmanagementservice.dto.response.OrganizerDashboardResponse;
 import com.aurelius.tech.eventmanagementservice.dto.response.PlatformAnalyticsResponse;
 import com.aurelius.tech.eventmanagementservice.entity.*;
 import com.aurelius.tech.eventmanagementservice.entity.enums.*;
+import com.aurelius.tech.eventmanagementservice.exception.BusinessException;
 import com.aurelius.tech.eventmanagementservice.exception.ResourceNotFoundException;
 import com.aurelius.tech.eventmanagementservice.repository.*;
+import com.aurelius.tech.eventmanagementservice.repository.projection.*;
+import com.aurelius.tech.eventmanagementservice.util.FieldSelection;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
 public class AnalyticsService {
     
+    public static final int MAX_BATCH_EVENTS = 100;
+    
+    // Response fields served by each independently queried section
+    private static final Set<String> EVENT_FINANCIAL_FIELDS = Set.of("totalRegistrations", "confirmedRegistrations",
+            "cancelledRegistrations", "pendingRegistrations", "totalTicketsSold", "ticketSalesRevenue", "totalRevenue",
+            "totalServiceCosts", "profit", "margin", "checkedInCount", "noShowCount", "attendanceRate");
+    private static final Set<String> EVENT_CAPACITY_FIELDS = Set.of("totalTicketsAvailable");
+    private static final Set<String> EVENT_TREND_FIELDS = Set.of("registrationTrends");
+    
+    private static final Set<String> ORGANIZER_EVENT_FIELDS = Set.of("totalEvents", "activeEvents",
+            "completedEvents", "cancelledEvents", "averageMargin");
+    private static final Set<String> ORGANIZER_COUNTER_FIELDS = Set.of("totalRevenue", "totalProfit",
+            "averageMargin", "totalRegistrations", "totalTicketsSold");
+    private static final Set<String> ORGANIZER_COST_FIELDS = Set.of("totalServiceCosts", "totalProfit", "averageMargin");
+    private static final Set<String> ORGANIZER_PROFIT_FIELDS = Set.of("totalProfit", "averageMargin");
+    private static final Set<String> ORGANIZER_RECENT_FIELDS = Set.of("recentEventsPerformance");
+    private static final Set<String> ORGANIZER_TREND_FIELDS = Set.of("revenueTrends");
+    
+    private static final Set<String> PLATFORM_USER_FIELDS = Set.of("totalUsers", "totalOrganizers",
+            "totalAttendees", "activeUsers");
+    private static final Set<String> PLATFORM_EVENT_FIELDS = Set.of("totalEvents", "publishedEvents",
+            "completedEvents", "upcomingEvents", "averageEventAttendance");
+    private static final Set<String> PLATFORM_COUNTER_FIELDS = Set.of("totalPlatformRevenue", "totalPaymentsProcessed",
+            "totalRefunds", "platformCommission", "totalRegistrations", "totalTicketsSold", "averageEventAttendance");
+    private static final Set<String> PLATFORM_CATEGORY_FIELDS = Set.of("eventsByCategory");
+    private static final Set<String> PLATFORM_TREND_FIELDS = Set.of("platformRevenueTrends");
+    
     private final EventRepository eventRepository;
-    private final RegistrationRepository registrationRepository;
-    private final PaymentRepository paymentRepository;
     private final UserRepository userRepository;
     private final TicketRepository ticketRepository;
-    private final CategoryRepository categoryRepository;
     private final EventServiceRepository eventServiceRepository;
+    private final AnalyticsCounterService analyticsCounterService;
+    private final EventFinancialsService eventFinancialsService;
+    private final AnalyticsRollupService analyticsRollupService;
+    private final AnalyticsCacheService analyticsCacheService;
+    private final AnalyticsQueryRunner analyticsQueryRunner;
     
     public AnalyticsService(EventRepository eventRepository,
-                           RegistrationRepository registrationRepository,
-                           PaymentRepository paymentRepository,
                            UserRepository userRepository,
                            TicketRepository ticketRepository,
-                           CategoryRepository categoryRepository,
-                           EventServiceRepository eventServiceRepository) {
+                           EventServiceRepository eventServiceRepository,
+                           AnalyticsCounterService analyticsCounterService,
+                           EventFinancialsService eventFinancialsService,
+                           AnalyticsRollupService analyticsRollupService,
+                           AnalyticsCacheService analyticsCacheService,
+                           AnalyticsQueryRunner analyticsQueryRunner) {
         this.eventRepository = eventRepository;
-        this.registrationRepository = registrationRepository;
-        this.paymentRepository = paymentRepository;
         this.userRepository = userRepository;
         this.ticketRepository = ticketRepository;
-        this.categoryRepository = categoryRepository;
         this.eventServiceRepository = eventServiceRepository;
+        this.analyticsCounterService = analyticsCounterService;
+        this.eventFinancialsService = eventFinancialsService;
+        this.analyticsRollupService = analyticsRollupService;
+        this.analyticsCacheService = analyticsCacheService;
+        this.analyticsQueryRunner = analyticsQueryRunner;
+    }
+    
+    /**
+     * Event analytics with registration trends over {@code from}..{@code to} at the given
+     * granularity; defaults to daily buckets for the last 30 days. Only the sections behind
+     * the selected {@code fields} are queried.
+     */
+    public EventAnalyticsResponse getEventAnalytics(UUID eventId, LocalDateTime from, LocalDateTime to,
+                                                    String granularity, String fields) {
+        RollupGranularity trendGranularity = analyticsRollupService.parseGranularity(granularity, RollupGranularity.DAY);
+        FieldSelection selection = FieldSelection.parse(fields, EventAnalyticsResponse.class);
+        return analyticsCacheService.get(CounterScope.EVENT, eventId, cacheVariant(from, to, trendGranularity, selection),
+                EventAnalyticsResponse.class, () -> buildEventAnalytics(eventId, from, to, trendGranularity, selection));
+    }
+    
+    /**
+     * Event analytics for several events at once, keyed by event id in request order. Each
+     * section is read with one grouped query for the whole batch rather than once per event.
+     */
+    public Map<UUID, EventAnalyticsResponse> getEventAnalyticsBatch(List<UUID> eventIds, LocalDateTime from,
+                                                                  LocalDateTime to, String granularity,
+                                                                  String fields) {
+        RollupGranularity trendGranularity = analyticsRollupService.parseGranularity(granularity, RollupGranularity.DAY);
+        FieldSelection selection = FieldSelection.parse(fields, EventAnalyticsResponse.class);
+        Set<UUID> uniqueIds = new LinkedHashSet<>(eventIds);
+        if (uniqueIds.size() > MAX_BATCH_EVENTS) {
+            throw new BusinessException("A batch cannot contain more than " + MAX_BATCH_EVENTS + " events");
+        }
+        return buildEventAnalyticsBatch(uniqueIds, from, to, trendGranularity, selection);
+    }
+    
+    /**
+     * Organizer dashboard with revenue trends over {@code from}..{@code to} at the given
+     * granularity; defaults to monthly buckets for the last 12 months. Only the sections
+     * behind the selected {@code fields} are queried.
+     */
+    public OrganizerDashboardResponse getOrganizerDashboard(UUID organizerId, LocalDateTime from, LocalDateTime to,
+                                                            String granularity, String fields) {
+        RollupGranularity trendGranularity = analyticsRollupService.parseGranularity(granularity, RollupGranularity.MONTH);
+        FieldSelection selection = FieldSelection.parse(fields, OrganizerDashboardResponse.class);
+        return analyticsCacheService.get(CounterScope.ORGANIZER, organizerId,
+                cacheVariant(from, to, trendGranularity, selection), OrganizerDashboardResponse.class,
+                () -> buildOrganizerDashboard(organizerId, from, to, trendGranularity, selection));
+    }
+    
+    /**
+     * Platform analytics with revenue trends over {@code from}..{@code to} at the given
+     * granularity; defaults to monthly buckets for the last 12 months. Only the sections
+     * behind the selected {@code fields} are queried.
+     */
+    public PlatformAnalyticsResponse getPlatformAnalytics(LocalDateTime from, LocalDateTime to, String granularity,
+                                                          String fields) {
+        RollupGranularity trendGranularity = analyticsRollupService.parseGranularity(granularity, RollupGranularity.MONTH);
+        FieldSelection selection = FieldSelection.parse(fields, PlatformAnalyticsResponse.class);
+        return analyticsCacheService.get(CounterScope.PLATFORM, AnalyticsCounterService.PLATFORM_SCOPE_ID,
+                cacheVariant(from, to, trendGranularity, selection), PlatformAnalyticsResponse.class,
+                () -> buildPlatformAnalytics(from, to, trendGranularity, selection));
     }
     
-    public EventAnalyticsResponse getEventAnalytics(UUID eventId) {
-        Event event = eventRepository.findById(eventId)
+    private EventAnalyticsResponse buildEventAnalytics(UUID eventId, LocalDateTime from, LocalDateTime to,
+                                                       RollupGranularity trendGranularity, FieldSelection fields) {
+        // The needed reads are independent, so they are started together and joined as needed
+        LocalDateTime trendEnd = to != null ? to : LocalDateTime.now();
+        LocalDateTime trendStart = from != null ? from : trendEnd.minusDays(29);
+        Supplier<Optional<Event>> eventQuery = analyticsQueryRunner.submit(() -> eventRepository.findById(eventId));
+        Supplier<EventFinancials> financialsQuery = section(fields, EVENT_FINANCIAL_FIELDS,
+                () -> eventFinancialsService.getFinancials(eventId));
+        Supplier<Long> ticketsAvailableQuery = section(fields, EVENT_CAPACITY_FIELDS,
+                () -> ticketRepository.sumQuantityByEventId(eventId));
+        Supplier<List<Map<String, Object>>> trendsQuery = section(fields, EVENT_TREND_FIELDS,
+                () -> generateTrends(CounterScope.EVENT, eventId, trendGranularity, trendStart, trendEnd,
+                        "count", AnalyticsRollup::getRegistrations));
+        
+        Event event = eventQuery.get()
                 .orElseThrow(() -> new ResourceNotFoundException("Event", "id", eventId));
         
-        // Get all registrations for this event
-        List<Registration> registrations = registrationRepository.findByEventId(eventId);
-        
-        // Calculate registration metrics
-        int totalRegistrations = registrations.size();
-        long confirmedRegistrations = registrations.stream()
-                .filter(r -> r.getStatus() == RegistrationStatus.CONFIRMED)
-                .count();
-        long cancelledRegistrations = registrations.stream()
-                .filter(r -> r.getStatus() == RegistrationStatus.CANCELLED)
-                .count();
-        long pendingRegistrations = registrations.stream()
-                .filter(r -> r.getStatus() == RegistrationStatus.PENDING)
-                .count();
+        return toEventAnalytics(event, fields, financialsQuery, ticketsAvailableQuery, trendsQuery);
+    }
+    
+    private Map<UUID, EventAnalyticsResponse> buildEventAnalyticsBatch(Set<UUID> eventIds, LocalDateTime from,
+                                                                     LocalDateTime to,
+                                                                     RollupGranularity trendGranularity,
+                                                                     FieldSelection fields) {
+        // One grouped query per section for the whole batch instead of one set per event
+        LocalDateTime trendEnd = to != null ? to : LocalDateTime.now();
+        LocalDateTime trendStart = from != null ? from : trendEnd.minusDays(29);
+        Supplier<List<Event>> eventsQuery = analyticsQueryRunner.submit(() -> eventRepository.findAllById(eventIds));
+        Supplier<Map<UUID, EventFinancials>> financialsQuery = section(fields, EVENT_FINANCIAL_FIELDS,
+                () -> eventFinancialsService.getFinancials(eventIds));
+        Supplier<Map<UUID, Long>> ticketsAvailableQuery = section(fields, EVENT_CAPACITY_FIELDS,
+                () -> ticketRepository.sumQuantityGroupedByEventId(eventIds).stream()
+                        .collect(Collectors.toMap(EventQuantityTotal::getEventId, EventQuantityTotal::getTotal)));
+        Supplier<Map<UUID, List<Map<String, Object>>>> trendsQuery = section(fields, EVENT_TREND_FIELDS,
+                () -> generateTrends(CounterScope.EVENT, eventIds, trendGranularity, trendStart, trendEnd,
+                        "count", AnalyticsRollup::getRegistrations));
+        
+        Map<UUID, Event> events = eventsQuery.get().stream()
+                .collect(Collectors.toMap(Event::getId, Function.identity()));
+        for (UUID eventId : eventIds) {
+            if (!events.containsKey(eventId)) {
+                throw new ResourceNotFoundException("Event", "id", eventId);
+            }
+        }
         
-        // Calculate ticket sales
-        int totalTicketsSold = registrations.stream()
-                .mapToInt(Registration::getQuantity)
-                .sum();
+        Map<UUID, EventAnalyticsResponse> responses = new LinkedHashMap<>();
+        for (UUID eventId : eventIds) {
+            responses.put(eventId, toEventAnalytics(events.get(eventId), fields,
+                    () -> financialsQuery.get().getOrDefault(eventId, EventFinancials.empty()),
+                    () -> ticketsAvailableQuery.get().getOrDefault(eventId, 0L),
+                    () -> trendsQuery.get().get(eventId)));
+        }
+        return responses;
+    }
+    
+    private EventAnalyticsResponse toEventAnalytics(Event event, FieldSelection fields,
+                                                    Supplier<EventFinancials> financialsQuery,
+                                                    Supplier<Long> ticketsAvailableQuery,
+                                                    Supplier<List<Map<String, Object>>> trendsQuery) {
+        EventAnalyticsResponse response = new EventAnalyticsResponse();
+        response.setEventId(event.getId());
+        response.setEventTitle(event.getTitle());
+        response.setStartDateTime(event.getStartDateTime());
+        response.setEndDateTime(event.getEndDateTime());
+        
+        if (fields.includesAny(EVENT_FINANCIAL_FIELDS)) {
+            // Same figures as the event's financial metrics, computed once per data version
+            EventFinancials financials = financialsQuery.get();
+            
+            // Calculate registration metrics
+            int totalRegistrations = (int) financials.getTotalRegistrations();
+            response.setTotalRegistrations(totalRegistrations);
+            response.setConfirmedRegistrations((int) financials.getConfirmedRegistrations());
+            response.setCancelledRegistrations((int) financials.getCancelledRegistrations());
+            response.setPendingRegistrations((int) financials.getPendingRegistrations());
+            
+            // Calculate ticket sales
+            response.setTotalTicketsSold((int) financials.getTotalTicketsSold());
+            
+            // Revenue from successful payments; total revenue is the same as ticket sales revenue for now
+            response.setTicketSalesRevenue(financials.getTotalRevenue());
+            response.setTotalRevenue(financials.getTotalRevenue());
+            
+            // Service costs, profit and margin
+            response.setTotalServiceCosts(financials.getTotalServiceCosts());
+            response.setProfit(financials.getProfit());
+            response.setMargin(financials.getMargin());
+            
+            // Calculate attendance metrics (assuming checked-in is tracked via registration status or separate check-in)
+            // For now, we'll use confirmed registrations as a proxy
+            int checkedInCount = (int) financials.getConfirmedRegistrations(); // This would come from check-in service
+            response.setCheckedInCount(checkedInCount);
+            response.setNoShowCount(0); // This would come from check-in service
+            response.setAttendanceRate(totalRegistrations > 0 ?
+                    (double) checkedInCount / totalRegistrations * 100 : 0.0);
+        }
         
         // Get total tickets available
-        List<Ticket> tickets = ticketRepository.findByEventId(eventId);
-        int totalTicketsAvailable = tickets.stream()
-                .mapToInt(Ticket::getQuantity)
-                .sum();
-        
-        // Calculate revenue from successful payments
-        List<Payment> successfulPayments = paymentRepository.findAllByRegistration_EventIdAndStatus(
-                eventId, PaymentStatus.SUCCESS);
-        BigDecimal ticketSalesRevenue = successfulPayments.stream()
-                .map(Payment::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        // Calculate total revenue (same as ticket sales revenue for now)
-        BigDecimal totalRevenue = ticketSalesRevenue;
-        
-        // Calculate service costs
-        List<EventServiceItem> services = eventServiceRepository.findByEventId(eventId);
-        BigDecimal totalServiceCosts = services.stream()
-                .map(EventServiceItem::getRate)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        // Calculate profit and margin
-        BigDecimal profit = totalRevenue.subtract(totalServiceCosts);
-        BigDecimal margin = BigDecimal.ZERO;
-        if (totalRevenue.compareTo(BigDecimal.ZERO) > 0) {
-            margin = profit.divide(totalRevenue, 4, RoundingMode.HALF_UP)
-                    .multiply(BigDecimal.valueOf(100))
-                    .setScale(2, RoundingMode.HALF_UP);
+        if (fields.includesAny(EVENT_CAPACITY_FIELDS)) {
+            response.setTotalTicketsAvailable(ticketsAvailableQuery.get().intValue());
         }
         
-        // Calculate attendance metrics (assuming checked-in is tracked via registration status or separate check-in)
-        // For now, we'll use confirmed registrations as a proxy
-        int checkedInCount = (int) confirmedRegistrations; // This would come from check-in service
-        int noShowCount = 0; // This would come from check-in service
-        double attendanceRate = totalRegistrations > 0 ? 
-                (double) checkedInCount / totalRegistrations * 100 : 0.0;
-        
-        // Generate registration trends (daily registrations for the last 30 days)
-        List<Map<String, Object>> registrationTrends = generateRegistrationTrends(eventId, 30);
+        // Registration trends (daily registrations for the last 30 days by default)
+        if (fields.includesAny(EVENT_TREND_FIELDS)) {
+            response.setRegistrationTrends(trendsQuery.get());
+        }
         
-        return new EventAnalyticsResponse(
-                eventId,
-                event.getTitle(),
-                event.getStartDateTime(),
-                event.getEndDateTime(),
-                totalRegistrations,
-                (int) confirmedRegistrations,
-                (int) cancelledRegistrations,
-                (int) pendingRegistrations,
-                totalTicketsSold,
-                totalTicketsAvailable,
-                ticketSalesRevenue,
-                totalRevenue,
-                totalServiceCosts,
-                profit,
-                margin,
-                checkedInCount,
-                noShowCount,
-                attendanceRate,
-                registrationTrends
-        );
+        return fields.apply(response);
     }
     
-    public OrganizerDashboardResponse getOrganizerDashboard(UUID organizerId) {
-        User organizer = userRepository.findById(organizerId)
+    private OrganizerDashboardResponse buildOrganizerDashboard(UUID organizerId, LocalDateTime from, LocalDateTime to,
+                                                               RollupGranularity trendGranularity,
+                                                               FieldSelection fields) {
+        Supplier<Optional<User>> organizerQuery = analyticsQueryRunner.submit(() -> userRepository.findById(organizerId));
+        Supplier<List<EventStatusCount>> statusQuery = section(fields, ORGANIZER_EVENT_FIELDS,
+                () -> eventRepository.countGroupedByStatusForOrganizer(organizerId));
+        Supplier<Optional<AnalyticsCounter>> counterQuery = section(fields, ORGANIZER_COUNTER_FIELDS,
+                () -> analyticsCounterService.getOrganizerCounter(organizerId));
+        Supplier<BigDecimal> serviceCostsQuery = section(fields, ORGANIZER_COST_FIELDS,
+                () -> eventServiceRepository.sumRateForOrganizer(organizerId));
+        Supplier<List<Map<String, Object>>> recentEventsQuery = section(fields, ORGANIZER_RECENT_FIELDS,
+                () -> generateRecentEventsPerformance(organizerId));
+        Supplier<List<Map<String, Object>>> trendsQuery = section(fields, ORGANIZER_TREND_FIELDS,
+                () -> generateRevenueTrends(CounterScope.ORGANIZER, organizerId, from, to, trendGranularity));
+        
+        User organizer = organizerQuery.get()
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", organizerId));
         
-        // Get all events by organizer
-        List<Event> events = eventRepository.findByOrganizerId(organizerId);
+        OrganizerDashboardResponse response = new OrganizerDashboardResponse();
+        response.setOrganizerId(organizerId);
+        response.setOrganizerName(organizer.getFirstName() + " " + organizer.getLastName());
         
         // Calculate event statistics
-        int totalEvents = events.size();
-        long activeEvents = events.stream()
-                .filter(e -> e.getStatus() == EventStatus.PUBLISHED)
-                .count();
-        long completedEvents = events.stream()
-                .filter(e -> e.getStatus() == EventStatus.COMPLETED)
-                .count();
-        long cancelledEvents = events.stream()
-                .filter(e -> e.getStatus() == EventStatus.CANCELLED)
-                .count();
+        if (fields.includesAny(ORGANIZER_EVENT_FIELDS)) {
+            int totalEvents = 0;
+            int activeEvents = 0;
+            int completedEvents = 0;
+            int cancelledEvents = 0;
+            for (EventStatusCount row : statusQuery.get()) {
+                int count = row.getTotal().intValue();
+                totalEvents += count;
+                if (row.getStatus() == EventStatus.PUBLISHED) {
+                    activeEvents = count;
+                } else if (row.getStatus() == EventStatus.COMPLETED) {
+                    completedEvents = count;
+                } else if (row.getStatus() == EventStatus.CANCELLED) {
+                    cancelledEvents = count;
+                }
+            }
+            response.setTotalEvents(totalEvents);
+            response.setActiveEvents(activeEvents);
+            response.setCompletedEvents(completedEvents);
+            response.setCancelledEvents(cancelledEvents);
+        }
         
         // Calculate financial summary across all events
-        BigDecimal totalRevenue = BigDecimal.ZERO;
-        BigDecimal totalServiceCosts = BigDecimal.ZERO;
-        int totalRegistrations = 0;
-        int totalTicketsSold = 0;
-        
-        for (Event event : events) {
-            List<Payment> successfulPayments = paymentRepository.findAllByRegistration_EventIdAndStatus(
-                    event.getId(), PaymentStatus.SUCCESS);
-            BigDecimal eventRevenue = successfulPayments.stream()
-                    .map(Payment::getAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-            totalRevenue = totalRevenue.add(eventRevenue);
-            
-            List<EventServiceItem> services = eventServiceRepository.findByEventId(event.getId());
-            BigDecimal eventServiceCosts = services.stream()
-                    .map(EventServiceItem::getRate)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-            totalServiceCosts = totalServiceCosts.add(eventServiceCosts);
-            
-            List<Registration> eventRegistrations = registrationRepository.findByEventId(event.getId());
-            totalRegistrations += eventRegistrations.size();
-            totalTicketsSold += eventRegistrations.stream()
-                    .mapToInt(Registration::getQuantity)
-                    .sum();
+        if (fields.includesAny(ORGANIZER_COUNTER_FIELDS)) {
+            AnalyticsCounter counter = counterQuery.get()
+                    .orElseGet(AnalyticsCounter::new);
+            response.setTotalRevenue(counter.getRevenue());
+            response.setTotalRegistrations(counter.getTotalRegistrations().intValue());
+            response.setTotalTicketsSold(counter.getTicketsSold().intValue());
         }
         
-        BigDecimal totalProfit = totalRevenue.subtract(totalServiceCosts);
-        BigDecimal averageMargin = BigDecimal.ZERO;
-        if (totalEvents > 0 && totalRevenue.compareTo(BigDecimal.ZERO) > 0) {
-            averageMargin = totalProfit.divide(totalRevenue, 4, RoundingMode.HALF_UP)
-                    .multiply(BigDecimal.valueOf(100))
-                    .setScale(2, RoundingMode.HALF_UP);
+        if (fields.includesAny(ORGANIZER_COST_FIELDS)) {
+            BigDecimal totalServiceCosts = serviceCostsQuery.get();
+            response.setTotalServiceCosts(totalServiceCosts);
+            if (fields.includesAny(ORGANIZER_PROFIT_FIELDS)) {
+                BigDecimal totalRevenue = response.getTotalRevenue();
+                BigDecimal totalProfit = totalRevenue.subtract(totalServiceCosts);
+                response.setTotalProfit(totalProfit);
+                if (fields.includes("averageMargin")) {
+                    response.setAverageMargin(response.getTotalEvents() > 0
+                            ? EventFinancialsService.marginOf(totalProfit, totalRevenue) : BigDecimal.ZERO);
+                }
+            }
         }
         
         // Recent events performance (last 10 events)
-        List<Map<String, Object>> recentEventsPerformance = events.stream()
-                .sorted((e1, e2) -> e2.getCreatedAt().compareTo(e1.getCreatedAt()))
-                .limit(10)
-                .map(event -> {
-                    Map<String, Object> performance = new HashMap<>();
-                    performance.put("eventId", event.getId());
-                    performance.put("title", event.getTitle());
-                    performance.put("status", event.getStatus().toString());
-                    
-                    List<Payment> eventPayments = paymentRepository.findAllByRegistration_EventIdAndStatus(
-                            event.getId(), PaymentStatus.SUCCESS);
-                    BigDecimal revenue = eventPayments.stream()
-                            .map(Payment::getAmount)
-                            .reduce(BigDecimal.ZERO, BigDecimal::add);
-                    performance.put("revenue", revenue);
-                    
-                    List<Registration> eventRegs = registrationRepository.findByEventId(event.getId());
-                    performance.put("registrations", eventRegs.size());
-                    performance.put("ticketsSold", eventRegs.stream()
-                            .mapToInt(Registration::getQuantity)
-                            .sum());
-                    
-                    return performance;
-                })
-                .collect(Collectors.toList());
+        if (fields.includesAny(ORGANIZER_RECENT_FIELDS)) {
+            response.setRecentEventsPerformance(recentEventsQuery.get());
+        }
         
-        // Revenue trends (monthly for last 12 months)
-        List<Map<String, Object>> revenueTrends = generateRevenueTrends(organizerId, 12);
+        // Revenue trends (monthly for last 12 months by default)
+        if (fields.includesAny(ORGANIZER_TREND_FIELDS)) {
+            response.setRevenueTrends(trendsQuery.get());
+        }
         
-        return new OrganizerDashboardResponse(
-                organizerId,
-                organizer.getFirstName() + " " + organizer.getLastName(),
-                totalEvents,
-                (int) activeEvents,
-                (int) completedEvents,
-                (int) cancelledEvents,
-                totalRevenue,
-                totalServiceCosts,
-                totalProfit,
-                averageMargin,
-                totalRegistrations,
-                totalTicketsSold,
-                recentEventsPerformance,
-                revenueTrends
-        );
+        return fields.apply(response);
     }
     
-    public PlatformAnalyticsResponse getPlatformAnalytics() {
+    private PlatformAnalyticsResponse buildPlatformAnalytics(LocalDateTime from, LocalDateTime to,
+                                                             RollupGranularity trendGranularity,
+                                                             FieldSelection fields) {
+        Supplier<List<UserRoleStatusCount>> userQuery = section(fields, PLATFORM_USER_FIELDS,
+                userRepository::countGroupedByRoleAndStatus);
+        Supplier<List<EventStatusCount>> eventQuery = section(fields, PLATFORM_EVENT_FIELDS,
+                () -> eventRepository.countGroupedByStatus(LocalDateTime.now()));
+        Supplier<Optional<AnalyticsCounter>> counterQuery = section(fields, PLATFORM_COUNTER_FIELDS,
+                analyticsCounterService::getPlatformCounter);
+        Supplier<List<Map<String, Object>>> categoryQuery = section(fields, PLATFORM_CATEGORY_FIELDS,
+                this::generateEventsByCategory);
+        Supplier<List<Map<String, Object>>> trendsQuery = section(fields, PLATFORM_TREND_FIELDS,
+                () -> generateRevenueTrends(CounterScope.PLATFORM, AnalyticsCounterService.PLATFORM_SCOPE_ID,
+                        from, to, trendGranularity));
+        
+        PlatformAnalyticsResponse response = new PlatformAnalyticsResponse();
+        
         // User statistics
-        List<User> allUsers = userRepository.findAll();
-        int totalUsers = allUsers.size();
-        long totalOrganizers = allUsers.stream()
-                .filter(u -> u.getRole() == UserRole.ORGANIZER)
-                .count();
-        long totalAttendees = allUsers.stream()
-                .filter(u -> u.getRole() == UserRole.ATTENDEE)
-                .count();
-        long activeUsers = allUsers.stream()
-                .filter(u -> u.getStatus() == UserStatus.ACTIVE)
-                .count();
+        if (fields.includesAny(PLATFORM_USER_FIELDS)) {
+            int totalUsers = 0;
+            int totalOrganizers = 0;
+            int totalAttendees = 0;
+            int activeUsers = 0;
+            for (UserRoleStatusCount row : userQuery.get()) {
+                int count = row.getTotal().intValue();
+                totalUsers += count;
+                if (row.getRole() == UserRole.ORGANIZER) {
+                    totalOrganizers += count;
+                } else if (row.getRole() == UserRole.ATTENDEE) {
+                    totalAttendees += count;
+                }
+                if (row.getStatus() == UserStatus.ACTIVE) {
+                    activeUsers += count;
+                }
+            }
+            response.setTotalUsers(totalUsers);
+            response.setTotalOrganizers(totalOrganizers);
+            response.setTotalAttendees(totalAttendees);
+            response.setActiveUsers(activeUsers);
+        }
         
         // Event statistics
-        List<Event> allEvents = eventRepository.findAll();
-        int totalEvents = allEvents.size();
-        long publishedEvents = allEvents.stream()
-                .filter(e -> e.getStatus() == EventStatus.PUBLISHED)
-                .count();
-        long completedEvents = allEvents.stream()
-                .filter(e -> e.getStatus() == EventStatus.COMPLETED)
-                .count();
-        long upcomingEvents = allEvents.stream()
-                .filter(e -> e.getStatus() == EventStatus.PUBLISHED && 
-                        e.getStartDateTime().isAfter(LocalDateTime.now()))
-                .count();
-        
-        // Financial statistics
-        List<Payment> allPayments = paymentRepository.findAll();
-        BigDecimal totalPlatformRevenue = allPayments.stream()
-                .filter(p -> p.getStatus() == PaymentStatus.SUCCESS)
-                .map(Payment::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        BigDecimal totalPaymentsProcessed = totalPlatformRevenue;
-        BigDecimal totalRefunds = allPayments.stream()
-                .filter(p -> p.getStatus() == PaymentStatus.REFUNDED)
-                .map(Payment::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        // Platform commission (assuming 10% commission)
-        BigDecimal platformCommission = totalPlatformRevenue.multiply(BigDecimal.valueOf(0.10))
-                .setScale(2, RoundingMode.HALF_UP);
-        
-        // Registration statistics
-        List<Registration> allRegistrations = registrationRepository.findAll();
-        int totalRegistrations = allRegistrations.size();
-        int totalTicketsSold = allRegistrations.stream()
-                .mapToInt(Registration::getQuantity)
-                .sum();
-        
-        double averageEventAttendance = totalEvents > 0 ? 
-                (double) totalRegistrations / totalEvents : 0.0;
-        
-        // Events by category
-        List<Map<String, Object>> eventsByCategory = generateEventsByCategory();
-        
-        // Platform revenue trends (monthly for last 12 months)
-        List<Map<String, Object>> platformRevenueTrends = generatePlatformRevenueTrends(12);
-        
-        return new PlatformAnalyticsResponse(
-                totalUsers,
-                (int) totalOrganizers,
-                (int) totalAttendees,
-                (int) activeUsers,
-                totalEvents,
-                (int) publishedEvents,
-                (int) completedEvents,
-                (int) upcomingEvents,
-                totalPlatformRevenue,
-                totalPaymentsProcessed,
-                totalRefunds,
-                platformCommission,
-                totalRegistrations,
-                totalTicketsSold,
-                averageEventAttendance,
-                eventsByCategory,
-                platformRevenueTrends
-        );
-    }
-    
-    private List<Map<String, Object>> generateRegistrationTrends(UUID eventId, int days) {
-        List<Map<String, Object>> trends = new ArrayList<>();
-        LocalDateTime endDate = LocalDateTime.now();
-        LocalDateTime startDate = endDate.minusDays(days);
-        
-        List<Registration> registrations = registrationRepository.findByEventId(eventId);
-        
-        Map<String, Long> dailyCounts = registrations.stream()
-                .filter(r -> r.getRegisteredAt() != null && 
-                        r.getRegisteredAt().isAfter(startDate) && 
-                        r.getRegisteredAt().isBefore(endDate))
-                .collect(Collectors.groupingBy(
-                        r -> r.getRegisteredAt().toLocalDate().toString(),
-                        Collectors.counting()
-                ));
+        if (fields.includesAny(PLATFORM_EVENT_FIELDS)) {
+            int totalEvents = 0;
+            int publishedEvents = 0;
+            int completedEvents = 0;
+            int upcomingEvents = 0;
+            for (EventStatusCount row : eventQuery.get()) {
+                int count = row.getTotal().intValue();
+                totalEvents += count;
+                if (row.getStatus() == EventStatus.PUBLISHED) {
+                    publishedEvents = count;
+                    upcomingEvents = row.getUpcoming().intValue();
+                } else if (row.getStatus() == EventStatus.COMPLETED) {
+                    completedEvents = count;
+                }
+            }
+            response.setTotalEvents(totalEvents);
+            response.setPublishedEvents(publishedEvents);
+            response.setCompletedEvents(completedEvents);
+            response.setUpcomingEvents(upcomingEvents);
+        }
         
-        for (int i = days - 1; i >= 0; i--) {
-            LocalDateTime date = endDate.minusDays(i);
-            String dateKey = date.toLocalDate().toString();
-            Long count = dailyCounts.getOrDefault(dateKey, 0L);
+        // Financial and registration statistics
+        if (fields.includesAny(PLATFORM_COUNTER_FIELDS)) {
+            AnalyticsCounter counter = counterQuery.get()
+                    .orElseGet(AnalyticsCounter::new);
+            BigDecimal totalPlatformRevenue = counter.getRevenue();
+            response.setTotalPlatformRevenue(totalPlatformRevenue);
+            response.setTotalPaymentsProcessed(totalPlatformRevenue);
+            response.setTotalRefunds(counter.getRefunds());
             
-            Map<String, Object> trend = new HashMap<>();
-            trend.put("date", dateKey);
-            trend.put("count", count);
-            trends.add(trend);
+            // Platform commission (assuming 10% commission)
+            response.setPlatformCommission(totalPlatformRevenue.multiply(BigDecimal.valueOf(0.10))
+                    .setScale(2, RoundingMode.HALF_UP));
+            
+            response.setTotalRegistrations(counter.getTotalRegistrations().intValue());
+            response.setTotalTicketsSold(counter.getTicketsSold().intValue());
         }
         
-        return trends;
-    }
-    
-    private List<Map<String, Object>> generateRevenueTrends(UUID organizerId, int months) {
-        List<Map<String, Object>> trends = new ArrayList<>();
-        List<Event> events = eventRepository.findByOrganizerId(organizerId);
-        
-        Map<String, BigDecimal> monthlyRevenue = new HashMap<>();
+        if (fields.includes("averageEventAttendance")) {
+            int totalEvents = response.getTotalEvents();
+            response.setAverageEventAttendance(totalEvents > 0 ?
+                    (double) response.getTotalRegistrations() / totalEvents : 0.0);
+        }
         
-        for (Event event : events) {
-            List<Payment> payments = paymentRepository.findAllByRegistration_EventIdAndStatus(
-                    event.getId(), PaymentStatus.SUCCESS);
-            
-            for (Payment payment : payments) {
-                if (payment.getPaidAt() != null) {
-                    String monthKey = payment.getPaidAt().toLocalDate()
-                            .withDayOfMonth(1)
-                            .toString();
-                    monthlyRevenue.merge(monthKey, payment.getAmount(), BigDecimal::add);
-                }
-            }
+        // Events by category
+        if (fields.includesAny(PLATFORM_CATEGORY_FIELDS)) {
+            response.setEventsByCategory(categoryQuery.get());
         }
         
-        LocalDateTime now = LocalDateTime.now();
-        for (int i = months - 1; i >= 0; i--) {
-            LocalDateTime month = now.minusMonths(i).withDayOfMonth(1);
-            String monthKey = month.toLocalDate().toString();
-            
-            Map<String, Object> trend = new HashMap<>();
-            trend.put("month", monthKey);
-            trend.put("revenue", monthlyRevenue.getOrDefault(monthKey, BigDecimal.ZERO));
-            trends.add(trend);
+        // Platform revenue trends (monthly for last 12 months by default)
+        if (fields.includesAny(PLATFORM_TREND_FIELDS)) {
+            response.setPlatformRevenueTrends(trendsQuery.get());
         }
         
-        return trends;
+        return fields.apply(response);
+    }
+    
+    private List<Map<String, Object>> generateRecentEventsPerformance(UUID organizerId) {
+        List<Event> recentEvents = eventRepository.findTop10ByOrganizerIdOrderByCreatedAtDesc(organizerId);
+        Map<UUID, AnalyticsCounter> recentCounters = analyticsCounterService.getEventCounters(
+                recentEvents.stream().map(Event::getId).collect(Collectors.toList()));
+        return recentEvents.stream()
+                .map(event -> {
+                    Map<String, Object> performance = new HashMap<>();
+                    performance.put("eventId", event.getId());
+                    performance.put("title", event.getTitle());
+                    performance.put("status", event.getStatus().toString());
+                    
+                    AnalyticsCounter eventCounter = recentCounters.getOrDefault(event.getId(), new AnalyticsCounter());
+                    performance.put("revenue", eventCounter.getRevenue());
+                    performance.put("registrations", eventCounter.getTotalRegistrations().intValue());
+                    performance.put("ticketsSold", eventCounter.getTicketsSold().intValue());
+                    
+                    return performance;
+                })
+                .collect(Collectors.toList());
     }
     
     private List<Map<String, Object>> generateEventsByCategory() {
-        List<Event> events = eventRepository.findAll();
-        Map<UUID, Long> categoryCounts = events.stream()
-                .filter(e -> e.getCategoryId() != null)
-                .collect(Collectors.groupingBy(
-                        Event::getCategoryId,
-                        Collectors.counting()
-                ));
-        
-        return categoryCounts.entrySet().stream()
-                .map(entry -> {
+        return eventRepository.countGroupedByCategory().stream()
+                .map(row -> {
                     Map<String, Object> categoryData = new HashMap<>();
-                    categoryRepository.findById(entry.getKey()).ifPresent(category -> {
-                        categoryData.put("categoryId", entry.getKey());
-                        categoryData.put("categoryName", category.getName());
-                        categoryData.put("eventCount", entry.getValue());
-                    });
+                    categoryData.put("categoryId", row.getCategoryId());
+                    categoryData.put("categoryName", row.getCategoryName());
+                    categoryData.put("eventCount", row.getEventCount());
                     return categoryData;
                 })
-                .filter(m -> !m.isEmpty())
                 .collect(Collectors.toList());
     }
     
-    private List<Map<String, Object>> generatePlatformRevenueTrends(int months) {
-        List<Map<String, Object>> trends = new ArrayList<>();
-        List<Payment> allPayments = paymentRepository.findAll();
-        
-        Map<String, BigDecimal> monthlyRevenue = allPayments.stream()
-                .filter(p -> p.getStatus() == PaymentStatus.SUCCESS && p.getPaidAt() != null)
-                .collect(Collectors.groupingBy(
-                        p -> p.getPaidAt().toLocalDate().withDayOfMonth(1).toString(),
-                        Collectors.reducing(BigDecimal.ZERO, Payment::getAmount, BigDecimal::add)
-                ));
+    private List<Map<String, Object>> generateRevenueTrends(CounterScope scope, UUID scopeId,
+                                                            LocalDateTime from, LocalDateTime to,
+                                                            RollupGranularity trendGranularity) {
+        LocalDateTime trendEnd = to != null ? to : LocalDateTime.now();
+        LocalDateTime trendStart = from != null ? from : trendEnd.minusMonths(11);
+        return generateTrends(scope, scopeId, trendGranularity, trendStart, trendEnd,
+                "revenue", AnalyticsRollup::getRevenue);
+    }
+    
+    private List<Map<String, Object>> generateTrends(CounterScope scope, UUID scopeId, RollupGranularity granularity,
+                                                     LocalDateTime from, LocalDateTime to, String valueKey,
+                                                     Function<AnalyticsRollup, Object> value) {
+        return toTrends(analyticsRollupService.getBuckets(scope, scopeId, granularity, from, to),
+                granularity, valueKey, value);
+    }
+    
+    private Map<UUID, List<Map<String, Object>>> generateTrends(CounterScope scope, Collection<UUID> scopeIds,
+                                                                RollupGranularity granularity,
+                                                                LocalDateTime from, LocalDateTime to, String valueKey,
+                                                                Function<AnalyticsRollup, Object> value) {
+        Map<UUID, List<Map<String, Object>>> trends = new HashMap<>();
+        analyticsRollupService.getBuckets(scope, scopeIds, granularity, from, to)
+                .forEach((scopeId, buckets) -> trends.put(scopeId, toTrends(buckets, granularity, valueKey, value)));
+        return trends;
+    }
+    
+    private List<Map<String, Object>> toTrends(List<AnalyticsRollup> buckets, RollupGranularity granularity,
+                                               String valueKey, Function<AnalyticsRollup, Object> value) {
+        // Bucket label key follows the granularity: "hour", "date" or "month"
+        String bucketKey = switch (granularity) {
+            case HOUR -> "hour";
+            case DAY -> "date";
+            case MONTH -> "month";
+        };
         
-        LocalDateTime now = LocalDateTime.now();
-        for (int i = months - 1; i >= 0; i--) {
-            LocalDateTime month = now.minusMonths(i).withDayOfMonth(1);
-            String monthKey = month.toLocalDate().toString();
-            
+        List<Map<String, Object>> trends = new ArrayList<>();
+        for (AnalyticsRollup bucket : buckets) {
             Map<String, Object> trend = new HashMap<>();
-            trend.put("month", monthKey);
-            trend.put("revenue", monthlyRevenue.getOrDefault(monthKey, BigDecimal.ZERO));
+            trend.put(bucketKey, analyticsRollupService.formatBucket(bucket.getBucketStart(), granularity));
+            trend.put(valueKey, value.apply(bucket));
             trends.add(trend);
         }
         
         return trends;
     }
+    
+    // Starts the query only when one of its fields was selected; otherwise it is never run
+    private <T> Supplier<T> section(FieldSelection fields, Set<String> sectionFields, Supplier<T> query) {
+        if (!fields.includesAny(sectionFields)) {
+            return () -> {
+                throw new IllegalStateException("Section " + sectionFields + " was not selected");
+            };
+        }
+        return analyticsQueryRunner.submit(query);
+    }
+    
+    // Requests without from/to follow "now", so those entries rely on the cache TTL to move on
+    private String cacheVariant(LocalDateTime from, LocalDateTime to, RollupGranularity granularity,
+                                FieldSelection fields) {
+        return from + "|" + to + "|" + granularity + "|" + fields;
+    }
 }
-
-
-
-
-
-
@@ -1,107 +1,124 @@
 package com.aurelius.tech.eventmanagementservice.service;
 
 import com.aurelius.tech.eventmanagementservice.dto.request.CreatePayoutRequest;
+import com.aurelius.tech.eventmanagementservice.dto.response.InvoiceDownload;
 import com.aurelius.tech.eventmanagementservice.dto.response.InvoiceResponse;
 import com.aurelius.tech.eventmanagementservice.entity.*;
+import com.aurelius.tech.eventmanagementservice.entity.enums.PaymentStatus;
 import com.aurelius.tech.eventmanagementservice.entity.enums.PayoutStatus;
 import com.aurelius.tech.eventmanagementservice.exception.BusinessException;
 import com.aurelius.tech.eventmanagementservice.exception.ResourceNotFoundException;
 import com.aurelius.tech.eventmanagementservice.repository.*;
-import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.pdmodel.PDPage;
-import org.apache.pdfbox.pdmodel.PDPageContentStream;
-import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
-import org.apache.pdfbox.pdmodel.font.PDType1Font;
-import org.springframework.beans.factory.annotation.Value;
+import com.aurelius.tech.eventmanagementservice.repository.projection.InvoiceContextRow;
+import com.aurelius.tech.eventmanagementservice.service.InvoiceSegmentStore.Slot;
+import com.aurelius.tech.eventmanagementservice.util.InvoicePdfTemplate;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.List;
-import java.util.UUID;
+import java.util.*;
 
 @Service
 public class BillingService {
     
+    // Rendered invoices are a few kilobytes
+    private static final int INVOICE_PDF_BUFFER_SIZE = 8 * 1024;
+    
     private final InvoiceRepository invoiceRepository;
     private final PaymentRepository paymentRepository;
-    private final RegistrationRepository registrationRepository;
     private final PayoutRepository payoutRepository;
     private final UserRepository userRepository;
     private final EventRepository eventRepository;
-    private final TicketRepository ticketRepository;
-    
-    @Value("${app.invoice.storage-path:./invoices}")
-    private String invoiceStoragePath;
+    private final InvoiceNumberAllocator invoiceNumberAllocator;
+    private final InvoiceSegmentStore invoiceSegmentStore;
+    private final InvoicePdfTemplate invoiceTemplate = new InvoicePdfTemplate();
     
     public BillingService(InvoiceRepository invoiceRepository,
                          PaymentRepository paymentRepository,
-                         RegistrationRepository registrationRepository,
                          PayoutRepository payoutRepository,
                          UserRepository userRepository,
                          EventRepository eventRepository,
-                         TicketRepository ticketRepository) {
+                         InvoiceNumberAllocator invoiceNumberAllocator,
+                         InvoiceSegmentStore invoiceSegmentStore) {
         this.invoiceRepository = invoiceRepository;
         this.paymentRepository = paymentRepository;
-        this.registrationRepository = registrationRepository;
         this.payoutRepository = payoutRepository;
         this.userRepository = userRepository;
         this.eventRepository = eventRepository;
-        this.ticketRepository = ticketRepository;
+        this.invoiceNumberAllocator = invoiceNumberAllocator;
+        this.invoiceSegmentStore = invoiceSegmentStore;
     }
     
     @Transactional
     public Invoice generateInvoice(UUID paymentId) {
-        Payment payment = paymentRepository.findById(paymentId)
+        InvoiceContextRow context = paymentRepository.findInvoiceContext(paymentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Payment", "id", paymentId));
         
-        if (payment.getStatus() != com.aurelius.tech.eventmanagementservice.entity.enums.PaymentStatus.SUCCESS) {
+        if (context.getStatus() != PaymentStatus.SUCCESS) {
             throw new BusinessException("Invoice can only be generated for successful payments");
         }
         
-        // Check if invoice already exists
-        invoiceRepository.findByPaymentId(paymentId)
-                .ifPresent(invoice -> {
-                    throw new BusinessException("Invoice already exists for this payment");
-                });
-        
-        // Fetch related entities
-        Registration registration = registrationRepository.findById(payment.getRegistrationId())
-                .orElseThrow(() -> new ResourceNotFoundException("Registration", "id", payment.getRegistrationId()));
-        
-        Event event = eventRepository.findById(registration.getEventId())
-                .orElseThrow(() -> new ResourceNotFoundException("Event", "id", registration.getEventId()));
-        
-        User user = userRepository.findById(registration.getUserId())
-                .orElseThrow(() -> new ResourceNotFoundException("User", "id", registration.getUserId()));
-        
-        Ticket ticket = null;
-        if (registration.getTicketId() != null) {
-            ticket = ticketRepository.findById(registration.getTicketId()).orElse(null);
+        return createInvoice(context);
+    }
+    
+    /**
+     * Invoice contexts of many payments, loaded with one query and keyed by payment id.
+     * Payments that no longer exist are missing from the map.
+     */
+    public Map<UUID, InvoiceContextRow> getInvoiceContexts(Collection<UUID> paymentIds) {
+        Map<UUID, InvoiceContextRow> contexts = new HashMap<>();
+        for (InvoiceContextRow context : paymentRepository.findInvoiceContexts(paymentIds)) {
+            contexts.put(context.getPaymentId(), context);
         }
-        
-        // Generate invoice number
-        String invoiceNumber = generateInvoiceNumber();
-        
+        return contexts;
+    }
+    
+    /**
+     * Issues the invoice of a payment queued for invoicing, from a context loaded by
+     * {@link #getInvoiceContexts}. Returns empty when the payment is no longer successful.
+     * Callers filter out payments that already have an invoice; one that slips through fails
+     * on the unique payment id without rendering anything.
+     */
+    @Transactional
+    public Optional<Invoice> generatePendingInvoice(InvoiceContextRow context) {
+        if (context.getStatus() != PaymentStatus.SUCCESS) {
+            return Optional.empty();
+        }
+        return Optional.of(createInvoice(context));
+    }
+    
+    private Invoice createInvoice(InvoiceContextRow context) {
         // Create invoice entity
         Invoice invoice = new Invoice();
-        invoice.setPaymentId(paymentId);
-        invoice.setInvoiceNumber(invoiceNumber);
-        invoice.setAmount(payment.getAmount());
-        invoice.setCurrency(payment.getCurrency());
+        invoice.setPaymentId(context.getPaymentId());
         invoice.setIssuedAt(LocalDateTime.now());
+        invoice.setInvoiceNumber(invoiceNumberAllocator.nextInvoiceNumber(invoice.getIssuedAt().toLocalDate()));
+        invoice.setAmount(context.getAmount());
+        invoice.setCurrency(context.getCurrency());
         
-        invoice = invoiceRepository.save(invoice);
+        // The unique payment_id constraint replaces a lookup before the insert
+        try {
+            invoice = invoiceRepository.saveAndFlush(invoice);
+        } catch (DataIntegrityViolationException e) {
+            throw new BusinessException("Invoice already exists for this payment");
+        }
         
         // Generate PDF invoice
         try {
-            String filePath = generateInvoicePDF(invoice, payment, registration, event, user, ticket);
-            invoice.setFilePath(filePath);
+            Slot slot = writeInvoicePDF(invoice, context);
+            invoice.setSegmentId(slot.getSegmentId());
+            invoice.setSegmentOffset(slot.getOffset());
+            invoice.setSegmentLength(slot.getLength());
             invoice = invoiceRepository.save(invoice);
         } catch (IOException e) {
             throw new BusinessException("Failed to generate invoice PDF: " + e.getMessage());
@@ -124,20 +141,52 @@ public class BillingService {
         return mapToInvoiceResponse(invoice);
     }
     
-    public byte[] getInvoicePDF(UUID invoiceId) throws IOException {
+    /**
+     * The stored PDF of an invoice, with the validators for conditional and range requests.
+     * The ETag changes whenever the PDF is rewritten or moved.
+     */
+    public InvoiceDownload getInvoiceDownload(UUID invoiceId) throws IOException {
         Invoice invoice = invoiceRepository.findById(invoiceId)
                 .orElseThrow(() -> new ResourceNotFoundException("Invoice", "id", invoiceId));
         
+        Slot slot = InvoiceSegmentStore.slotOf(invoice);
+        if (slot != null) {
+            FileTime segmentModified;
+            try {
+                segmentModified = Files.getLastModifiedTime(invoiceSegmentStore.segmentPath(slot.getSegmentId()));
+            } catch (NoSuchFileException e) {
+                throw new BusinessException("Invoice PDF file not found on disk");
+            }
+            // Segments are append-only, so a location always holds the same bytes. The segment's
+            // time is never earlier than the PDF's, so a regenerated invoice is never "not modified".
+            String eTag = "\"" + invoice.getId() + "-" + Long.toHexString(slot.getSegmentId()) +
+                    "-" + Long.toHexString(slot.getOffset()) + "\"";
+            return new InvoiceDownload(
+                    invoiceSegmentStore.resource(slot),
+                    "invoice_" + invoice.getInvoiceNumber() + ".pdf",
+                    segmentModified.toInstant(),
+                    eTag);
+        }
+        
         if (invoice.getFilePath() == null) {
             throw new BusinessException("Invoice PDF not found");
         }
         
         Path filePath = Paths.get(invoice.getFilePath());
-        if (!Files.exists(filePath)) {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(filePath, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
             throw new BusinessException("Invoice PDF file not found on disk");
         }
         
-        return Files.readAllBytes(filePath);
+        String eTag = "\"" + invoice.getId() + "-" + Long.toHexString(attributes.lastModifiedTime().toMillis()) +
+                "-" + Long.toHexString(attributes.size()) + "\"";
+        return new InvoiceDownload(
+                new FileSystemResource(filePath),
+                "invoice_" + invoice.getInvoiceNumber() + ".pdf",
+                attributes.lastModifiedTime().toInstant(),
+                eTag);
     }
     
     @Transactional
@@ -191,166 +240,15 @@ public class BillingService {
         return payoutRepository.findByEventId(eventId);
     }
     
-    private String generateInvoiceNumber() {
-        String prefix = "INV";
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        String random = UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-        return String.format("%s-%s-%s", prefix, timestamp, random);
+    private Slot writeInvoicePDF(Invoice invoice, InvoiceContextRow context) throws IOException {
+        return invoiceSegmentStore.append(renderInvoicePDF(invoice, context));
     }
     
-    private String generateInvoicePDF(Invoice invoice, Payment payment, Registration registration,
-                                      Event event, User user, Ticket ticket) throws IOException {
-        // Create invoice directory if it doesn't exist
-        Path invoiceDir = Paths.get(invoiceStoragePath);
-        if (!Files.exists(invoiceDir)) {
-            Files.createDirectories(invoiceDir);
-        }
-        
-        String fileName = String.format("invoice_%s.pdf", invoice.getInvoiceNumber());
-        Path filePath = invoiceDir.resolve(fileName);
-        
-        try (PDDocument document = new PDDocument()) {
-            PDPage page = new PDPage();
-            document.addPage(page);
-            
-            try (PDPageContentStream contentStream = new PDPageContentStream(document, page)) {
-                float yPosition = 750;
-                float margin = 50;
-                float lineHeight = 20;
-                
-                // Header
-                contentStream.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD), 24);
-                contentStream.beginText();
-                contentStream.newLineAtOffset(margin, yPosition);
-                contentStream.showText("INVOICE");
-                contentStream.endText();
-                
-                yPosition -= 40;
-                
-                // Invoice details
-                contentStream.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 12);
-                contentStream.beginText();
-                contentStream.newLineAtOffset(margin, yPosition);
-                contentStream.showText("Invoice Number: " + invoice.getInvoiceNumber());
-                contentStream.endText();
-                
-                yPosition -= lineHeight;
-                contentStream.beginText();
-                contentStream.newLineAtOffset(margin, yPosition);
-                contentStream.showText("Date: " + invoice.getIssuedAt().format(DateTimeFormatter.ofPattern("yyyy-MM-dd")));
-                contentStream.endText();
-                
-                yPosition -= 40;
-                
-                // Customer information
-                contentStream.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD), 14);
-                contentStream.beginText();
-                contentStream.newLineAtOffset(margin, yPosition);
-                contentStream.showText("Bill To:");
-                contentStream.endText();
-                
-                yPosition -= lineHeight;
-                contentStream.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 12);
-                contentStream.beginText();
-                contentStream.newLineAtOffset(margin, yPosition);
-                contentStream.showText(user.getFirstName() + " " + user.getLastName());
-                contentStream.endText();
-                
-                yPosition -= lineHeight;
-                contentStream.beginText();
-                contentStream.newLineAtOffset(margin, yPosition);
-                contentStream.showText(user.getEmail());
-                contentStream.endText();
-                
-                yPosition -= 40;
-                
-                // Event information
-                contentStream.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD), 14);
-                contentStream.beginText();
-                contentStream.newLineAtOffset(margin, yPosition);
-                contentStream.showText("Event Details:");
-                contentStream.endText();
-                
-                yPosition -= lineHeight;
-                contentStream.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 12);
-                contentStream.beginText();
-                contentStream.newLineAtOffset(margin, yPosition);
-                contentStream.showText("Event: " + event.getTitle());
-                contentStream.endText();
-                
-                yPosition -= lineHeight;
-                contentStream.beginText();
-                contentStream.newLineAtOffset(margin, yPosition);
-                contentStream.showText("Date: " + event.getStartDateTime().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")));
-                contentStream.endText();
-                
-                yPosition -= 40;
-                
-                // Line items
-                contentStream.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD), 12);
-                contentStream.beginText();
-                contentStream.newLineAtOffset(margin, yPosition);
-                contentStream.showText("Description");
-                contentStream.endText();
-                
-                contentStream.beginText();
-                contentStream.newLineAtOffset(400, yPosition);
-                contentStream.showText("Quantity");
-                contentStream.endText();
-                
-                contentStream.beginText();
-                contentStream.newLineAtOffset(480, yPosition);
-                contentStream.showText("Amount");
-                contentStream.endText();
-                
-                yPosition -= lineHeight;
-                contentStream.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 12);
-                
-                String description = ticket != null ? ticket.getName() : "Event Registration";
-                contentStream.beginText();
-                contentStream.newLineAtOffset(margin, yPosition);
-                contentStream.showText(description);
-                contentStream.endText();
-                
-                contentStream.beginText();
-                contentStream.newLineAtOffset(400, yPosition);
-                contentStream.showText(String.valueOf(registration.getQuantity()));
-                contentStream.endText();
-                
-                contentStream.beginText();
-                contentStream.newLineAtOffset(480, yPosition);
-                contentStream.showText("$" + payment.getAmount().toString());
-                contentStream.endText();
-                
-                yPosition -= 40;
-                
-                // Total
-                contentStream.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD), 14);
-                contentStream.beginText();
-                contentStream.newLineAtOffset(400, yPosition);
-                contentStream.showText("Total: $" + payment.getAmount().toString());
-                contentStream.endText();
-                
-                yPosition -= 40;
-                
-                // Payment information
-                contentStream.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 10);
-                contentStream.beginText();
-                contentStream.newLineAtOffset(margin, yPosition);
-                contentStream.showText("Payment Method: " + (payment.getPaymentMethod() != null ? payment.getPaymentMethod() : "N/A"));
-                contentStream.endText();
-                
-                yPosition -= lineHeight;
-                contentStream.beginText();
-                contentStream.newLineAtOffset(margin, yPosition);
-                contentStream.showText("Transaction ID: " + (payment.getTransactionId() != null ? payment.getTransactionId() : "N/A"));
-                contentStream.endText();
-            }
-            
-            document.save(filePath.toFile());
-        }
-        
-        return filePath.toAbsolutePath().toString();
+    // Also used by bulk invoicing, which appends a whole batch to the segment store at once
+    byte[] renderInvoicePDF(Invoice invoice, InvoiceContextRow context) throws IOException {
+        ByteArrayOutputStream pdf = new ByteArrayOutputStream(INVOICE_PDF_BUFFER_SIZE);
+        invoiceTemplate.write(invoice, context, pdf);
+        return pdf.toByteArray();
     }
     
     private InvoiceResponse mapToInvoiceResponse(Invoice invoice) {
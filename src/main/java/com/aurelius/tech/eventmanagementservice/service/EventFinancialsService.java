@@ -0,0 +1,79 @@
+package com.aurelius.tech.eventmanagementservice.service;
+
+import com.aurelius.tech.eventmanagementservice.dto.EventFinancials;
+import com.aurelius.tech.eventmanagementservice.entity.enums.CounterScope;
+import com.aurelius.tech.eventmanagementservice.exception.ResourceNotFoundException;
+import com.aurelius.tech.eventmanagementservice.repository.EventRepository;
+import com.aurelius.tech.eventmanagementservice.repository.projection.EventFinancialTotals;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+
+/**
+ * Revenue, service costs, profit, margin and registration totals per event, computed with
+ * one aggregate query. Single-event results are memoized in the analytics cache under the
+ * event's generation, which moves on every registration, payment, ticket or service change,
+ * so the financial metrics and analytics endpoints share one computation per data version.
+ */
+@Service
+public class EventFinancialsService {
+    
+    private static final String CACHE_VARIANT = "financials";
+    
+    private final EventRepository eventRepository;
+    private final AnalyticsCacheService analyticsCacheService;
+    
+    public EventFinancialsService(EventRepository eventRepository,
+                                  AnalyticsCacheService analyticsCacheService) {
+        this.eventRepository = eventRepository;
+        this.analyticsCacheService = analyticsCacheService;
+    }
+    
+    public EventFinancials getFinancials(UUID eventId) {
+        return analyticsCacheService.get(CounterScope.EVENT, eventId, CACHE_VARIANT, EventFinancials.class,
+                () -> eventRepository.findFinancialTotals(List.of(eventId)).stream()
+                        .findFirst()
+                        .map(this::toFinancials)
+                        .orElseThrow(() -> new ResourceNotFoundException("Event", "id", eventId)));
+    }
+    
+    /**
+     * Financials for several events with a single query, keyed by event id. Unknown ids are
+     * left out of the result.
+     */
+    public Map<UUID, EventFinancials> getFinancials(Collection<UUID> eventIds) {
+        if (eventIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<UUID, EventFinancials> financials = new HashMap<>();
+        for (EventFinancialTotals totals : eventRepository.findFinancialTotals(eventIds)) {
+            financials.put(totals.getEventId(), toFinancials(totals));
+        }
+        return financials;
+    }
+    
+    public static BigDecimal marginOf(BigDecimal profit, BigDecimal revenue) {
+        if (revenue.compareTo(BigDecimal.ZERO) <= 0) {
+            return BigDecimal.ZERO;
+        }
+        return profit.divide(revenue, 4, RoundingMode.HALF_UP)
+                .multiply(BigDecimal.valueOf(100))
+                .setScale(2, RoundingMode.HALF_UP);
+    }
+    
+    private EventFinancials toFinancials(EventFinancialTotals totals) {
+        BigDecimal profit = totals.getRevenue().subtract(totals.getServiceCosts());
+        return new EventFinancials(
+                totals.getRevenue(),
+                totals.getServiceCosts(),
+                profit,
+                marginOf(profit, totals.getRevenue()),
+                totals.getTotalRegistrations(),
+                totals.getConfirmedRegistrations(),
+                totals.getCancelledRegistrations(),
+                totals.getPendingRegistrations(),
+                totals.getTicketsSold());
+    }
+}
@@ -1,30 +1,26 @@
 package com.aurelius.tech.eventmanagementservice.service;
 
+import com.aurelius.tech.eventmanagementservice.dto.EventFinancials;
 import com.aurelius.tech.eventmanagementservice.dto.request.CreateEventRequest;
 import com.aurelius.tech.eventmanagementservice.dto.request.EventServiceRequest;
 import com.aurelius.tech.eventmanagementservice.dto.response.EventFinancialMetricsResponse;
 import com.aurelius.tech.eventmanagementservice.dto.response.EventServiceResponse;
 import com.aurelius.tech.eventmanagementservice.entity.Event;
 import com.aurelius.tech.eventmanagementservice.entity.EventServiceItem;
-import com.aurelius.tech.eventmanagementservice.entity.Payment;
-import com.aurelius.tech.eventmanagementservice.entity.Registration;
 import com.aurelius.tech.eventmanagementservice.entity.Vendor;
 import com.aurelius.tech.eventmanagementservice.entity.enums.EventStatus;
 import com.aurelius.tech.eventmanagementservice.entity.enums.EventVisibility;
-import com.aurelius.tech.eventmanagementservice.entity.enums.PaymentStatus;
+import com.aurelius.tech.eventmanagementservice.event.EventDataChangedEvent;
 import com.aurelius.tech.eventmanagementservice.exception.BusinessException;
 import com.aurelius.tech.eventmanagementservice.exception.ResourceNotFoundException;
 import com.aurelius.tech.eventmanagementservice.repository.EventRepository;
 import com.aurelius.tech.eventmanagementservice.repository.EventServiceRepository;
-import com.aurelius.tech.eventmanagementservice.repository.PaymentRepository;
-import com.aurelius.tech.eventmanagementservice.repository.RegistrationRepository;
 import com.aurelius.tech.eventmanagementservice.repository.ServiceTypeRepository;
 import com.aurelius.tech.eventmanagementservice.repository.VendorRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
@@ -35,23 +31,23 @@ public class EventService {
     
     private final EventRepository eventRepository;
     private final EventServiceRepository eventServiceRepository;
-    private final PaymentRepository paymentRepository;
-    private final RegistrationRepository registrationRepository;
     private final VendorRepository vendorRepository;
     private final ServiceTypeRepository serviceTypeRepository;
+    private final EventFinancialsService eventFinancialsService;
+    private final ApplicationEventPublisher eventPublisher;
     
     public EventService(EventRepository eventRepository, 
                         EventServiceRepository eventServiceRepository,
-                        PaymentRepository paymentRepository,
-                        RegistrationRepository registrationRepository,
                         VendorRepository vendorRepository,
-                        ServiceTypeRepository serviceTypeRepository) {
+                        ServiceTypeRepository serviceTypeRepository,
+                        EventFinancialsService eventFinancialsService,
+                        ApplicationEventPublisher eventPublisher) {
         this.eventRepository = eventRepository;
         this.eventServiceRepository = eventServiceRepository;
-        this.paymentRepository = paymentRepository;
-        this.registrationRepository = registrationRepository;
         this.vendorRepository = vendorRepository;
         this.serviceTypeRepository = serviceTypeRepository;
+        this.eventFinancialsService = eventFinancialsService;
+        this.eventPublisher = eventPublisher;
     }
     
     @Transactional
@@ -100,6 +96,7 @@ public class EventService {
             }
         }
         
+        eventPublisher.publishEvent(new EventDataChangedEvent(event.getId(), event.getOrganizerId()));
         return event;
     }
     
@@ -138,46 +135,15 @@ public class EventService {
     }
     
     public EventFinancialMetricsResponse getEventFinancialMetrics(UUID eventId) {
-        // Validate event exists
-        getEventById(eventId);
-        
-        // Calculate total revenue from successful payments
-        List<Payment> successfulPayments = paymentRepository.findAllByRegistration_EventIdAndStatus(
-            eventId, PaymentStatus.SUCCESS);
-        BigDecimal totalRevenue = successfulPayments.stream()
-            .map(Payment::getAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        // Calculate total service costs
-        List<EventServiceItem> services = eventServiceRepository.findByEventId(eventId);
-        BigDecimal totalServiceCosts = services.stream()
-            .map(EventServiceItem::getRate)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        // Calculate profit
-        BigDecimal profit = totalRevenue.subtract(totalServiceCosts);
-        
-        // Calculate margin percentage
-        BigDecimal margin = BigDecimal.ZERO;
-        if (totalRevenue.compareTo(BigDecimal.ZERO) > 0) {
-            margin = profit.divide(totalRevenue, 4, RoundingMode.HALF_UP)
-                .multiply(BigDecimal.valueOf(100))
-                .setScale(2, RoundingMode.HALF_UP);
-        }
-        
-        // Get total registrations and tickets sold
-        List<Registration> registrations = registrationRepository.findByEventId(eventId);
-        int totalTicketsSold = registrations.stream()
-            .mapToInt(Registration::getQuantity)
-            .sum();
-        
+        // Revenue, costs, profit and margin come from the shared engine, also used by event analytics
+        EventFinancials financials = eventFinancialsService.getFinancials(eventId);
         return new EventFinancialMetricsResponse(
-            totalRevenue,
-            totalServiceCosts,
-            profit,
-            margin,
-            totalTicketsSold,
-            registrations.size()
+            financials.getTotalRevenue(),
+            financials.getTotalServiceCosts(),
+            financials.getProfit(),
+            financials.getMargin(),
+            (int) financials.getTotalTicketsSold(),
+            (int) financials.getTotalRegistrations()
         );
     }
     
@@ -245,27 +211,34 @@ public class EventService {
             }
         }
         
-        return eventRepository.save(event);
+        event = eventRepository.save(event);
+        eventPublisher.publishEvent(new EventDataChangedEvent(id, event.getOrganizerId()));
+        return event;
     }
     
     @Transactional
     public void deleteEvent(UUID id) {
         Event event = getEventById(id);
         eventRepository.delete(event);
+        eventPublisher.publishEvent(new EventDataChangedEvent(id, event.getOrganizerId()));
     }
     
     @Transactional
     public Event publishEvent(UUID id) {
         Event event = getEventById(id);
         event.setStatus(EventStatus.PUBLISHED);
-        return eventRepository.save(event);
+        event = eventRepository.save(event);
+        eventPublisher.publishEvent(new EventDataChangedEvent(id, event.getOrganizerId()));
+        return event;
     }
     
     @Transactional
     public Event cancelEvent(UUID id) {
         Event event = getEventById(id);
         event.setStatus(EventStatus.CANCELLED);
-        return eventRepository.save(event);
+        event = eventRepository.save(event);
+        eventPublisher.publishEvent(new EventDataChangedEvent(id, event.getOrganizerId()));
+        return event;
     }
 }
 
@@ -0,0 +1,182 @@
+package com.aurelius.tech.eventmanagementservice.service;
+
+import com.aurelius.tech.eventmanagementservice.config.InvoiceArchiveProperties;
+import com.aurelius.tech.eventmanagementservice.dto.response.InvoiceArchiveMigrationResponse;
+import com.aurelius.tech.eventmanagementservice.entity.Invoice;
+import com.aurelius.tech.eventmanagementservice.repository.InvoiceRepository;
+import com.aurelius.tech.eventmanagementservice.service.InvoiceSegmentStore.Slot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Maintenance of the invoice segment store: moving invoices stored as individual files into
+ * segments, and compacting segments whose space is mostly no longer referenced. Both copy a
+ * batch of PDFs into the current segment, then repoint the rows in one transaction; a row is
+ * only repointed if it still refers to where its PDF was copied from, so both can run while
+ * invoices are being issued.
+ */
+@Service
+public class InvoiceArchiveService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(InvoiceArchiveService.class);
+    
+    private final InvoiceRepository invoiceRepository;
+    private final InvoiceSegmentStore segmentStore;
+    private final InvoiceArchiveProperties properties;
+    private final TransactionTemplate transaction;
+    
+    public InvoiceArchiveService(InvoiceRepository invoiceRepository,
+                                 InvoiceSegmentStore segmentStore,
+                                 InvoiceArchiveProperties properties,
+                                 PlatformTransactionManager transactionManager) {
+        this.invoiceRepository = invoiceRepository;
+        this.segmentStore = segmentStore;
+        this.properties = properties;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+    
+    /**
+     * Moves every invoice still stored as its own file into the segment store, deleting each
+     * file once the row pointing at the segment has committed. Invoices whose file is gone are
+     * counted and left as they are. Can be run again at any time; it resumes where it stopped.
+     */
+    public InvoiceArchiveMigrationResponse migrateLegacyFiles() throws IOException {
+        int migrated = 0;
+        int missing = 0;
+        long bytes = 0;
+        UUID afterId = new UUID(0, 0);
+        while (true) {
+            List<Invoice> batch = invoiceRepository.findUnarchived(afterId, Limit.of(properties.getBatchSize()));
+            if (batch.isEmpty()) {
+                break;
+            }
+            afterId = batch.get(batch.size() - 1).getId();
+            
+            List<Relocation> relocations = new ArrayList<>();
+            for (Invoice invoice : batch) {
+                byte[] pdf;
+                try {
+                    pdf = Files.readAllBytes(Paths.get(invoice.getFilePath()));
+                } catch (NoSuchFileException e) {
+                    missing++;
+                    continue;
+                }
+                relocations.add(new Relocation(invoice, segmentStore.append(pdf)));
+                bytes += pdf.length;
+            }
+            for (Relocation relocation : relocate(relocations)) {
+                deleteQuietly(Paths.get(relocation.invoice.getFilePath()));
+                migrated++;
+            }
+        }
+        logger.info("Moved {} invoice files ({} bytes) into segments; {} files were missing", migrated, bytes, missing);
+        return new InvoiceArchiveMigrationResponse(migrated, missing, bytes);
+    }
+    
+    /**
+     * Deletes idle segments no invoice refers to, and copies the invoices out of idle segments
+     * that are mostly unreferenced. A compacted segment is deleted by the next run, so
+     * downloads that looked up the old location beforehand can still finish.
+     */
+    @Scheduled(fixedDelayString = "${app.invoice.archive.compaction-interval:P1D}",
+               initialDelayString = "${app.invoice.archive.compaction-interval:P1D}")
+    public void compactSegments() {
+        try {
+            Instant cutoff = Instant.now().minus(properties.getSegmentMaxAge().multipliedBy(2));
+            Map<Long, Long> sizes = segmentStore.idleSegments(cutoff);
+            if (sizes.isEmpty()) {
+                return;
+            }
+            Map<Long, Long> liveBytes = new HashMap<>();
+            invoiceRepository.sumLiveBytesBySegment(sizes.keySet())
+                    .forEach(row -> liveBytes.put(row.getSegmentId(), row.getLiveBytes()));
+            
+            int deleted = 0;
+            int compacted = 0;
+            long reclaimed = 0;
+            for (Map.Entry<Long, Long> segment : sizes.entrySet()) {
+                long live = liveBytes.getOrDefault(segment.getKey(), 0L);
+                if (live == 0) {
+                    segmentStore.delete(segment.getKey());
+                    deleted++;
+                    reclaimed += segment.getValue();
+                } else if (live < segment.getValue() * properties.getCompactionThreshold()) {
+                    moveInvoicesOut(segment.getKey());
+                    compacted++;
+                }
+            }
+            logger.info("Invoice segment compaction: {} deleted ({} bytes), {} compacted", deleted, reclaimed, compacted);
+        } catch (IOException e) {
+            logger.warn("Invoice segment compaction failed: {}", e.getMessage());
+        }
+    }
+    
+    private void moveInvoicesOut(long segmentId) throws IOException {
+        long afterOffset = -1;
+        while (true) {
+            List<Invoice> batch = invoiceRepository.findBySegment(segmentId, afterOffset, Limit.of(properties.getBatchSize()));
+            if (batch.isEmpty()) {
+                return;
+            }
+            afterOffset = batch.get(batch.size() - 1).getSegmentOffset();
+            
+            List<Relocation> relocations = new ArrayList<>();
+            for (Invoice invoice : batch) {
+                relocations.add(new Relocation(invoice, segmentStore.append(segmentStore.read(InvoiceSegmentStore.slotOf(invoice)))));
+            }
+            relocate(relocations);
+        }
+    }
+    
+    // Repoints the rows in one transaction and returns those that still referred to the copied PDF
+    private List<Relocation> relocate(List<Relocation> relocations) {
+        if (relocations.isEmpty()) {
+            return relocations;
+        }
+        return transaction.execute(status -> {
+            List<Relocation> applied = new ArrayList<>();
+            for (Relocation relocation : relocations) {
+                Invoice invoice = relocation.invoice;
+                int updated = invoiceRepository.relocate(invoice.getId(),
+                        invoice.getSegmentId(), invoice.getSegmentOffset(), invoice.getFilePath(),
+                        relocation.slot.getSegmentId(), relocation.slot.getOffset(), relocation.slot.getLength());
+                if (updated == 1) {
+                    applied.add(relocation);
+                }
+            }
+            return applied;
+        });
+    }
+    
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete migrated invoice file {}: {}", file, e.getMessage());
+        }
+    }
+    
+    private static class Relocation {
+        
+        private final Invoice invoice;
+        private final Slot slot;
+        
+        private Relocation(Invoice invoice, Slot slot) {
+            this.invoice = invoice;
+            this.slot = slot;
+        }
+    }
+}
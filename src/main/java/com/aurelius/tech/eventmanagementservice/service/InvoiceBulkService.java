@@ -0,0 +1,336 @@
+package com.aurelius.tech.eventmanagementservice.service;
+
+import com.aurelius.tech.eventmanagementservice.config.InvoiceBulkProperties;
+import com.aurelius.tech.eventmanagementservice.dto.request.BulkInvoiceRequest;
+import com.aurelius.tech.eventmanagementservice.dto.response.InvoiceBulkJobResponse;
+import com.aurelius.tech.eventmanagementservice.entity.Invoice;
+import com.aurelius.tech.eventmanagementservice.entity.enums.InvoiceJobStatus;
+import com.aurelius.tech.eventmanagementservice.entity.enums.PaymentStatus;
+import com.aurelius.tech.eventmanagementservice.exception.BusinessException;
+import com.aurelius.tech.eventmanagementservice.exception.ResourceNotFoundException;
+import com.aurelius.tech.eventmanagementservice.repository.EventRepository;
+import com.aurelius.tech.eventmanagementservice.repository.InvoiceRepository;
+import com.aurelius.tech.eventmanagementservice.repository.PaymentRepository;
+import com.aurelius.tech.eventmanagementservice.repository.projection.InvoiceContextRow;
+import com.aurelius.tech.eventmanagementservice.service.InvoiceSegmentStore.Slot;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Issues or re-renders the invoices of every successful payment of an event or paid within a
+ * date range, as a background job clients poll for progress. A job walks the payments in
+ * batches: it loads their invoice contexts with one query, renders the PDFs on a bounded pool,
+ * appends them to the segment store with a single sync and writes all rows of the batch with
+ * JDBC batch statements in one transaction. Only one
+ * batch is in flight per job, and a saturated pool renders on the job's own thread, so a
+ * job never runs ahead of the rendering. Job state lives in memory on the accepting instance.
+ */
+@Service
+@EnableConfigurationProperties(InvoiceBulkProperties.class)
+public class InvoiceBulkService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(InvoiceBulkService.class);
+    
+    // A payment invoiced concurrently by the queue worker keeps that invoice
+    private static final String INSERT_INVOICE =
+            "INSERT INTO invoices (id, payment_id, invoice_number, amount, currency, " +
+            "segment_id, segment_offset, segment_length, issued_at, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT (payment_id) DO NOTHING";
+    
+    private static final String UPDATE_INVOICE_PDF =
+            "UPDATE invoices SET segment_id = ?, segment_offset = ?, segment_length = ?, file_path = NULL " +
+            "WHERE id = ?";
+    
+    private final BillingService billingService;
+    private final InvoiceNumberAllocator invoiceNumberAllocator;
+    private final PaymentRepository paymentRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final InvoiceSegmentStore segmentStore;
+    private final EventRepository eventRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+    private final InvoiceBulkProperties properties;
+    private final ThreadPoolTaskExecutor jobExecutor;
+    private final ThreadPoolTaskExecutor renderExecutor;
+    private final Map<UUID, BulkJob> jobs = new ConcurrentHashMap<>();
+    
+    public InvoiceBulkService(BillingService billingService,
+                              InvoiceNumberAllocator invoiceNumberAllocator,
+                              PaymentRepository paymentRepository,
+                              InvoiceRepository invoiceRepository,
+                              InvoiceSegmentStore segmentStore,
+                              EventRepository eventRepository,
+                              JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              InvoiceBulkProperties properties) {
+        this.billingService = billingService;
+        this.invoiceNumberAllocator = invoiceNumberAllocator;
+        this.paymentRepository = paymentRepository;
+        this.invoiceRepository = invoiceRepository;
+        this.segmentStore = segmentStore;
+        this.eventRepository = eventRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        
+        this.jobExecutor = new ThreadPoolTaskExecutor();
+        jobExecutor.setCorePoolSize(properties.getMaxActiveJobs());
+        jobExecutor.setMaxPoolSize(properties.getMaxActiveJobs());
+        jobExecutor.setQueueCapacity(0);
+        jobExecutor.setThreadNamePrefix("invoice-bulk-");
+        jobExecutor.initialize();
+        
+        this.renderExecutor = new ThreadPoolTaskExecutor();
+        renderExecutor.setCorePoolSize(properties.getThreads());
+        renderExecutor.setMaxPoolSize(properties.getThreads());
+        renderExecutor.setQueueCapacity(properties.getBatchSize());
+        // Backpressure when several jobs fill the queue: the submitting job renders itself
+        renderExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        renderExecutor.setThreadNamePrefix("invoice-bulk-render-");
+        renderExecutor.initialize();
+    }
+    
+    public synchronized InvoiceBulkJobResponse submit(BulkInvoiceRequest request) {
+        if (request.getEventId() == null && (request.getFrom() == null || request.getTo() == null)) {
+            throw new BusinessException("Either an event or a from/to date range is required");
+        }
+        if (request.getFrom() != null && request.getTo() != null && !request.getFrom().isBefore(request.getTo())) {
+            throw new BusinessException("'from' must be before 'to'");
+        }
+        if (request.getEventId() != null && !eventRepository.existsById(request.getEventId())) {
+            throw new ResourceNotFoundException("Event", "id", request.getEventId());
+        }
+        
+        for (BulkJob job : jobs.values()) {
+            if (job.isActive() && job.request.equals(request)) {
+                return toResponse(job);
+            }
+        }
+        BulkJob job = new BulkJob(UUID.randomUUID(), request);
+        jobs.put(job.id, job);
+        try {
+            jobExecutor.execute(() -> run(job));
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.id);
+            throw new BusinessException("Too many bulk invoice jobs are running, please try again later");
+        }
+        return toResponse(job);
+    }
+    
+    public InvoiceBulkJobResponse getJob(UUID jobId) {
+        BulkJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Bulk invoice job", "id", jobId);
+        }
+        return toResponse(job);
+    }
+    
+    @Scheduled(fixedDelay = 60_000)
+    public void expireJobs() {
+        LocalDateTime now = LocalDateTime.now();
+        jobs.values().removeIf(job -> job.expiresAt != null && job.expiresAt.isBefore(now));
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdown();
+        renderExecutor.shutdown();
+    }
+    
+    private void run(BulkJob job) {
+        job.status = InvoiceJobStatus.RUNNING;
+        BulkInvoiceRequest request = job.request;
+        try {
+            job.total = paymentRepository.countForInvoicing(PaymentStatus.SUCCESS,
+                    request.getEventId(), request.getFrom(), request.getTo());
+            UUID afterId = new UUID(0, 0);
+            while (true) {
+                List<UUID> paymentIds = paymentRepository.findIdsForInvoicing(PaymentStatus.SUCCESS,
+                        request.getEventId(), request.getFrom(), request.getTo(), afterId,
+                        Limit.of(properties.getBatchSize()));
+                if (paymentIds.isEmpty()) {
+                    break;
+                }
+                afterId = paymentIds.get(paymentIds.size() - 1);
+                processBatch(job, paymentIds);
+            }
+            finish(job, InvoiceJobStatus.COMPLETED);
+            logger.info("Bulk invoice job {}: {} generated, {} regenerated, {} skipped, {} failed",
+                    job.id, job.generated, job.regenerated, job.skipped, job.failed);
+        } catch (Exception e) {
+            logger.warn("Bulk invoice job {} failed", job.id, e);
+            job.error = e.getMessage();
+            finish(job, InvoiceJobStatus.FAILED);
+        }
+    }
+    
+    private void processBatch(BulkJob job, List<UUID> paymentIds) throws InterruptedException, IOException {
+        Map<UUID, InvoiceContextRow> contexts = billingService.getInvoiceContexts(paymentIds);
+        Map<UUID, Invoice> existing = new HashMap<>();
+        for (Invoice invoice : invoiceRepository.findByPaymentIdIn(paymentIds)) {
+            existing.put(invoice.getPaymentId(), invoice);
+        }
+        
+        List<Invoice> invoices = new ArrayList<>();
+        List<Future<byte[]>> rendering = new ArrayList<>();
+        for (UUID paymentId : paymentIds) {
+            InvoiceContextRow context = contexts.get(paymentId);
+            Invoice invoice = existing.get(paymentId);
+            if (context == null || context.getStatus() != PaymentStatus.SUCCESS
+                    || invoice != null && !job.request.isRegenerate()) {
+                job.skipped.incrementAndGet();
+                continue;
+            }
+            if (invoice == null) {
+                invoice = newInvoice(context);
+            }
+            Invoice rendered = invoice;
+            invoices.add(rendered);
+            rendering.add(renderExecutor.submit(() -> billingService.renderInvoicePDF(rendered, context)));
+        }
+        
+        List<Invoice> renderedInvoices = new ArrayList<>();
+        List<byte[]> pdfs = new ArrayList<>();
+        for (int i = 0; i < invoices.size(); i++) {
+            Invoice invoice = invoices.get(i);
+            try {
+                pdfs.add(rendering.get(i).get());
+                renderedInvoices.add(invoice);
+            } catch (ExecutionException e) {
+                logger.warn("Bulk invoice job {}: invoice for payment {} failed: {}",
+                        job.id, invoice.getPaymentId(), e.getCause().getMessage());
+                job.failed.incrementAndGet();
+            }
+        }
+        // One write and one sync for the batch instead of one per PDF
+        List<Slot> slots = segmentStore.appendAll(pdfs);
+        
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        List<Path> replacedFiles = new ArrayList<>();
+        for (int i = 0; i < renderedInvoices.size(); i++) {
+            Invoice invoice = renderedInvoices.get(i);
+            Slot slot = slots.get(i);
+            if (!existing.containsKey(invoice.getPaymentId())) {
+                inserts.add(new Object[] {invoice.getId(), invoice.getPaymentId(), invoice.getInvoiceNumber(),
+                        invoice.getAmount(), invoice.getCurrency(), slot.getSegmentId(), slot.getOffset(),
+                        slot.getLength(), invoice.getIssuedAt(), invoice.getIssuedAt()});
+            } else {
+                updates.add(new Object[] {slot.getSegmentId(), slot.getOffset(), slot.getLength(), invoice.getId()});
+                if (invoice.getFilePath() != null) {
+                    replacedFiles.add(Paths.get(invoice.getFilePath()));
+                }
+            }
+        }
+        
+        transaction.executeWithoutResult(status -> {
+            if (!inserts.isEmpty()) {
+                int[] counts = jdbcTemplate.batchUpdate(INSERT_INVOICE, inserts);
+                for (int count : counts) {
+                    (count == 0 ? job.skipped : job.generated).incrementAndGet();
+                }
+            }
+            if (!updates.isEmpty()) {
+                int[] counts = jdbcTemplate.batchUpdate(UPDATE_INVOICE_PDF, updates);
+                for (int count : counts) {
+                    (count == 0 ? job.skipped : job.regenerated).incrementAndGet();
+                }
+            }
+        });
+        // PDFs that were still stored as their own file now live in a segment
+        for (Path file : replacedFiles) {
+            deleteQuietly(file);
+        }
+    }
+    
+    private Invoice newInvoice(InvoiceContextRow context) {
+        Invoice invoice = new Invoice();
+        invoice.setId(UUID.randomUUID());
+        invoice.setPaymentId(context.getPaymentId());
+        invoice.setIssuedAt(LocalDateTime.now());
+        invoice.setInvoiceNumber(invoiceNumberAllocator.nextInvoiceNumber(invoice.getIssuedAt().toLocalDate()));
+        invoice.setAmount(context.getAmount());
+        invoice.setCurrency(context.getCurrency());
+        return invoice;
+    }
+    
+    private void finish(BulkJob job, InvoiceJobStatus status) {
+        job.completedAt = LocalDateTime.now();
+        job.expiresAt = job.completedAt.plus(properties.getJobTtl());
+        job.status = status;
+    }
+    
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete replaced invoice file {}: {}", file, e.getMessage());
+        }
+    }
+    
+    private InvoiceBulkJobResponse toResponse(BulkJob job) {
+        return new InvoiceBulkJobResponse(
+                job.id,
+                job.request.getEventId(),
+                job.request.getFrom(),
+                job.request.getTo(),
+                job.request.isRegenerate(),
+                job.status,
+                job.total,
+                job.generated.get(),
+                job.regenerated.get(),
+                job.skipped.get(),
+                job.failed.get(),
+                job.error,
+                job.createdAt,
+                job.completedAt,
+                job.expiresAt);
+    }
+    
+    private static class BulkJob {
+        
+        private final UUID id;
+        private final BulkInvoiceRequest request;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private final AtomicInteger generated = new AtomicInteger();
+        private final AtomicInteger regenerated = new AtomicInteger();
+        private final AtomicInteger skipped = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private volatile InvoiceJobStatus status = InvoiceJobStatus.QUEUED;
+        private volatile Long total;
+        private volatile String error;
+        private volatile LocalDateTime completedAt;
+        private volatile LocalDateTime expiresAt;
+        
+        private BulkJob(UUID id, BulkInvoiceRequest request) {
+            this.id = id;
+            this.request = request;
+        }
+        
+        private boolean isActive() {
+            return status == InvoiceJobStatus.QUEUED || status == InvoiceJobStatus.RUNNING;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.aurelius.tech.eventmanagementservice.service;
+
+import com.aurelius.tech.eventmanagementservice.repository.InvoiceRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out invoice numbers from blocks reserved in {@code invoice_number_seq}. Each instance
+ * reserves {@value #BLOCK_SIZE} numbers with one {@code nextval} and serves them from memory
+ * with an atomic increment; only the thread that finds the block used up goes to the
+ * database. Numbers never repeat across instances or restarts. They increase over time on
+ * one instance, and numbers left in a block when an instance stops are skipped.
+ */
+@Service
+public class InvoiceNumberAllocator {
+    
+    // Must match INCREMENT BY of invoice_number_seq, in V20 and InvoiceRepository.createInvoiceNumberSequence
+    private static final int BLOCK_SIZE = 100;
+    
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+    
+    private final InvoiceRepository invoiceRepository;
+    private volatile Block block = new Block(0, 0);
+    
+    public InvoiceNumberAllocator(InvoiceRepository invoiceRepository) {
+        this.invoiceRepository = invoiceRepository;
+        // Without Flyway (the default profile) V20 never ran; create the sequence before any invoice is numbered
+        try {
+            invoiceRepository.createInvoiceNumberSequence();
+        } catch (DataIntegrityViolationException e) {
+            // Another instance created it concurrently
+        }
+    }
+    
+    /**
+     * Invoice number such as {@code INV-20260115-0000012345} for an invoice issued on {@code date}.
+     */
+    public String nextInvoiceNumber(LocalDate date) {
+        return String.format("INV-%s-%010d", date.format(DATE_FORMAT), next());
+    }
+    
+    private long next() {
+        while (true) {
+            Block current = block;
+            long number = current.next.getAndIncrement();
+            if (number < current.end) {
+                return number;
+            }
+            reserve(current);
+        }
+    }
+    
+    private synchronized void reserve(Block exhausted) {
+        // Another thread may already have replaced it while this one waited
+        if (block == exhausted) {
+            long start = invoiceRepository.reserveInvoiceNumberBlock();
+            block = new Block(start, start + BLOCK_SIZE);
+        }
+    }
+    
+    private static class Block {
+        
+        private final AtomicLong next;
+        private final long end;
+        
+        private Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.aurelius.tech.eventmanagementservice.service;
+
+import com.aurelius.tech.eventmanagementservice.config.InvoiceArchiveProperties;
+import com.aurelius.tech.eventmanagementservice.entity.Invoice;
+import com.aurelius.tech.eventmanagementservice.repository.InvoiceRepository;
+import com.aurelius.tech.eventmanagementservice.util.FileSliceResource;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.io.Resource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Append-only storage for invoice PDFs. PDFs are written back to back into segment files
+ * under {@code <app.invoice.storage-path>/segments}, and each invoice row keeps the segment,
+ * offset and length of its PDF, so the directory holds a few large files instead of one
+ * per invoice. Every instance appends to a segment of its own, numbered from
+ * {@code invoice_segment_seq}, and starts a new one when it grows past the segment size or
+ * age. Bytes are never rewritten in place: space of replaced or abandoned PDFs is reclaimed
+ * by {@link InvoiceArchiveService} compaction.
+ */
+@Service
+@EnableConfigurationProperties(InvoiceArchiveProperties.class)
+public class InvoiceSegmentStore {
+    
+    private static final Logger logger = LoggerFactory.getLogger(InvoiceSegmentStore.class);
+    
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".dat";
+    
+    private final InvoiceRepository invoiceRepository;
+    private final InvoiceArchiveProperties properties;
+    private final Path directory;
+    
+    // Guarded by this
+    private Segment current;
+    
+    public InvoiceSegmentStore(InvoiceRepository invoiceRepository,
+                               InvoiceArchiveProperties properties,
+                               @Value("${app.invoice.storage-path:./invoices}") String invoiceStoragePath) {
+        this.invoiceRepository = invoiceRepository;
+        this.properties = properties;
+        this.directory = Paths.get(invoiceStoragePath, "segments");
+        // Without Flyway (the default profile) V21 never ran; create the sequence before any segment is opened
+        try {
+            invoiceRepository.createSegmentSequence();
+        } catch (DataIntegrityViolationException e) {
+            // Another instance created it concurrently
+        }
+    }
+    
+    /**
+     * Appends {@code data} to the current segment. The bytes are on disk when this returns,
+     * before the caller commits a row pointing at them.
+     */
+    public Slot append(byte[] data) throws IOException {
+        return appendAll(List.of(data)).get(0);
+    }
+    
+    /**
+     * Appends each of {@code records} and syncs once for all of them, returning their slots
+     * in the same order.
+     */
+    public synchronized List<Slot> appendAll(List<byte[]> records) throws IOException {
+        List<Slot> slots = new ArrayList<>(records.size());
+        Segment segment = null;
+        try {
+            for (byte[] data : records) {
+                segment = writableSegment(data.length);
+                ByteBuffer buffer = ByteBuffer.wrap(data);
+                long position = segment.size;
+                while (buffer.hasRemaining()) {
+                    position += segment.channel.write(buffer, position);
+                }
+                slots.add(new Slot(segment.id, segment.size, data.length));
+                segment.size += data.length;
+            }
+            if (segment != null) {
+                segment.channel.force(false);
+            }
+        } catch (IOException e) {
+            // Whatever was written is never referenced; continue in a fresh segment
+            closeCurrent();
+            throw e;
+        }
+        return slots;
+    }
+    
+    public byte[] read(Slot slot) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(slot.getLength());
+        try (FileChannel channel = FileChannel.open(segmentPath(slot.getSegmentId()), StandardOpenOption.READ)) {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, slot.getOffset() + buffer.position()) == -1) {
+                    throw new EOFException("Segment " + slot.getSegmentId() + " ends inside " + slot);
+                }
+            }
+        }
+        return buffer.array();
+    }
+    
+    public Resource resource(Slot slot) {
+        return new FileSliceResource(segmentPath(slot.getSegmentId()), slot.getOffset(), slot.getLength());
+    }
+    
+    /**
+     * Where the invoice's PDF lies, or null for an invoice still stored as its own file.
+     */
+    public static Slot slotOf(Invoice invoice) {
+        if (invoice.getSegmentId() == null) {
+            return null;
+        }
+        return new Slot(invoice.getSegmentId(), invoice.getSegmentOffset(), invoice.getSegmentLength());
+    }
+    
+    public Path segmentPath(long segmentId) {
+        return directory.resolve(String.format("%s%012d%s", SEGMENT_PREFIX, segmentId, SEGMENT_SUFFIX));
+    }
+    
+    /**
+     * Sizes by segment id of the segment files last written before {@code cutoff}, leaving
+     * out the one this instance appends to.
+     */
+    public synchronized Map<Long, Long> idleSegments(Instant cutoff) throws IOException {
+        Map<Long, Long> sizes = new HashMap<>();
+        if (!Files.isDirectory(directory)) {
+            return sizes;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX)) {
+                    continue;
+                }
+                long segmentId;
+                try {
+                    segmentId = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                if ((current == null || current.id != segmentId) && attributes.lastModifiedTime().toInstant().isBefore(cutoff)) {
+                    sizes.put(segmentId, attributes.size());
+                }
+            }
+        }
+        return sizes;
+    }
+    
+    public void delete(long segmentId) throws IOException {
+        Files.deleteIfExists(segmentPath(segmentId));
+    }
+    
+    @PreDestroy
+    public synchronized void close() {
+        closeCurrent();
+    }
+    
+    private Segment writableSegment(int length) throws IOException {
+        if (current != null
+                && (current.size > 0 && current.size + length > properties.getSegmentSize().toBytes()
+                    || current.openedAt.plus(properties.getSegmentMaxAge()).isBefore(Instant.now()))) {
+            // Records of a batch appended before the rollover are synced here
+            current.channel.force(false);
+            closeCurrent();
+        }
+        if (current == null) {
+            Files.createDirectories(directory);
+        }
+        while (current == null) {
+            long segmentId = invoiceRepository.reserveSegmentId();
+            try {
+                FileChannel channel = FileChannel.open(segmentPath(segmentId), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                current = new Segment(segmentId, channel);
+            } catch (FileAlreadyExistsException e) {
+                // Sequence behind the files, e.g. after a database restore; never append to another segment
+                logger.warn("Invoice segment {} already exists, skipping to the next id", segmentId);
+            }
+        }
+        return current;
+    }
+    
+    private void closeCurrent() {
+        if (current == null) {
+            return;
+        }
+        try {
+            current.channel.close();
+        } catch (IOException e) {
+            logger.warn("Could not close invoice segment {}: {}", current.id, e.getMessage());
+        }
+        current = null;
+    }
+    
+    /**
+     * Where one PDF lies: {@code length} bytes from {@code offset} in segment {@code segmentId}.
+     */
+    public static final class Slot {
+        
+        private final long segmentId;
+        private final long offset;
+        private final int length;
+        
+        public Slot(long segmentId, long offset, int length) {
+            this.segmentId = segmentId;
+            this.offset = offset;
+            this.length = length;
+        }
+        
+        public long getSegmentId() {
+            return segmentId;
+        }
+        
+        public long getOffset() {
+            return offset;
+        }
+        
+        public int getLength() {
+            return length;
+        }
+        
+        @Override
+        public String toString() {
+            return "segment " + segmentId + " bytes " + offset + "+" + length;
+        }
+    }
+    
+    private static class Segment {
+        
+        private final long id;
+        private final FileChannel channel;
+        private final Instant openedAt = Instant.now();
+        private long size;
+        
+        private Segment(long id, FileChannel channel) {
+            this.id = id;
+            this.channel = channel;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.aurelius.tech.eventmanagementservice.service;
+
+import com.aurelius.tech.eventmanagementservice.config.InvoiceWorkerProperties;
+import com.aurelius.tech.eventmanagementservice.config.RabbitMQConfig;
+import com.aurelius.tech.eventmanagementservice.entity.enums.PaymentStatus;
+import com.aurelius.tech.eventmanagementservice.event.PaymentCompletedEvent;
+import com.aurelius.tech.eventmanagementservice.repository.InvoiceRepository;
+import com.aurelius.tech.eventmanagementservice.repository.PaymentRepository;
+import com.aurelius.tech.eventmanagementservice.repository.projection.InvoiceContextRow;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.data.domain.Limit;
+import org.springframework.messaging.Message;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Issues invoices off the payment request path. A committed payment puts its id on
+ * {@code invoice.queue}; the listener takes requests in batches, skips payments that already
+ * have an invoice with one query, loads what the remaining invoices need with another, and
+ * renders them concurrently on a bounded pool. A failed request goes to
+ * {@code invoice.retry.queue}, which hands it back after the retry delay, until it runs out
+ * of attempts and is parked on {@code invoice.failed.queue}.
+ * <p>
+ * Requests that never reached the broker are recovered by a periodic sweep for successful
+ * payments without an invoice, leaving out payments marked as parked. Invoicing is idempotent
+ * per payment, so duplicates are harmless.
+ */
+@Service
+public class InvoiceWorkerService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(InvoiceWorkerService.class);
+    
+    private static final String ATTEMPT_HEADER = "x-invoice-attempt";
+    
+    private final BillingService billingService;
+    private final InvoiceRepository invoiceRepository;
+    private final PaymentRepository paymentRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final InvoiceWorkerProperties properties;
+    private final ThreadPoolTaskExecutor executor;
+    
+    public InvoiceWorkerService(BillingService billingService,
+                                InvoiceRepository invoiceRepository,
+                                PaymentRepository paymentRepository,
+                                RabbitTemplate rabbitTemplate,
+                                InvoiceWorkerProperties properties) {
+        this.billingService = billingService;
+        this.invoiceRepository = invoiceRepository;
+        this.paymentRepository = paymentRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.properties = properties;
+        
+        this.executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getThreads());
+        executor.setMaxPoolSize(properties.getThreads());
+        // The listener waits for its batch, so at most one batch is ever queued
+        executor.setQueueCapacity(properties.getBatchSize());
+        executor.setThreadNamePrefix("invoice-worker-");
+        executor.initialize();
+    }
+    
+    @TransactionalEventListener
+    public void onPaymentCompleted(PaymentCompletedEvent event) {
+        try {
+            send(RabbitMQConfig.INVOICE_QUEUE, event.getPaymentId(), 1);
+        } catch (AmqpException e) {
+            logger.warn("Could not queue invoice for payment {}, the sweep will pick it up: {}",
+                    event.getPaymentId(), e.getMessage());
+        }
+    }
+    
+    @RabbitListener(queues = RabbitMQConfig.INVOICE_QUEUE,
+                    containerFactory = RabbitMQConfig.INVOICE_LISTENER_CONTAINER_FACTORY)
+    public void onInvoiceRequests(List<Message<String>> messages) {
+        Map<UUID, Integer> attempts = new LinkedHashMap<>();
+        for (Message<String> message : messages) {
+            UUID paymentId;
+            try {
+                paymentId = UUID.fromString(message.getPayload());
+            } catch (IllegalArgumentException e) {
+                logger.warn("Dropping invoice request with invalid payment id '{}'", message.getPayload());
+                continue;
+            }
+            Integer attempt = message.getHeaders().get(ATTEMPT_HEADER, Integer.class);
+            attempts.merge(paymentId, attempt != null ? attempt : 1, Math::max);
+        }
+        if (attempts.isEmpty()) {
+            return;
+        }
+        // Redeliveries and sweep duplicates are dropped before any rendering
+        invoiceRepository.findInvoicedPaymentIds(attempts.keySet()).forEach(attempts::remove);
+        if (attempts.isEmpty()) {
+            return;
+        }
+        // One query for the whole batch; payments deleted since they were queued are dropped
+        Map<UUID, InvoiceContextRow> contexts = billingService.getInvoiceContexts(attempts.keySet());
+        
+        Map<UUID, Future<?>> rendering = new LinkedHashMap<>();
+        for (InvoiceContextRow context : contexts.values()) {
+            rendering.put(context.getPaymentId(), executor.submit(() -> billingService.generatePendingInvoice(context)));
+        }
+        int issued = 0;
+        for (Map.Entry<UUID, Future<?>> entry : rendering.entrySet()) {
+            try {
+                entry.getValue().get();
+                issued++;
+            } catch (ExecutionException e) {
+                retry(entry.getKey(), attempts.get(entry.getKey()), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                // Rejecting the batch returns it to the queue; finished invoices are skipped next time
+                throw new IllegalStateException("Interrupted while generating invoices", e);
+            }
+        }
+        logger.debug("Invoice batch of {} requests: {} processed, {} failed",
+                messages.size(), issued, rendering.size() - issued);
+    }
+    
+    @Scheduled(fixedDelayString = "${app.invoices.worker.sweep-interval:PT1H}",
+               initialDelayString = "${app.invoices.worker.sweep-interval:PT1H}")
+    public void enqueueMissingInvoices() {
+        LocalDateTime now = LocalDateTime.now();
+        List<UUID> paymentIds = paymentRepository.findIdsWithoutInvoice(
+                PaymentStatus.SUCCESS,
+                now.minus(properties.getSweepLookback()),
+                now.minus(properties.getSweepGracePeriod()),
+                Limit.of(properties.getSweepLimit()));
+        if (paymentIds.isEmpty()) {
+            return;
+        }
+        try {
+            for (UUID paymentId : paymentIds) {
+                send(RabbitMQConfig.INVOICE_QUEUE, paymentId, 1);
+            }
+            logger.info("Queued {} payments that have no invoice", paymentIds.size());
+        } catch (AmqpException e) {
+            logger.warn("Could not queue payments without invoice: {}", e.getMessage());
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+    
+    private void retry(UUID paymentId, int attempt, Throwable cause) {
+        if (attempt >= properties.getMaxAttempts()) {
+            logger.error("Invoice for payment {} failed after {} attempts, moving it to {}",
+                    paymentId, attempt, RabbitMQConfig.INVOICE_FAILED_QUEUE, cause);
+            try {
+                paymentRepository.markInvoiceFailed(paymentId, LocalDateTime.now());
+            } catch (RuntimeException e) {
+                // Parked all the same; the sweep retries it until the mark sticks
+                logger.warn("Could not mark payment {} as failed to invoice: {}", paymentId, e.getMessage());
+            }
+            send(RabbitMQConfig.INVOICE_FAILED_QUEUE, paymentId, attempt);
+        } else {
+            logger.warn("Invoice for payment {} failed on attempt {}, retrying in {}: {}",
+                    paymentId, attempt, properties.getRetryDelay(), cause.getMessage());
+            send(RabbitMQConfig.INVOICE_RETRY_QUEUE, paymentId, attempt + 1);
+        }
+    }
+    
+    private void send(String queue, UUID paymentId, int attempt) {
+        rabbitTemplate.convertAndSend(queue, paymentId.toString(), message -> {
+            message.getMessageProperties().setHeader(ATTEMPT_HEADER, attempt);
+            return message;
+        });
+    }
+}
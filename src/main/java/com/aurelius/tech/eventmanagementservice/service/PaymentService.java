@@ -3,11 +3,15 @@ package com.aurelius.tech.eventmanagementservice.service;
 import com.aurelius.tech.eventmanagementservice.entity.Payment;
 import com.aurelius.tech.eventmanagementservice.entity.Registration;
 import com.aurelius.tech.eventmanagementservice.entity.enums.PaymentStatus;
+import com.aurelius.tech.eventmanagementservice.entity.enums.RegistrationStatus;
+import com.aurelius.tech.eventmanagementservice.event.PaymentCompletedEvent;
+import com.aurelius.tech.eventmanagementservice.event.PaymentRefundedEvent;
+import com.aurelius.tech.eventmanagementservice.event.RegistrationStatusChangedEvent;
 import com.aurelius.tech.eventmanagementservice.exception.BusinessException;
 import com.aurelius.tech.eventmanagementservice.exception.ResourceNotFoundException;
 import com.aurelius.tech.eventmanagementservice.repository.PaymentRepository;
 import com.aurelius.tech.eventmanagementservice.repository.RegistrationRepository;
-import org.springframework.context.annotation.Lazy;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,19 +24,20 @@ public class PaymentService {
     
     private final PaymentRepository paymentRepository;
     private final RegistrationRepository registrationRepository;
-    private final BillingService billingService;
+    private final ApplicationEventPublisher eventPublisher;
     
     public PaymentService(PaymentRepository paymentRepository, 
                          RegistrationRepository registrationRepository,
-                         @Lazy BillingService billingService) {
+                         ApplicationEventPublisher eventPublisher) {
         this.paymentRepository = paymentRepository;
         this.registrationRepository = registrationRepository;
-        this.billingService = billingService;
+        this.eventPublisher = eventPublisher;
     }
     
     @Transactional
     public Payment processPayment(UUID registrationId, String paymentMethod, String transactionId) {
-        Registration registration = registrationRepository.findById(registrationId)
+        // Locked so the status change published below is the one that actually happened
+        Registration registration = registrationRepository.findByIdForUpdate(registrationId)
                 .orElseThrow(() -> new ResourceNotFoundException("Registration", "id", registrationId));
         
         if (registration.getTotalAmount() == null || registration.getTotalAmount().compareTo(BigDecimal.ZERO) <= 0) {
@@ -49,18 +54,18 @@ public class PaymentService {
         
         payment = paymentRepository.save(payment);
         
-        registration.setStatus(com.aurelius.tech.eventmanagementservice.entity.enums.RegistrationStatus.CONFIRMED);
+        RegistrationStatus previousStatus = registration.getStatus();
+        registration.setStatus(RegistrationStatus.CONFIRMED);
         registrationRepository.save(registration);
         
-        // Automatically generate invoice for successful payment
-        try {
-            billingService.generateInvoice(payment.getId());
-        } catch (Exception e) {
-            // Log error but don't fail the payment processing
-            // Invoice can be generated later if needed
-            System.err.println("Failed to generate invoice for payment " + payment.getId() + ": " + e.getMessage());
+        if (previousStatus != RegistrationStatus.CONFIRMED) {
+            eventPublisher.publishEvent(new RegistrationStatusChangedEvent(
+                    registrationId, registration.getEventId(), previousStatus, RegistrationStatus.CONFIRMED));
         }
+        eventPublisher.publishEvent(new PaymentCompletedEvent(
+                payment.getId(), registrationId, registration.getEventId(), payment.getAmount(), payment.getPaidAt()));
         
+        // The invoice is issued by InvoiceWorkerService once this transaction commits
         return payment;
     }
     
@@ -75,7 +80,9 @@ public class PaymentService {
     
     @Transactional
     public Payment processRefund(UUID paymentId) {
-        Payment payment = getPaymentById(paymentId);
+        // Locked so that of two concurrent refunds only one sees SUCCESS and moves the counters
+        Payment payment = paymentRepository.findByIdForUpdate(paymentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Payment", "id", paymentId));
         
         if (payment.getStatus() != PaymentStatus.SUCCESS) {
             throw new BusinessException("Only successful payments can be refunded");
@@ -85,11 +92,20 @@ public class PaymentService {
         payment.setStatus(PaymentStatus.REFUNDED);
         Payment savedPayment = paymentRepository.save(payment);
         
-        Registration registration = registrationRepository.findById(registrationId)
+        Registration registration = registrationRepository.findByIdForUpdate(registrationId)
                 .orElseThrow(() -> new ResourceNotFoundException("Registration", "id", registrationId));
-        registration.setStatus(com.aurelius.tech.eventmanagementservice.entity.enums.RegistrationStatus.CANCELLED);
+        RegistrationStatus previousStatus = registration.getStatus();
+        registration.setStatus(RegistrationStatus.CANCELLED);
         registrationRepository.save(registration);
         
+        if (previousStatus != RegistrationStatus.CANCELLED) {
+            eventPublisher.publishEvent(new RegistrationStatusChangedEvent(
+                    registrationId, registration.getEventId(), previousStatus, RegistrationStatus.CANCELLED));
+        }
+        eventPublisher.publishEvent(new PaymentRefundedEvent(
+                savedPayment.getId(), registrationId, registration.getEventId(),
+                savedPayment.getAmount(), savedPayment.getPaidAt()));
+        
         return savedPayment;
     }
 }
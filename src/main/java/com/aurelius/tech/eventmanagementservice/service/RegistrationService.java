@@ -4,11 +4,14 @@ import com.aurelius.tech.eventmanagementservice.dto.request.CreateRegistrationRe
 import com.aurelius.tech.eventmanagementservice.entity.Registration;
 import com.aurelius.tech.eventmanagementservice.entity.Ticket;
 import com.aurelius.tech.eventmanagementservice.entity.enums.RegistrationStatus;
+import com.aurelius.tech.eventmanagementservice.event.RegistrationCreatedEvent;
+import com.aurelius.tech.eventmanagementservice.event.RegistrationStatusChangedEvent;
 import com.aurelius.tech.eventmanagementservice.exception.BusinessException;
 import com.aurelius.tech.eventmanagementservice.exception.ResourceNotFoundException;
 import com.aurelius.tech.eventmanagementservice.repository.EventRepository;
 import com.aurelius.tech.eventmanagementservice.repository.RegistrationRepository;
 import com.aurelius.tech.eventmanagementservice.repository.TicketRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,17 +27,20 @@ public class RegistrationService {
     private final TicketRepository ticketRepository;
     private final QRCodeService qrCodeService;
     private final NotificationService notificationService;
+    private final ApplicationEventPublisher eventPublisher;
     
     public RegistrationService(RegistrationRepository registrationRepository,
                               EventRepository eventRepository,
                               TicketRepository ticketRepository,
                               QRCodeService qrCodeService,
-                              NotificationService notificationService) {
+                              NotificationService notificationService,
+                              ApplicationEventPublisher eventPublisher) {
         this.registrationRepository = registrationRepository;
         this.eventRepository = eventRepository;
         this.ticketRepository = ticketRepository;
         this.qrCodeService = qrCodeService;
         this.notificationService = notificationService;
+        this.eventPublisher = eventPublisher;
     }
     
     @Transactional
@@ -74,6 +80,13 @@ public class RegistrationService {
         registration.setQrCode(qrCode);
         registration = registrationRepository.save(registration);
         
+        eventPublisher.publishEvent(new RegistrationCreatedEvent(
+                registration.getId(),
+                registration.getEventId(),
+                registration.getStatus(),
+                registration.getQuantity(),
+                registration.getRegisteredAt()));
+        
         // Send notification
         notificationService.sendRegistrationConfirmation("user@example.com", 
                 java.util.Map.of("registrationId", registration.getId()));
@@ -96,9 +109,17 @@ public class RegistrationService {
     
     @Transactional
     public void cancelRegistration(UUID id) {
-        Registration registration = getRegistrationById(id);
+        // Locked so a concurrent cancel or refund sees CANCELLED and publishes no second change
+        Registration registration = registrationRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Registration", "id", id));
+        RegistrationStatus previousStatus = registration.getStatus();
         registration.setStatus(RegistrationStatus.CANCELLED);
         registrationRepository.save(registration);
+        
+        if (previousStatus != RegistrationStatus.CANCELLED) {
+            eventPublisher.publishEvent(new RegistrationStatusChangedEvent(
+                    registration.getId(), registration.getEventId(), previousStatus, RegistrationStatus.CANCELLED));
+        }
     }
     
     public Registration getRegistrationByQrCode(String qrCode) {
@@ -0,0 +1,224 @@
+package com.aurelius.tech.eventmanagementservice.service;
+
+import com.aurelius.tech.eventmanagementservice.config.ReportBundleProperties;
+import com.aurelius.tech.eventmanagementservice.entity.Event;
+import com.aurelius.tech.eventmanagementservice.entity.enums.ReportType;
+import com.aurelius.tech.eventmanagementservice.exception.BusinessException;
+import com.aurelius.tech.eventmanagementservice.exception.ResourceNotFoundException;
+import com.aurelius.tech.eventmanagementservice.repository.EventRepository;
+import com.aurelius.tech.eventmanagementservice.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Bundles the registrations CSV, payments CSV and PDF report of every event of an organizer
+ * into one ZIP. Parts are generated concurrently on a bounded pool, each into a temp file,
+ * and copied into the ZIP in the order they finish, so the first entry reaches the client as
+ * soon as the quickest part is ready. A part that fails is listed in {@code errors.txt} at
+ * the end of the archive instead of breaking the download.
+ */
+@Service
+@EnableConfigurationProperties(ReportBundleProperties.class)
+public class ReportBundleService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReportBundleService.class);
+    
+    private static final String ERRORS_ENTRY = "errors.txt";
+    private static final int MAX_FOLDER_TITLE_LENGTH = 50;
+    
+    private final ReportService reportService;
+    private final EventRepository eventRepository;
+    private final UserRepository userRepository;
+    private final ReportBundleProperties properties;
+    private final ThreadPoolTaskExecutor executor;
+    
+    public ReportBundleService(ReportService reportService,
+                               EventRepository eventRepository,
+                               UserRepository userRepository,
+                               ReportBundleProperties properties) {
+        this.reportService = reportService;
+        this.eventRepository = eventRepository;
+        this.userRepository = userRepository;
+        this.properties = properties;
+        
+        this.executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getThreads());
+        executor.setMaxPoolSize(properties.getThreads());
+        executor.setQueueCapacity(properties.getQueueCapacity());
+        executor.setThreadNamePrefix("report-bundle-");
+        // A saturated pool makes the downloading thread generate the part itself
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+    }
+    
+    public List<Event> getBundleEvents(UUID organizerId) {
+        if (!userRepository.existsById(organizerId)) {
+            throw new ResourceNotFoundException("User", "id", organizerId);
+        }
+        List<Event> events = eventRepository.findByOrganizerId(organizerId);
+        if (events.isEmpty()) {
+            throw new BusinessException("Organizer has no events to export");
+        }
+        return events;
+    }
+    
+    /**
+     * Writes the ZIP for {@code events} to {@code out}. At most
+     * {@code app.reports.bundle.max-pending-parts} parts are generating or waiting to be
+     * written at a time, so a slow client slows generation down rather than filling the disk.
+     */
+    public void writeBundle(List<Event> events, OutputStream out) throws IOException {
+        Deque<Part> pending = new ArrayDeque<>();
+        for (Event event : events) {
+            for (ReportType type : ReportType.values()) {
+                pending.add(new Part(event.getId(), folderName(event), type));
+            }
+        }
+        
+        CompletionService<Part> completion = new ExecutorCompletionService<>(executor.getThreadPoolExecutor());
+        List<Future<Part>> submitted = new ArrayList<>();
+        AtomicBoolean aborted = new AtomicBoolean();
+        List<String> failures = new ArrayList<>();
+        boolean finished = false;
+        
+        ZipOutputStream zip = new ZipOutputStream(out);
+        try {
+            int inFlight = 0;
+            while (!pending.isEmpty() || inFlight > 0) {
+                while (!pending.isEmpty() && inFlight < properties.getMaxPendingParts()) {
+                    Part part = pending.poll();
+                    submitted.add(completion.submit(() -> generate(part, aborted)));
+                    inFlight++;
+                }
+                Part part = completion.take().get();
+                inFlight--;
+                if (part.error != null) {
+                    failures.add(part.entryName() + ": " + part.error);
+                    continue;
+                }
+                try {
+                    zip.putNextEntry(new ZipEntry(part.entryName()));
+                    Files.copy(part.file, zip);
+                    zip.closeEntry();
+                    zip.flush();
+                } finally {
+                    deleteQuietly(part.file);
+                }
+            }
+            
+            if (!failures.isEmpty()) {
+                zip.putNextEntry(new ZipEntry(ERRORS_ENTRY));
+                zip.write(String.join("\n", failures).getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+            zip.finish();
+            zip.flush();
+            finished = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while building report bundle");
+        } catch (ExecutionException e) {
+            throw new IOException("Report bundle part failed", e.getCause()); // generate() reports its own failures
+        } finally {
+            if (!finished) {
+                discard(submitted, aborted);
+            }
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+    
+    private Part generate(Part part, AtomicBoolean aborted) {
+        if (aborted.get()) {
+            return part;
+        }
+        Path file = null;
+        try {
+            file = Files.createTempFile("report-bundle-", part.type.getFileExtension());
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+                reportService.write(part.type, part.eventId, out);
+            }
+            part.file = file;
+        } catch (Exception e) {
+            logger.warn("Report bundle part {} failed", part.entryName(), e);
+            deleteQuietly(file);
+            part.error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        }
+        // The download was abandoned while this part ran; nobody will collect the file
+        if (aborted.get()) {
+            deleteQuietly(part.file);
+        }
+        return part;
+    }
+    
+    // Stops parts that have not started and removes the files of those already done
+    private void discard(List<Future<Part>> submitted, AtomicBoolean aborted) {
+        aborted.set(true);
+        for (Future<Part> future : submitted) {
+            future.cancel(false);
+            if (future.isDone() && !future.isCancelled()) {
+                try {
+                    deleteQuietly(future.get().file);
+                } catch (InterruptedException | ExecutionException e) {
+                    // Nothing to clean up
+                }
+            }
+        }
+    }
+    
+    private static String folderName(Event event) {
+        String title = event.getTitle() != null ? event.getTitle() : "event";
+        String safe = title.replaceAll("[^A-Za-z0-9._-]+", "_");
+        if (safe.length() > MAX_FOLDER_TITLE_LENGTH) {
+            safe = safe.substring(0, MAX_FOLDER_TITLE_LENGTH);
+        }
+        return safe + "_" + event.getId().toString().substring(0, 8);
+    }
+    
+    private void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete report bundle file {}: {}", file, e.getMessage());
+        }
+    }
+    
+    private static class Part {
+        
+        private final UUID eventId;
+        private final String folder;
+        private final ReportType type;
+        private volatile Path file;
+        private volatile String error;
+        
+        private Part(UUID eventId, String folder, ReportType type) {
+            this.eventId = eventId;
+            this.folder = folder;
+            this.type = type;
+        }
+        
+        private String entryName() {
+            return folder + "/" + type.fileName(eventId);
+        }
+    }
+}
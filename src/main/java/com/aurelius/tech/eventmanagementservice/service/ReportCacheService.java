@@ -0,0 +1,222 @@
+package com.aurelius.tech.eventmanagementservice.service;
+
+import com.aurelius.tech.eventmanagementservice.config.ReportCacheProperties;
+import com.aurelius.tech.eventmanagementservice.entity.AnalyticsCounter;
+import com.aurelius.tech.eventmanagementservice.entity.enums.ReportType;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Keeps rendered event reports on local disk, keyed by event, report type and the event's
+ * data version. The version is the event counter's {@code data_version}, which moves in the
+ * same transaction as every registration, payment, ticket or event change, so a cached file
+ * is reused exactly until the data behind it changes. The same version doubles as the
+ * report's ETag.
+ */
+@Service
+@EnableConfigurationProperties(ReportCacheProperties.class)
+public class ReportCacheService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReportCacheService.class);
+    
+    private static final String PARTIAL_SUFFIX = ".part";
+    
+    private final ReportService reportService;
+    private final AnalyticsCounterService analyticsCounterService;
+    private final ReportCacheProperties properties;
+    private final AsyncCache<String, CachedReport> reports;
+    
+    public ReportCacheService(ReportService reportService,
+                              AnalyticsCounterService analyticsCounterService,
+                              ReportCacheProperties properties) {
+        this.reportService = reportService;
+        this.analyticsCounterService = analyticsCounterService;
+        this.properties = properties;
+        // Weighed in KiB once rendering completes; evicted files are deleted once no longer leased
+        this.reports = Caffeine.newBuilder()
+                .maximumWeight(Math.max(1, properties.getMaxSize().toKilobytes()))
+                .<String, CachedReport>weigher((key, report) -> (int) Math.min(Integer.MAX_VALUE, report.size / 1024 + 1))
+                .expireAfterAccess(properties.getExpireAfterAccess())
+                .removalListener((key, report, cause) -> {
+                    if (report != null) {
+                        report.evict();
+                    }
+                })
+                .buildAsync();
+        clearDirectory();
+    }
+    
+    /**
+     * Weak ETag of the report's current version. Throws when the event does not exist.
+     */
+    public String getETag(UUID eventId, ReportType type) {
+        reportService.requireEvent(eventId);
+        Optional<AnalyticsCounter> counter = analyticsCounterService.getEventCounter(eventId);
+        // The counter row is recreated by a rebuild, so its id is part of the version too
+        String version = counter
+                .map(c -> Long.toHexString(c.getId().getMostSignificantBits() ^ c.getId().getLeastSignificantBits())
+                        + "." + c.getDataVersion())
+                .orElse("0");
+        return "W/\"" + type.name().toLowerCase() + "-" + version + "\"";
+    }
+    
+    /**
+     * The report file for the given version, rendering it on first use. Concurrent requests for
+     * the same version share one rendering. The file stays on disk until the returned lease is
+     * closed, even if the report is evicted in the meantime.
+     */
+    public Lease getReport(UUID eventId, ReportType type, String etag) throws IOException {
+        String key = eventId + ":" + etag;
+        while (true) {
+            CompletableFuture<CachedReport> pending = new CompletableFuture<>();
+            CompletableFuture<CachedReport> existing = reports.asMap().putIfAbsent(key, pending);
+            if (existing == null) {
+                CachedReport report;
+                try {
+                    report = render(eventId, type);
+                } catch (IOException | RuntimeException e) {
+                    reports.asMap().remove(key, pending);
+                    pending.completeExceptionally(e);
+                    throw e;
+                }
+                // Leased before it can be evicted, so a report over the size limit is still served once
+                report.acquire();
+                pending.complete(report);
+                return new Lease(report);
+            }
+            CachedReport report = await(existing);
+            if (report.acquire()) {
+                return new Lease(report);
+            }
+            // Evicted since it was looked up, and already out of the cache; render it again
+        }
+    }
+    
+    private CachedReport render(UUID eventId, ReportType type) throws IOException {
+        Files.createDirectories(properties.getDir());
+        Path file = properties.getDir().resolve(UUID.randomUUID() + type.getFileExtension());
+        Path partial = properties.getDir().resolve(file.getFileName() + PARTIAL_SUFFIX);
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(partial))) {
+                reportService.write(type, eventId, out);
+            }
+            Files.move(partial, file, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            deleteQuietly(partial);
+        }
+        return new CachedReport(file, Files.size(file));
+    }
+    
+    private CachedReport await(CompletableFuture<CachedReport> rendering) throws IOException {
+        try {
+            return rendering.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+    
+    // Files from a previous run are not in the index and would never be cleaned up
+    private void clearDirectory() {
+        if (!Files.isDirectory(properties.getDir())) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(properties.getDir())) {
+            files.filter(Files::isRegularFile).forEach(this::deleteQuietly);
+        } catch (IOException | UncheckedIOException e) {
+            logger.warn("Could not clear report cache {}: {}", properties.getDir(), e.getMessage());
+        }
+    }
+    
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete cached report {}: {}", file, e.getMessage());
+        }
+    }
+    
+    /**
+     * A cached report file, kept on disk until {@link #close()} even if it is evicted.
+     */
+    public static class Lease implements Closeable {
+        
+        private final CachedReport report;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        
+        private Lease(CachedReport report) {
+            this.report = report;
+        }
+        
+        public Path getFile() {
+            return report.file;
+        }
+        
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                report.release();
+            }
+        }
+    }
+    
+    private class CachedReport {
+        
+        private final Path file;
+        private final long size;
+        
+        // Guarded by this
+        private int leases;
+        private boolean evicted;
+        
+        private CachedReport(Path file, long size) {
+            this.file = file;
+            this.size = size;
+        }
+        
+        private synchronized boolean acquire() {
+            if (evicted) {
+                return false;
+            }
+            leases++;
+            return true;
+        }
+        
+        private synchronized void release() {
+            if (--leases == 0 && evicted) {
+                deleteQuietly(file);
+            }
+        }
+        
+        private synchronized void evict() {
+            evicted = true;
+            if (leases == 0) {
+                deleteQuietly(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package com.aurelius.tech.eventmanagementservice.service;
+
+import com.aurelius.tech.eventmanagementservice.config.ReportJobProperties;
+import com.aurelius.tech.eventmanagementservice.dto.response.ReportJobResponse;
+import com.aurelius.tech.eventmanagementservice.entity.enums.ReportJobStatus;
+import com.aurelius.tech.eventmanagementservice.entity.enums.ReportType;
+import com.aurelius.tech.eventmanagementservice.exception.BusinessException;
+import com.aurelius.tech.eventmanagementservice.exception.ResourceNotFoundException;
+import com.aurelius.tech.eventmanagementservice.repository.EventRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Generates report files in the background. Jobs run on a bounded worker pool and write
+ * to {@code app.reports.jobs.storage-dir}; clients poll the job and download the file once
+ * it has completed. An identical request while a job is queued or running returns that job,
+ * and finished jobs are forgotten, with their files deleted, after the artifact TTL. A file
+ * being downloaded is only deleted once its lease is closed.
+ * Job state lives in memory, so a job is only visible on the instance that accepted it.
+ */
+@Service
+@EnableConfigurationProperties(ReportJobProperties.class)
+public class ReportJobService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReportJobService.class);
+    
+    private static final String PARTIAL_SUFFIX = ".part";
+    
+    private final ReportService reportService;
+    private final EventRepository eventRepository;
+    private final ReportJobProperties properties;
+    private final ThreadPoolTaskExecutor executor;
+    private final Map<UUID, ReportJob> jobs = new ConcurrentHashMap<>();
+    
+    public ReportJobService(ReportService reportService,
+                            EventRepository eventRepository,
+                            ReportJobProperties properties) {
+        this.reportService = reportService;
+        this.eventRepository = eventRepository;
+        this.properties = properties;
+        
+        this.executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getThreads());
+        executor.setMaxPoolSize(properties.getThreads());
+        executor.setQueueCapacity(properties.getQueueCapacity());
+        executor.setThreadNamePrefix("report-job-");
+        executor.initialize();
+    }
+    
+    public synchronized ReportJobResponse submit(UUID eventId, ReportType type) {
+        UUID organizerId = eventRepository.findOrganizerIdById(eventId)
+                .orElseThrow(() -> new ResourceNotFoundException("Event", "id", eventId));
+        
+        int activeForOrganizer = 0;
+        for (ReportJob job : jobs.values()) {
+            if (!job.isActive()) {
+                continue;
+            }
+            if (job.eventId.equals(eventId) && job.type == type) {
+                return toResponse(job);
+            }
+            if (job.organizerId.equals(organizerId)) {
+                activeForOrganizer++;
+            }
+        }
+        if (activeForOrganizer >= properties.getMaxActivePerOrganizer()) {
+            throw new BusinessException("Organizer already has " + activeForOrganizer +
+                    " report jobs in progress; wait for one to finish");
+        }
+        
+        ReportJob job = new ReportJob(UUID.randomUUID(), eventId, organizerId, type);
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.id);
+            throw new BusinessException("Report queue is full, please try again later");
+        }
+        return toResponse(job);
+    }
+    
+    public ReportJobResponse getJob(UUID jobId) {
+        return toResponse(findJob(jobId));
+    }
+    
+    /**
+     * Lease on a completed job's file, which stays on disk until the lease is closed even if
+     * the job expires in the meantime. Fails while the job is still queued or running, when
+     * it failed, and once it has expired.
+     */
+    public Lease openArtifact(UUID jobId) {
+        ReportJob job = findJob(jobId);
+        if (job.status != ReportJobStatus.COMPLETED) {
+            throw new BusinessException("Report job " + jobId + " is " + job.status.name().toLowerCase() +
+                    ", not completed");
+        }
+        if (!job.acquire()) {
+            throw new ResourceNotFoundException("Report job", "id", jobId);
+        }
+        return new Lease(job);
+    }
+    
+    @Scheduled(fixedDelay = 60_000)
+    public void expireArtifacts() {
+        LocalDateTime now = LocalDateTime.now();
+        // A job whose file is still leased stays known, so its file is not taken for an orphan below
+        jobs.values().removeIf(job -> job.expiresAt != null && !job.expiresAt.isAfter(now) && job.expire());
+        
+        // Files left behind by jobs this instance no longer knows about, e.g. from before a restart
+        Path storageDir = properties.getStorageDir();
+        if (!Files.isDirectory(storageDir)) {
+            return;
+        }
+        FileTime cutoff = FileTime.from(Instant.now().minus(properties.getArtifactTtl()));
+        try (Stream<Path> files = Files.list(storageDir)) {
+            files.filter(file -> isOrphan(file, cutoff)).forEach(this::deleteQuietly);
+        } catch (IOException e) {
+            logger.warn("Could not clean report storage {}: {}", storageDir, e.getMessage());
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+    
+    private void run(ReportJob job) {
+        job.status = ReportJobStatus.RUNNING;
+        Path storageDir = properties.getStorageDir();
+        Path file = storageDir.resolve(job.id + job.type.getFileExtension());
+        Path partial = storageDir.resolve(file.getFileName() + PARTIAL_SUFFIX);
+        try {
+            Files.createDirectories(storageDir);
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(partial))) {
+                reportService.write(job.type, job.eventId, out);
+            }
+            Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            job.file = file;
+            job.sizeBytes = Files.size(file);
+            finish(job, ReportJobStatus.COMPLETED);
+        } catch (Exception e) {
+            logger.warn("Report job {} ({} for event {}) failed", job.id, job.type, job.eventId, e);
+            deleteQuietly(partial);
+            job.error = e.getMessage();
+            finish(job, ReportJobStatus.FAILED);
+        }
+    }
+    
+    private void finish(ReportJob job, ReportJobStatus status) {
+        job.completedAt = LocalDateTime.now();
+        job.expiresAt = job.completedAt.plus(properties.getArtifactTtl());
+        job.status = status;
+    }
+    
+    private ReportJob findJob(UUID jobId) {
+        ReportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Report job", "id", jobId);
+        }
+        return job;
+    }
+    
+    private boolean isOrphan(Path file, FileTime cutoff) {
+        try {
+            String name = file.getFileName().toString();
+            int dot = name.indexOf('.');
+            UUID jobId = UUID.fromString(dot >= 0 ? name.substring(0, dot) : name);
+            return !jobs.containsKey(jobId) && Files.getLastModifiedTime(file).compareTo(cutoff) < 0;
+        } catch (IllegalArgumentException | IOException e) {
+            return false; // Not one of ours
+        }
+    }
+    
+    private void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete report file {}: {}", file, e.getMessage());
+        }
+    }
+    
+    private ReportJobResponse toResponse(ReportJob job) {
+        return new ReportJobResponse(
+                job.id,
+                job.eventId,
+                job.type,
+                job.status,
+                job.type.fileName(job.eventId),
+                job.sizeBytes,
+                job.error,
+                job.createdAt,
+                job.completedAt,
+                job.expiresAt);
+    }
+    
+    /**
+     * A completed job's file, kept on disk until {@link #close()} even if the job expires.
+     */
+    public static class Lease implements Closeable {
+        
+        private final ReportJob job;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        
+        private Lease(ReportJob job) {
+            this.job = job;
+        }
+        
+        public Path getFile() {
+            return job.file;
+        }
+        
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                job.release();
+            }
+        }
+    }
+    
+    private class ReportJob {
+        
+        private final UUID id;
+        private final UUID eventId;
+        private final UUID organizerId;
+        private final ReportType type;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private volatile ReportJobStatus status = ReportJobStatus.QUEUED;
+        private volatile Path file;
+        private volatile Long sizeBytes;
+        private volatile String error;
+        private volatile LocalDateTime completedAt;
+        private volatile LocalDateTime expiresAt;
+        
+        // Guarded by this
+        private int leases;
+        private boolean expired;
+        
+        private ReportJob(UUID id, UUID eventId, UUID organizerId, ReportType type) {
+            this.id = id;
+            this.eventId = eventId;
+            this.organizerId = organizerId;
+            this.type = type;
+        }
+        
+        private boolean isActive() {
+            return status == ReportJobStatus.QUEUED || status == ReportJobStatus.RUNNING;
+        }
+        
+        private synchronized boolean acquire() {
+            if (expired) {
+                return false;
+            }
+            leases++;
+            return true;
+        }
+        
+        private synchronized void release() {
+            if (--leases == 0 && expired) {
+                deleteQuietly(file);
+            }
+        }
+        
+        // Deletes the file unless it is leased, in which case the last release does; true once it is gone
+        private synchronized boolean expire() {
+            expired = true;
+            if (leases > 0) {
+                return false;
+            }
+            deleteQuietly(file);
+            return true;
+        }
+    }
+}
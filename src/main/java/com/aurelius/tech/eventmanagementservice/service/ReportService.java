@@ -1,95 +1,130 @@
 package com.aurelius.tech.eventmanagementservice.service;
 
+import com.aurelius.tech.eventmanagementservice.dto.EventFinancials;
 import com.aurelius.tech.eventmanagementservice.entity.*;
 import com.aurelius.tech.eventmanagementservice.entity.enums.PaymentStatus;
-import com.aurelius.tech.eventmanagementservice.entity.enums.RegistrationStatus;
+import com.aurelius.tech.eventmanagementservice.entity.enums.ReportType;
+import com.aurelius.tech.eventmanagementservice.exception.BusinessException;
+import com.aurelius.tech.eventmanagementservice.exception.ResourceNotFoundException;
 import com.aurelius.tech.eventmanagementservice.repository.*;
+import com.aurelius.tech.eventmanagementservice.repository.projection.PaymentChangeRow;
+import com.aurelius.tech.eventmanagementservice.repository.projection.RegistrationExportRow;
+import com.aurelius.tech.eventmanagementservice.util.ChangeCursor;
+import com.aurelius.tech.eventmanagementservice.util.PdfReportLayout;
+import jakarta.persistence.EntityManager;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
+import org.apache.pdfbox.io.IOUtils;
 import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.pdmodel.PDPage;
-import org.apache.pdfbox.pdmodel.PDPageContentStream;
-import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
-import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.StringWriter;
-import java.math.BigDecimal;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
+import java.util.Iterator;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Service
 public class ReportService {
     
+    private static final int FLUSH_INTERVAL = 1000;
+    private static final int MAX_CHANGE_PAGE_SIZE = 10_000;
+    private static final int CHANGE_FEED_SETTLE_SECONDS = 10;
+    private static final DateTimeFormatter PDF_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final DateTimeFormatter PDF_TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String[] ATTENDEE_COLUMNS = {
+            "Name", "Email", "Ticket", "Qty", "Amount", "Status", "Registered"
+    };
+    private static final float[] ATTENDEE_COLUMN_WEIGHTS = {19, 25, 12, 5, 9, 13, 17};
+    
     private final EventRepository eventRepository;
     private final RegistrationRepository registrationRepository;
     private final PaymentRepository paymentRepository;
+    private final EventFinancialsService eventFinancialsService;
+    private final EntityManager entityManager;
     
     public ReportService(EventRepository eventRepository,
                         RegistrationRepository registrationRepository,
-                        PaymentRepository paymentRepository) {
+                        PaymentRepository paymentRepository,
+                        EventFinancialsService eventFinancialsService,
+                        EntityManager entityManager) {
         this.eventRepository = eventRepository;
         this.registrationRepository = registrationRepository;
         this.paymentRepository = paymentRepository;
+        this.eventFinancialsService = eventFinancialsService;
+        this.entityManager = entityManager;
     }
     
-    public byte[] exportEventRegistrationsCSV(UUID eventId) throws IOException {
-        eventRepository.findById(eventId)
-                .orElseThrow(() -> new RuntimeException("Event not found"));
-        
-        List<Registration> registrations = registrationRepository.findByEventId(eventId);
+    /**
+     * Writes the report of the given type for the event to {@code out}.
+     */
+    @Transactional(readOnly = true)
+    public void write(ReportType type, UUID eventId, OutputStream out) throws IOException {
+        switch (type) {
+            case REGISTRATIONS_CSV -> writeEventRegistrationsCSV(eventId, out);
+            case PAYMENTS_CSV -> writeEventPaymentsCSV(eventId, out);
+            case EVENT_PDF -> writeEventReportPDF(eventId, out);
+        }
+    }
+    
+    /**
+     * Writes the registrations CSV straight to {@code out} from a database cursor, flushing
+     * every {@value #FLUSH_INTERVAL} rows, so memory use does not depend on the number of rows.
+     * {@code out} is flushed but left open.
+     */
+    @Transactional(readOnly = true)
+    public void writeEventRegistrationsCSV(UUID eventId, OutputStream out) throws IOException {
+        requireEvent(eventId);
         
-        StringWriter writer = new StringWriter();
-        CSVFormat csvFormat = CSVFormat.DEFAULT.withHeader(
-                "Registration ID", "User Name", "Email", "Ticket Type", 
-                "Quantity", "Total Amount", "Status", "Registered At"
-        );
+        CSVFormat csvFormat = CSVFormat.DEFAULT.builder()
+                .setHeader("Registration ID", "User Name", "Email", "Ticket Type",
+                        "Quantity", "Total Amount", "Status", "Registered At")
+                .build();
         
-        try (CSVPrinter csvPrinter = new CSVPrinter(writer, csvFormat)) {
-            for (Registration registration : registrations) {
-                String userName = registration.getUser() != null ? 
-                        registration.getUser().getFirstName() + " " + registration.getUser().getLastName() : "N/A";
-                String email = registration.getUser() != null ? 
-                        registration.getUser().getEmail() : "N/A";
-                String ticketName = registration.getTicket() != null ? 
-                        registration.getTicket().getName() : "N/A";
-                
+        CSVPrinter csvPrinter = new CSVPrinter(csvWriter(out), csvFormat);
+        try (Stream<RegistrationExportRow> rows = registrationRepository.streamExportRowsByEventId(eventId)) {
+            int count = 0;
+            for (Iterator<RegistrationExportRow> it = rows.iterator(); it.hasNext(); ) {
+                RegistrationExportRow row = it.next();
                 csvPrinter.printRecord(
-                        registration.getId(),
-                        userName,
-                        email,
-                        ticketName,
-                        registration.getQuantity(),
-                        registration.getTotalAmount() != null ? registration.getTotalAmount().toString() : "0.00",
-                        registration.getStatus().toString(),
-                        registration.getRegisteredAt() != null ? 
-                                registration.getRegisteredAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) : "N/A"
+                        row.getRegistrationId(),
+                        row.getUserName() != null ? row.getUserName() : "N/A",
+                        row.getEmail() != null ? row.getEmail() : "N/A",
+                        row.getTicketName() != null ? row.getTicketName() : "N/A",
+                        row.getQuantity(),
+                        row.getTotalAmount() != null ? row.getTotalAmount().toString() : "0.00",
+                        row.getStatus().toString(),
+                        row.getRegisteredAt() != null ? 
+                                row.getRegisteredAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) : "N/A"
                 );
+                flushPeriodically(csvPrinter, ++count);
             }
         }
-        
-        return writer.toString().getBytes();
+        csvPrinter.flush();
     }
     
-    public byte[] exportEventPaymentsCSV(UUID eventId) throws IOException {
-        eventRepository.findById(eventId)
-                .orElseThrow(() -> new RuntimeException("Event not found"));
+    /**
+     * Writes the successful payments CSV straight to {@code out}, the same way as
+     * {@link #writeEventRegistrationsCSV(UUID, OutputStream)}.
+     */
+    @Transactional(readOnly = true)
+    public void writeEventPaymentsCSV(UUID eventId, OutputStream out) throws IOException {
+        requireEvent(eventId);
         
-        List<Payment> payments = paymentRepository.findAllByRegistration_EventIdAndStatus(
-                eventId, PaymentStatus.SUCCESS);
+        CSVFormat csvFormat = CSVFormat.DEFAULT.builder()
+                .setHeader("Payment ID", "Registration ID", "Amount", "Currency",
+                        "Payment Method", "Transaction ID", "Status", "Paid At")
+                .build();
         
-        StringWriter writer = new StringWriter();
-        CSVFormat csvFormat = CSVFormat.DEFAULT.withHeader(
-                "Payment ID", "Registration ID", "Amount", "Currency", 
-                "Payment Method", "Transaction ID", "Status", "Paid At"
-        );
-        
-        try (CSVPrinter csvPrinter = new CSVPrinter(writer, csvFormat)) {
-            for (Payment payment : payments) {
+        CSVPrinter csvPrinter = new CSVPrinter(csvWriter(out), csvFormat);
+        try (Stream<Payment> payments = paymentRepository.streamByEventIdAndStatus(eventId, PaymentStatus.SUCCESS)) {
+            int rows = 0;
+            for (Iterator<Payment> it = payments.iterator(); it.hasNext(); ) {
+                Payment payment = it.next();
                 csvPrinter.printRecord(
                         payment.getId(),
                         payment.getRegistrationId(),
@@ -101,120 +136,147 @@ public class ReportService {
                         payment.getPaidAt() != null ? 
                                 payment.getPaidAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) : "N/A"
                 );
+                flushPeriodically(csvPrinter, ++rows);
             }
         }
-        
-        return writer.toString().getBytes();
+        csvPrinter.flush();
     }
     
-    public byte[] exportEventReportPDF(UUID eventId) throws IOException {
-        Event event = eventRepository.findById(eventId)
-                .orElseThrow(() -> new RuntimeException("Event not found"));
+    /**
+     * Writes up to {@code limit} payments changed after {@code cursor} (created, or with a new
+     * status), oldest change first, as CSV to {@code out}. Each row carries the cursor to resume
+     * after it; a page shorter than {@code limit} means the caller has caught up. Changes from
+     * the last {@value #CHANGE_FEED_SETTLE_SECONDS} seconds are held back until transactions that
+     * stamped them earlier have had time to commit, so none are skipped.
+     */
+    @Transactional(readOnly = true)
+    public void writePaymentChangesCSV(String cursor, int limit, OutputStream out) throws IOException {
+        ChangeCursor after = ChangeCursor.decode(cursor);
+        validateChangeLimit(limit);
+        LocalDateTime until = LocalDateTime.now().minusSeconds(CHANGE_FEED_SETTLE_SECONDS);
         
-        List<Registration> registrations = registrationRepository.findByEventId(eventId);
-        List<Payment> payments = paymentRepository.findAllByRegistration_EventIdAndStatus(
-                eventId, PaymentStatus.SUCCESS);
+        CSVFormat csvFormat = CSVFormat.DEFAULT.builder()
+                .setHeader("Cursor", "Payment ID", "Registration ID", "Event ID", "Amount", "Currency",
+                        "Payment Method", "Transaction ID", "Status", "Paid At", "Created At", "Updated At")
+                .build();
         
-        BigDecimal totalRevenue = payments.stream()
-                .map(Payment::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        int totalRegistrations = registrations.size();
-        int confirmedRegistrations = (int) registrations.stream()
-                .filter(r -> r.getStatus() == RegistrationStatus.CONFIRMED)
-                .count();
-        
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        CSVPrinter csvPrinter = new CSVPrinter(csvWriter(out), csvFormat);
+        try (Stream<PaymentChangeRow> changes = paymentRepository.streamChangedAfter(
+                after.getUpdatedAt(), after.getId(), until, Limit.of(limit))) {
+            int rows = 0;
+            for (Iterator<PaymentChangeRow> it = changes.iterator(); it.hasNext(); ) {
+                PaymentChangeRow change = it.next();
+                csvPrinter.printRecord(
+                        new ChangeCursor(change.getUpdatedAt(), change.getPaymentId()).encode(),
+                        change.getPaymentId(),
+                        change.getRegistrationId(),
+                        change.getEventId(),
+                        change.getAmount().toString(),
+                        change.getCurrency(),
+                        change.getPaymentMethod(),
+                        change.getTransactionId(),
+                        change.getStatus().toString(),
+                        formatTimestamp(change.getPaidAt()),
+                        formatTimestamp(change.getCreatedAt()),
+                        formatTimestamp(change.getUpdatedAt())
+                );
+                flushPeriodically(csvPrinter, ++rows);
+            }
+        }
+        csvPrinter.flush();
+    }
+    
+    public void validateChangeLimit(int limit) {
+        if (limit < 1 || limit > MAX_CHANGE_PAGE_SIZE) {
+            throw new BusinessException("limit must be between 1 and " + MAX_CHANGE_PAGE_SIZE);
+        }
+    }
+    
+    public void requireEvent(UUID eventId) {
+        if (!eventRepository.existsById(eventId)) {
+            throw new ResourceNotFoundException("Event", "id", eventId);
+        }
+    }
+    
+    /**
+     * Writes the event report, with its attendee table running over as many pages as needed,
+     * to {@code out}. Attendee rows are read from a database cursor and page content is
+     * buffered in a temp file rather than on the heap, so memory use does not depend on the
+     * number of registrations. {@code out} is closed once the document has been written.
+     */
+    @Transactional(readOnly = true)
+    public void writeEventReportPDF(UUID eventId, OutputStream out) throws IOException {
+        Event event = eventRepository.findById(eventId)
+                .orElseThrow(() -> new ResourceNotFoundException("Event", "id", eventId));
+        EventFinancials financials = eventFinancialsService.getFinancials(eventId);
         
-        try (PDDocument document = new PDDocument()) {
-            PDPage page = new PDPage();
-            document.addPage(page);
-            
-            try (PDPageContentStream contentStream = new PDPageContentStream(document, page)) {
-                float yPosition = 750;
-                float margin = 50;
-                float lineHeight = 20;
+        try (PDDocument document = new PDDocument(IOUtils.createTempFileOnlyStreamCache())) {
+            try (PdfReportLayout layout = new PdfReportLayout(document)) {
+                layout.title("Event Report: " + event.getTitle());
+                layout.space(20);
                 
-                // Title
-                contentStream.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD), 20);
-                contentStream.beginText();
-                contentStream.newLineAtOffset(margin, yPosition);
-                contentStream.showText("Event Report: " + event.getTitle());
-                contentStream.endText();
+                layout.heading("Event Details");
+                layout.line("Start Date: " + event.getStartDateTime().format(PDF_DATE_FORMAT));
+                layout.line("End Date: " + event.getEndDateTime().format(PDF_DATE_FORMAT));
+                layout.line("Status: " + event.getStatus().toString());
+                layout.space(20);
                 
-                yPosition -= 40;
+                layout.heading("Statistics");
+                layout.line("Total Registrations: " + financials.getTotalRegistrations());
+                layout.line("Confirmed Registrations: " + financials.getConfirmedRegistrations());
+                layout.line("Total Revenue: $" + financials.getTotalRevenue().toString());
+                layout.space(20);
                 
-                // Event Details
-                contentStream.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD), 14);
-                contentStream.beginText();
-                contentStream.newLineAtOffset(margin, yPosition);
-                contentStream.showText("Event Details");
-                contentStream.endText();
+                layout.note("Report Generated: " + LocalDateTime.now().format(PDF_TIMESTAMP_FORMAT));
+                layout.space(20);
                 
-                yPosition -= lineHeight;
-                contentStream.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 12);
-                contentStream.beginText();
-                contentStream.newLineAtOffset(margin, yPosition);
-                contentStream.showText("Start Date: " + event.getStartDateTime()
-                        .format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")));
-                contentStream.endText();
-                
-                yPosition -= lineHeight;
-                contentStream.beginText();
-                contentStream.newLineAtOffset(margin, yPosition);
-                contentStream.showText("End Date: " + event.getEndDateTime()
-                        .format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")));
-                contentStream.endText();
-                
-                yPosition -= lineHeight;
-                contentStream.beginText();
-                contentStream.newLineAtOffset(margin, yPosition);
-                contentStream.showText("Status: " + event.getStatus().toString());
-                contentStream.endText();
-                
-                yPosition -= 40;
-                
-                // Statistics
-                contentStream.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD), 14);
-                contentStream.beginText();
-                contentStream.newLineAtOffset(margin, yPosition);
-                contentStream.showText("Statistics");
-                contentStream.endText();
-                
-                yPosition -= lineHeight;
-                contentStream.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 12);
-                contentStream.beginText();
-                contentStream.newLineAtOffset(margin, yPosition);
-                contentStream.showText("Total Registrations: " + totalRegistrations);
-                contentStream.endText();
-                
-                yPosition -= lineHeight;
-                contentStream.beginText();
-                contentStream.newLineAtOffset(margin, yPosition);
-                contentStream.showText("Confirmed Registrations: " + confirmedRegistrations);
-                contentStream.endText();
-                
-                yPosition -= lineHeight;
-                contentStream.beginText();
-                contentStream.newLineAtOffset(margin, yPosition);
-                contentStream.showText("Total Revenue: $" + totalRevenue.toString());
-                contentStream.endText();
-                
-                yPosition -= 40;
-                
-                // Generated date
-                contentStream.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 10);
-                contentStream.beginText();
-                contentStream.newLineAtOffset(margin, yPosition);
-                contentStream.showText("Report Generated: " + LocalDateTime.now()
-                        .format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
-                contentStream.endText();
+                layout.heading("Attendees");
+                writeAttendeeTable(eventId, layout);
             }
-            
-            document.save(baos);
+            document.save(out);
+        }
+    }
+    
+    private void writeAttendeeTable(UUID eventId, PdfReportLayout layout) throws IOException {
+        try (Stream<RegistrationExportRow> rows = registrationRepository.streamExportRowsByEventId(eventId)) {
+            int count = 0;
+            for (Iterator<RegistrationExportRow> it = rows.iterator(); it.hasNext(); ) {
+                RegistrationExportRow row = it.next();
+                if (count == 0) {
+                    layout.beginTable(ATTENDEE_COLUMNS, ATTENDEE_COLUMN_WEIGHTS);
+                }
+                layout.row(
+                        row.getUserName() != null ? row.getUserName() : "N/A",
+                        row.getEmail() != null ? row.getEmail() : "N/A",
+                        row.getTicketName() != null ? row.getTicketName() : "N/A",
+                        String.valueOf(row.getQuantity()),
+                        row.getTotalAmount() != null ? row.getTotalAmount().toString() : "0.00",
+                        row.getStatus().toString(),
+                        row.getRegisteredAt() != null ? row.getRegisteredAt().format(PDF_DATE_FORMAT) : "N/A"
+                );
+                if (++count % FLUSH_INTERVAL == 0) {
+                    entityManager.clear();
+                }
+            }
+            if (count == 0) {
+                layout.line("No registrations yet.");
+            }
+        }
+    }
+    
+    private String formatTimestamp(LocalDateTime value) {
+        return value != null ? value.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) : "";
+    }
+    
+    private Writer csvWriter(OutputStream out) {
+        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+    
+    // Pushes buffered rows to the client and drops streamed entities from the persistence context
+    private void flushPeriodically(CSVPrinter csvPrinter, int rows) throws IOException {
+        if (rows % FLUSH_INTERVAL == 0) {
+            csvPrinter.flush();
+            entityManager.clear();
         }
-        
-        return baos.toByteArray();
     }
 }
-
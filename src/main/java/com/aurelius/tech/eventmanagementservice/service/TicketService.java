@@ -3,8 +3,10 @@ package com.aurelius.tech.eventmanagementservice.service;
 import com.aurelius.tech.eventmanagementservice.dto.request.CreateTicketRequest;
 import com.aurelius.tech.eventmanagementservice.entity.Ticket;
 import com.aurelius.tech.eventmanagementservice.entity.enums.TicketStatus;
+import com.aurelius.tech.eventmanagementservice.event.EventDataChangedEvent;
 import com.aurelius.tech.eventmanagementservice.exception.ResourceNotFoundException;
 import com.aurelius.tech.eventmanagementservice.repository.TicketRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,9 +17,12 @@ import java.util.UUID;
 public class TicketService {
     
     private final TicketRepository ticketRepository;
+    private final ApplicationEventPublisher eventPublisher;
     
-    public TicketService(TicketRepository ticketRepository) {
+    public TicketService(TicketRepository ticketRepository,
+                         ApplicationEventPublisher eventPublisher) {
         this.ticketRepository = ticketRepository;
+        this.eventPublisher = eventPublisher;
     }
     
     @Transactional
@@ -33,7 +38,9 @@ public class TicketService {
         ticket.setSaleEndDate(request.getSaleEndDate());
         ticket.setStatus(TicketStatus.AVAILABLE);
         
-        return ticketRepository.save(ticket);
+        ticket = ticketRepository.save(ticket);
+        eventPublisher.publishEvent(new EventDataChangedEvent(ticket.getEventId(), null));
+        return ticket;
     }
     
     public Ticket getTicketById(UUID id) {
@@ -55,13 +62,16 @@ public class TicketService {
         ticket.setSaleStartDate(request.getSaleStartDate());
         ticket.setSaleEndDate(request.getSaleEndDate());
         
-        return ticketRepository.save(ticket);
+        ticket = ticketRepository.save(ticket);
+        eventPublisher.publishEvent(new EventDataChangedEvent(ticket.getEventId(), null));
+        return ticket;
     }
     
     @Transactional
     public void deleteTicket(UUID id) {
         Ticket ticket = getTicketById(id);
         ticketRepository.delete(ticket);
+        eventPublisher.publishEvent(new EventDataChangedEvent(ticket.getEventId(), null));
     }
 }
 
@@ -0,0 +1,59 @@
+package com.aurelius.tech.eventmanagementservice.util;
+
+import com.aurelius.tech.eventmanagementservice.exception.BusinessException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position in a change feed ordered by {@code (updatedAt, id)}. Handed to clients as an
+ * opaque URL-safe string; they pass back the last one they saw to continue after it.
+ */
+public class ChangeCursor {
+    
+    // Before any row: the feed starts from the beginning without a cursor
+    public static final ChangeCursor START = new ChangeCursor(LocalDateTime.of(1970, 1, 1, 0, 0), new UUID(0, 0));
+    
+    private static final String SEPARATOR = "|";
+    
+    private final LocalDateTime updatedAt;
+    private final UUID id;
+    
+    public ChangeCursor(LocalDateTime updatedAt, UUID id) {
+        this.updatedAt = updatedAt;
+        this.id = id;
+    }
+    
+    public static ChangeCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return START;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Missing separator");
+            }
+            return new ChangeCursor(LocalDateTime.parse(decoded.substring(0, separator)),
+                    UUID.fromString(decoded.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BusinessException("Invalid cursor");
+        }
+    }
+    
+    public String encode() {
+        String raw = updatedAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public UUID getId() {
+        return id;
+    }
+}
@@ -0,0 +1,85 @@
+package com.aurelius.tech.eventmanagementservice.util;
+
+import com.aurelius.tech.eventmanagementservice.exception.BusinessException;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+
+/**
+ * Parsed {@code fields=} query parameter: the response properties a caller asked for.
+ * An absent or blank parameter selects every property.
+ */
+public class FieldSelection {
+    
+    private final Set<String> fields; // null selects every field
+    
+    private FieldSelection(Set<String> fields) {
+        this.fields = fields;
+    }
+    
+    public static FieldSelection all() {
+        return new FieldSelection(null);
+    }
+    
+    public static FieldSelection parse(String fields, Class<?> responseType) {
+        if (fields == null || fields.isBlank()) {
+            return all();
+        }
+        
+        Set<String> known = propertyNames(responseType);
+        Set<String> selected = new TreeSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!known.contains(name)) {
+                throw new BusinessException("Unknown field '" + name + "'. Available fields: " + String.join(", ", known));
+            }
+            selected.add(name);
+        }
+        return selected.isEmpty() ? all() : new FieldSelection(selected);
+    }
+    
+    public boolean includes(String field) {
+        return fields == null || fields.contains(field);
+    }
+    
+    public boolean includesAny(Collection<String> candidates) {
+        return fields == null || candidates.stream().anyMatch(fields::contains);
+    }
+    
+    /**
+     * Clears every property that was not selected, so it is left out of the serialized response.
+     */
+    public <T> T apply(T response) {
+        if (fields == null) {
+            return response;
+        }
+        BeanWrapper wrapper = new BeanWrapperImpl(response);
+        for (String name : propertyNames(response.getClass())) {
+            if (!fields.contains(name)) {
+                wrapper.setPropertyValue(name, null);
+            }
+        }
+        return response;
+    }
+    
+    @Override
+    public String toString() {
+        return fields == null ? "*" : String.join(",", fields);
+    }
+    
+    private static Set<String> propertyNames(Class<?> type) {
+        Set<String> names = new TreeSet<>();
+        for (Field field : type.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers())) {
+                names.add(field.getName());
+            }
+        }
+        return names;
+    }
+}
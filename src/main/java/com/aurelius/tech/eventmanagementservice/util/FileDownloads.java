@@ -0,0 +1,46 @@
+package com.aurelius.tech.eventmanagementservice.util;
+
+import com.aurelius.tech.eventmanagementservice.dto.response.InvoiceDownload;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Instant;
+
+/**
+ * Responses for downloading stored files. The body is the {@link Resource} itself, so Spring
+ * MVC streams it from disk in small buffers and answers {@code Range} requests with
+ * {@code 206 Partial Content}; {@code If-None-Match} and {@code If-Modified-Since} get
+ * {@code 304 Not Modified} without opening the file. Content-Length is left to the resource
+ * converters, as a multi-range response is a multipart body of a different size.
+ */
+public class FileDownloads {
+    
+    public static ResponseEntity<Resource> invoicePDF(InvoiceDownload download, WebRequest webRequest) {
+        return attachment(download.getResource(), download.getFileName(), MediaType.APPLICATION_PDF,
+                download.getETag(), download.getLastModified(), webRequest);
+    }
+    
+    public static ResponseEntity<Resource> attachment(Resource resource, String fileName, MediaType contentType,
+                                                      String eTag, Instant lastModified, WebRequest webRequest) {
+        if (webRequest.checkNotModified(eTag, lastModified.toEpochMilli())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(eTag)
+                    .lastModified(lastModified)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .lastModified(lastModified)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .contentType(contentType)
+                .body(resource);
+    }
+    
+    private FileDownloads() {
+        // Utility class
+    }
+}
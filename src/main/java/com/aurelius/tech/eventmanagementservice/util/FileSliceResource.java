@@ -0,0 +1,101 @@
+package com.aurelius.tech.eventmanagementservice.util;
+
+import org.springframework.core.io.AbstractResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A byte range of a file exposed as a {@link org.springframework.core.io.Resource}. Reads are
+ * positional reads on the file's channel, so streams never share a file position, and
+ * {@link InputStream#skip} moves within the slice without reading, which lets
+ * {@code Range} requests start at any offset.
+ */
+public class FileSliceResource extends AbstractResource {
+    
+    private final Path file;
+    private final long offset;
+    private final long length;
+    
+    public FileSliceResource(Path file, long offset, long length) {
+        this.file = file;
+        this.offset = offset;
+        this.length = length;
+    }
+    
+    @Override
+    public boolean exists() {
+        return Files.exists(file);
+    }
+    
+    @Override
+    public long contentLength() {
+        return length;
+    }
+    
+    @Override
+    public String getDescription() {
+        return "bytes " + offset + "-" + (offset + length - 1) + " of file [" + file + "]";
+    }
+    
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return new SliceInputStream(FileChannel.open(file, StandardOpenOption.READ));
+    }
+    
+    private class SliceInputStream extends InputStream {
+        
+        private final FileChannel channel;
+        private long position = offset;
+        private final long end = offset + length;
+        
+        private SliceInputStream(FileChannel channel) {
+            this.channel = channel;
+        }
+        
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+        }
+        
+        @Override
+        public int read(byte[] buffer, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (position >= end) {
+                return -1;
+            }
+            int count = channel.read(ByteBuffer.wrap(buffer, off, (int) Math.min(len, end - position)), position);
+            if (count == -1) {
+                // The file is shorter than the slice it was supposed to hold
+                throw new IOException("Unexpected end of " + file + " at byte " + position);
+            }
+            position += count;
+            return count;
+        }
+        
+        @Override
+        public long skip(long n) {
+            long skipped = Math.max(0, Math.min(n, end - position));
+            position += skipped;
+            return skipped;
+        }
+        
+        @Override
+        public int available() {
+            return (int) Math.min(Integer.MAX_VALUE, end - position);
+        }
+        
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
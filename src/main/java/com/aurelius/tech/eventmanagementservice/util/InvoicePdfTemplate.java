@@ -0,0 +1,205 @@
+package com.aurelius.tech.eventmanagementservice.util;
+
+import com.aurelius.tech.eventmanagementservice.entity.Invoice;
+import com.aurelius.tech.eventmanagementservice.repository.projection.InvoiceContextRow;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.PDPageContentStream.AppendMode;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
+import org.apache.pdfbox.util.Matrix;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.format.DateTimeFormatter;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Invoice PDF layout with its static part compiled once. Headings, labels and column headers
+ * are drawn when the template is created, and the resulting content stream is kept
+ * Flate-encoded in memory. Each invoice copies those bytes into its document as a form
+ * XObject, draws it, and stamps only the invoice's own values on top in one text object.
+ * <p>
+ * Thread-safe: fonts are created per document, so one template can serve every invoice.
+ */
+public class InvoicePdfTemplate {
+    
+    private static final PDRectangle PAGE_SIZE = PDRectangle.LETTER;
+    // Fixed names, so the template's content stream can be reused with each document's fonts
+    private static final COSName REGULAR_FONT = COSName.getPDFName("F1");
+    private static final COSName BOLD_FONT = COSName.getPDFName("F2");
+    
+    private static final float MARGIN = 50;
+    private static final float QUANTITY_X = 400;
+    private static final float AMOUNT_X = 480;
+    
+    private static final float TITLE_Y = 750;
+    private static final float INVOICE_NUMBER_Y = 710;
+    private static final float ISSUED_AT_Y = 690;
+    private static final float BILL_TO_Y = 650;
+    private static final float CUSTOMER_NAME_Y = 630;
+    private static final float CUSTOMER_EMAIL_Y = 610;
+    private static final float EVENT_DETAILS_Y = 570;
+    private static final float EVENT_TITLE_Y = 550;
+    private static final float EVENT_DATE_Y = 530;
+    private static final float COLUMN_HEADER_Y = 490;
+    private static final float LINE_ITEM_Y = 470;
+    private static final float TOTAL_Y = 430;
+    private static final float PAYMENT_METHOD_Y = 390;
+    private static final float TRANSACTION_ID_Y = 370;
+    
+    private static final String INVOICE_NUMBER_LABEL = "Invoice Number: ";
+    private static final String DATE_LABEL = "Date: ";
+    private static final String EVENT_LABEL = "Event: ";
+    private static final String TOTAL_LABEL = "Total: ";
+    private static final String PAYMENT_METHOD_LABEL = "Payment Method: ";
+    private static final String TRANSACTION_ID_LABEL = "Transaction ID: ";
+    
+    private static final DateTimeFormatter ISSUED_AT_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter EVENT_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    
+    private final byte[] staticContent;
+    
+    // Where each value starts, right after its label
+    private final float invoiceNumberX;
+    private final float issuedAtX;
+    private final float eventTitleX;
+    private final float eventDateX;
+    private final float totalX;
+    private final float paymentMethodX;
+    private final float transactionIdX;
+    
+    public InvoicePdfTemplate() {
+        PDFont regular = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+        PDFont bold = new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD);
+        try {
+            invoiceNumberX = MARGIN + width(regular, 12, INVOICE_NUMBER_LABEL);
+            issuedAtX = MARGIN + width(regular, 12, DATE_LABEL);
+            eventTitleX = MARGIN + width(regular, 12, EVENT_LABEL);
+            eventDateX = MARGIN + width(regular, 12, DATE_LABEL);
+            totalX = QUANTITY_X + width(bold, 14, TOTAL_LABEL);
+            paymentMethodX = MARGIN + width(regular, 10, PAYMENT_METHOD_LABEL);
+            transactionIdX = MARGIN + width(regular, 10, TRANSACTION_ID_LABEL);
+            staticContent = compileStaticContent(regular, bold);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not build invoice template", e);
+        }
+    }
+    
+    /**
+     * Renders the invoice as a one-page PDF to {@code out}, which is left open.
+     */
+    public void write(Invoice invoice, InvoiceContextRow context, OutputStream out) throws IOException {
+        try (PDDocument document = new PDDocument()) {
+            PDFont regular = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+            PDFont bold = new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD);
+            
+            PDFormXObject form = new PDFormXObject(document);
+            COSStream stream = form.getCOSObject();
+            try (OutputStream raw = stream.createRawOutputStream()) {
+                raw.write(staticContent);
+            }
+            stream.setItem(COSName.FILTER, COSName.FLATE_DECODE);
+            form.setBBox(PAGE_SIZE);
+            form.setResources(fontResources(regular, bold));
+            
+            PDPage page = new PDPage(PAGE_SIZE);
+            page.setResources(fontResources(regular, bold));
+            document.addPage(page);
+            
+            String amount = "$" + context.getAmount().toString();
+            String description = context.getTicketName() != null ? context.getTicketName() : "Event Registration";
+            try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                content.drawForm(form);
+                content.beginText();
+                content.setFont(regular, 12);
+                show(content, regular, invoiceNumberX, INVOICE_NUMBER_Y, invoice.getInvoiceNumber());
+                show(content, regular, issuedAtX, ISSUED_AT_Y, invoice.getIssuedAt().format(ISSUED_AT_FORMAT));
+                show(content, regular, MARGIN, CUSTOMER_NAME_Y, context.getFirstName() + " " + context.getLastName());
+                show(content, regular, MARGIN, CUSTOMER_EMAIL_Y, context.getEmail());
+                show(content, regular, eventTitleX, EVENT_TITLE_Y, context.getEventTitle());
+                show(content, regular, eventDateX, EVENT_DATE_Y,
+                        context.getEventStartDateTime() != null ? context.getEventStartDateTime().format(EVENT_DATE_FORMAT) : null);
+                show(content, regular, MARGIN, LINE_ITEM_Y, description);
+                show(content, regular, QUANTITY_X, LINE_ITEM_Y, String.valueOf(context.getQuantity()));
+                show(content, regular, AMOUNT_X, LINE_ITEM_Y, amount);
+                content.setFont(regular, 10);
+                show(content, regular, paymentMethodX, PAYMENT_METHOD_Y,
+                        context.getPaymentMethod() != null ? context.getPaymentMethod() : "N/A");
+                show(content, regular, transactionIdX, TRANSACTION_ID_Y,
+                        context.getTransactionId() != null ? context.getTransactionId() : "N/A");
+                content.setFont(bold, 14);
+                show(content, bold, totalX, TOTAL_Y, amount);
+                content.endText();
+            }
+            
+            document.save(out);
+        }
+    }
+    
+    private byte[] compileStaticContent(PDFont regular, PDFont bold) throws IOException {
+        try (PDDocument scratch = new PDDocument()) {
+            // Drawn on a scratch page; the operators are the same in a form's content stream
+            PDPage page = new PDPage(PAGE_SIZE);
+            page.setResources(fontResources(regular, bold));
+            scratch.addPage(page);
+            try (PDPageContentStream content = new PDPageContentStream(scratch, page, AppendMode.OVERWRITE, false)) {
+                content.beginText();
+                content.setFont(bold, 24);
+                show(content, bold, MARGIN, TITLE_Y, "INVOICE");
+                content.setFont(regular, 12);
+                show(content, regular, MARGIN, INVOICE_NUMBER_Y, INVOICE_NUMBER_LABEL);
+                show(content, regular, MARGIN, ISSUED_AT_Y, DATE_LABEL);
+                show(content, regular, MARGIN, EVENT_TITLE_Y, EVENT_LABEL);
+                show(content, regular, MARGIN, EVENT_DATE_Y, DATE_LABEL);
+                content.setFont(bold, 14);
+                show(content, bold, MARGIN, BILL_TO_Y, "Bill To:");
+                show(content, bold, MARGIN, EVENT_DETAILS_Y, "Event Details:");
+                show(content, bold, QUANTITY_X, TOTAL_Y, TOTAL_LABEL);
+                content.setFont(bold, 12);
+                show(content, bold, MARGIN, COLUMN_HEADER_Y, "Description");
+                show(content, bold, QUANTITY_X, COLUMN_HEADER_Y, "Quantity");
+                show(content, bold, AMOUNT_X, COLUMN_HEADER_Y, "Amount");
+                content.setFont(regular, 10);
+                show(content, regular, MARGIN, PAYMENT_METHOD_Y, PAYMENT_METHOD_LABEL);
+                show(content, regular, MARGIN, TRANSACTION_ID_Y, TRANSACTION_ID_LABEL);
+                content.endText();
+            }
+            ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+            try (InputStream decoded = page.getContents();
+                 OutputStream deflater = new DeflaterOutputStream(encoded)) {
+                decoded.transferTo(deflater);
+            }
+            return encoded.toByteArray();
+        }
+    }
+    
+    private static PDResources fontResources(PDFont regular, PDFont bold) {
+        PDResources resources = new PDResources();
+        resources.put(REGULAR_FONT, regular);
+        resources.put(BOLD_FONT, bold);
+        return resources;
+    }
+    
+    // Positions and shows text inside an open text object, with the font already set
+    private static void show(PDPageContentStream content, PDFont font, float x, float y, String text) throws IOException {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        content.setTextMatrix(Matrix.getTranslateInstance(x, y));
+        content.showText(PdfReportLayout.printable(font, text));
+    }
+    
+    private static float width(PDFont font, float size, String text) throws IOException {
+        return font.getStringWidth(text) / 1000 * size;
+    }
+}
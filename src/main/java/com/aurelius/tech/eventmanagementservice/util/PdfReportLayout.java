@@ -0,0 +1,229 @@
+package com.aurelius.tech.eventmanagementservice.util;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Flows report text and table rows top to bottom onto as many pages as they need. A table's
+ * header is repeated at the top of every page it continues onto, and each page gets a page
+ * number. Every page shares the same two fonts through one resources dictionary, so the
+ * font objects are written once per document however many pages there are.
+ * <p>
+ * Each page's content stream is closed as soon as the page is full, so with a
+ * {@link PDDocument} backed by a temp-file stream cache memory use stays flat in the
+ * number of pages. Not thread-safe; use one layout per document.
+ */
+public class PdfReportLayout implements Closeable {
+    
+    private static final PDRectangle PAGE_SIZE = PDRectangle.LETTER;
+    private static final float MARGIN = 50;
+    private static final float FOOTER_HEIGHT = 20;
+    private static final float LINE_SPACING = 1.5f;
+    private static final float CELL_PADDING = 4;
+    private static final float TITLE_SIZE = 20;
+    private static final float HEADING_SIZE = 14;
+    private static final float TEXT_SIZE = 12;
+    private static final float NOTE_SIZE = 10;
+    private static final float TABLE_SIZE = 9;
+    private static final String ELLIPSIS = "...";
+    
+    private final PDDocument document;
+    private final PDResources resources = new PDResources();
+    private final PDFont regular = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+    private final PDFont bold = new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD);
+    
+    private PDPageContentStream content;
+    private float y;
+    private int pages;
+    
+    private String[] tableHeaders; // non-null while a table is open
+    private float[] columnWidths;
+    
+    public PdfReportLayout(PDDocument document) {
+        this.document = document;
+    }
+    
+    public void title(String text) throws IOException {
+        text(bold, TITLE_SIZE, text);
+    }
+    
+    public void heading(String text) throws IOException {
+        text(bold, HEADING_SIZE, text);
+    }
+    
+    public void line(String text) throws IOException {
+        text(regular, TEXT_SIZE, text);
+    }
+    
+    public void note(String text) throws IOException {
+        text(regular, NOTE_SIZE, text);
+    }
+    
+    public void space(float height) throws IOException {
+        ensureSpace(0);
+        y -= height;
+    }
+    
+    /**
+     * Starts a table spanning the page width. {@code weights} are the relative column widths.
+     * The table stays open, with its header repeated on new pages, until the next call to a
+     * text method or {@link #close()}.
+     */
+    public void beginTable(String[] headers, float[] weights) throws IOException {
+        if (headers.length != weights.length) {
+            throw new IllegalArgumentException("Expected " + headers.length + " column weights, got " + weights.length);
+        }
+        float total = 0;
+        for (float weight : weights) {
+            total += weight;
+        }
+        float tableWidth = PAGE_SIZE.getWidth() - 2 * MARGIN;
+        columnWidths = new float[weights.length];
+        for (int i = 0; i < weights.length; i++) {
+            columnWidths[i] = tableWidth * weights[i] / total;
+        }
+        tableHeaders = headers;
+        
+        // Keep the header on the same page as at least one row
+        if (!ensureSpace(2 * lineHeight(TABLE_SIZE))) {
+            tableHeader();
+        }
+    }
+    
+    public void row(String... cells) throws IOException {
+        if (tableHeaders == null) {
+            throw new IllegalStateException("No table open");
+        }
+        ensureSpace(lineHeight(TABLE_SIZE));
+        cells(regular, cells);
+    }
+    
+    /**
+     * Finishes the last page. The document can be saved afterwards.
+     */
+    @Override
+    public void close() throws IOException {
+        tableHeaders = null;
+        finishPage();
+    }
+    
+    private void text(PDFont font, float size, String text) throws IOException {
+        tableHeaders = null;
+        ensureSpace(lineHeight(size));
+        y -= lineHeight(size);
+        show(font, size, MARGIN, y, fit(font, size, text, PAGE_SIZE.getWidth() - 2 * MARGIN));
+    }
+    
+    private void tableHeader() throws IOException {
+        cells(bold, tableHeaders);
+        content.moveTo(MARGIN, y - CELL_PADDING / 2);
+        content.lineTo(PAGE_SIZE.getWidth() - MARGIN, y - CELL_PADDING / 2);
+        content.stroke();
+    }
+    
+    private void cells(PDFont font, String[] cells) throws IOException {
+        y -= lineHeight(TABLE_SIZE);
+        float x = MARGIN;
+        for (int i = 0; i < columnWidths.length; i++) {
+            String cell = i < cells.length && cells[i] != null ? cells[i] : "";
+            show(font, TABLE_SIZE, x, y, fit(font, TABLE_SIZE, cell, columnWidths[i] - CELL_PADDING));
+            x += columnWidths[i];
+        }
+    }
+    
+    /**
+     * Starts a new page when fewer than {@code height} points are left on the current one.
+     * Returns whether it did; a table header is then already drawn on the new page.
+     */
+    private boolean ensureSpace(float height) throws IOException {
+        if (content != null && y - height >= MARGIN + FOOTER_HEIGHT) {
+            return false;
+        }
+        finishPage();
+        
+        PDPage page = new PDPage(PAGE_SIZE);
+        page.setResources(resources);
+        document.addPage(page);
+        content = new PDPageContentStream(document, page);
+        y = PAGE_SIZE.getHeight() - MARGIN;
+        pages++;
+        
+        if (tableHeaders != null) {
+            tableHeader();
+        }
+        return true;
+    }
+    
+    private void finishPage() throws IOException {
+        if (content == null) {
+            return;
+        }
+        String pageNumber = "Page " + pages;
+        float width = regular.getStringWidth(pageNumber) / 1000 * TABLE_SIZE;
+        show(regular, TABLE_SIZE, PAGE_SIZE.getWidth() - MARGIN - width, MARGIN, pageNumber);
+        content.close();
+        content = null;
+    }
+    
+    private void show(PDFont font, float size, float x, float y, String text) throws IOException {
+        if (text.isEmpty()) {
+            return;
+        }
+        content.beginText();
+        content.setFont(font, size);
+        content.newLineAtOffset(x, y);
+        content.showText(text);
+        content.endText();
+    }
+    
+    // Shortens text to the given width, ending it with an ellipsis when it was cut
+    private static String fit(PDFont font, float size, String text, float width) throws IOException {
+        String printable = printable(font, text);
+        if (textWidth(font, size, printable) <= width) {
+            return printable;
+        }
+        float ellipsisWidth = textWidth(font, size, ELLIPSIS);
+        int end = printable.length();
+        while (end > 0 && textWidth(font, size, printable.substring(0, end)) + ellipsisWidth > width) {
+            end--;
+        }
+        return printable.substring(0, end) + ELLIPSIS;
+    }
+    
+    // The standard fonts only cover WinAnsi; anything else would fail showText, so becomes '?'
+    static String printable(PDFont font, String text) throws IOException {
+        try {
+            font.encode(text);
+            return text;
+        } catch (IllegalArgumentException e) {
+            StringBuilder printable = new StringBuilder(text.length());
+            text.codePoints().forEach(codePoint -> {
+                String character = Character.toString(codePoint);
+                try {
+                    font.encode(character);
+                    printable.append(character);
+                } catch (IllegalArgumentException | IOException unsupported) {
+                    printable.append('?');
+                }
+            });
+            return printable.toString();
+        }
+    }
+    
+    private static float textWidth(PDFont font, float size, String text) throws IOException {
+        return font.getStringWidth(text) / 1000 * size;
+    }
+    
+    private static float lineHeight(float size) {
+        return size * LINE_SPACING;
+    }
+}
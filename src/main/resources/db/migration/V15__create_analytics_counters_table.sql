@@ -0,0 +1,14 @@
+CREATE TABLE analytics_counters (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    scope VARCHAR(20) NOT NULL,
+    scope_id UUID NOT NULL,
+    total_registrations BIGINT NOT NULL DEFAULT 0,
+    pending_registrations BIGINT NOT NULL DEFAULT 0,
+    confirmed_registrations BIGINT NOT NULL DEFAULT 0,
+    cancelled_registrations BIGINT NOT NULL DEFAULT 0,
+    tickets_sold BIGINT NOT NULL DEFAULT 0,
+    revenue DECIMAL(14, 2) NOT NULL DEFAULT 0,
+    refunds DECIMAL(14, 2) NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP,
+    CONSTRAINT uk_analytics_counters_scope UNIQUE (scope, scope_id)
+);
@@ -0,0 +1,12 @@
+CREATE TABLE analytics_rollups (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    scope VARCHAR(20) NOT NULL,
+    scope_id UUID NOT NULL,
+    granularity VARCHAR(10) NOT NULL,
+    bucket_start TIMESTAMP NOT NULL,
+    registrations BIGINT NOT NULL DEFAULT 0,
+    tickets_sold BIGINT NOT NULL DEFAULT 0,
+    revenue DECIMAL(14, 2) NOT NULL DEFAULT 0,
+    refunds DECIMAL(14, 2) NOT NULL DEFAULT 0,
+    CONSTRAINT uk_analytics_rollups_bucket UNIQUE (scope, scope_id, granularity, bucket_start)
+);
@@ -0,0 +1 @@
+CREATE INDEX idx_payments_paid_at ON payments(paid_at);
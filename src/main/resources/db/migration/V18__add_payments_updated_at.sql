@@ -0,0 +1,9 @@
+ALTER TABLE payments ADD COLUMN updated_at TIMESTAMP;
+
+UPDATE payments SET updated_at = COALESCE(paid_at, created_at);
+
+ALTER TABLE payments ALTER COLUMN updated_at SET NOT NULL;
+ALTER TABLE payments ALTER COLUMN updated_at SET DEFAULT CURRENT_TIMESTAMP;
+
+-- Keyset order of the payment change feed
+CREATE INDEX idx_payments_updated_at_id ON payments(updated_at, id);
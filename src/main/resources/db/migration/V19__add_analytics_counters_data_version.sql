@@ -0,0 +1,2 @@
+-- Bumped in the same transaction as every change counted for the scope; versions cached reports
+ALTER TABLE analytics_counters ADD COLUMN data_version BIGINT NOT NULL DEFAULT 0;
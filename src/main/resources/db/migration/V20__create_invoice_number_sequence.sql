@@ -0,0 +1,2 @@
+-- Invoice numbers are reserved in blocks: each nextval hands a node the next 100 numbers
+CREATE SEQUENCE invoice_number_seq START WITH 1 INCREMENT BY 100;
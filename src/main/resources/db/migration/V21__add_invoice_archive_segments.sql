@@ -0,0 +1,14 @@
+-- Invoice PDFs are appended to shared segment files; each invoice records where its PDF lies
+ALTER TABLE invoices
+    ADD COLUMN segment_id BIGINT,
+    ADD COLUMN segment_offset BIGINT,
+    ADD COLUMN segment_length INTEGER;
+
+-- Each node writing invoices takes a new segment id when it opens a segment file
+CREATE SEQUENCE invoice_segment_seq;
+
+-- Compaction sums live bytes per segment and rewrites the invoices of sparse ones
+CREATE INDEX idx_invoices_segment ON invoices(segment_id, segment_offset) WHERE segment_id IS NOT NULL;
+
+-- Invoices still stored as individual files, for the migration into segments
+CREATE INDEX idx_invoices_unarchived ON invoices(id) WHERE segment_id IS NULL AND file_path IS NOT NULL;
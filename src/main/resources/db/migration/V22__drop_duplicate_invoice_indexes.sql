@@ -0,0 +1,3 @@
+-- Duplicates of the indexes behind the UNIQUE constraints on the same columns
+DROP INDEX IF EXISTS idx_invoices_payment;
+DROP INDEX IF EXISTS idx_invoices_number;
@@ -0,0 +1,2 @@
+-- Set when invoicing a payment ran out of attempts; the invoice sweep leaves these payments alone
+ALTER TABLE payments ADD COLUMN invoice_failed_at TIMESTAMP;
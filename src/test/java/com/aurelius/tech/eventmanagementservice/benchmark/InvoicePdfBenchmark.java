@@ -0,0 +1,254 @@
+package com.aurelius.tech.eventmanagementservice.benchmark;
+
+import com.aurelius.tech.eventmanagementservice.entity.*;
+import com.aurelius.tech.eventmanagementservice.entity.enums.PaymentStatus;
+import com.aurelius.tech.eventmanagementservice.repository.projection.InvoiceContextRow;
+import com.aurelius.tech.eventmanagementservice.util.InvoicePdfTemplate;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Invoices per second rendered by {@link InvoicePdfTemplate} against the previous renderer,
+ * which drew every label and heading with its own text object and new fonts per invoice.
+ * Run from the IDE, or write the test classpath with
+ * {@code mvn test-compile dependency:build-classpath -Dmdep.includeScope=test -Dmdep.outputFile=target/test-classpath.txt}
+ * and start this class with
+ * {@code java -cp "target/test-classes:target/classes:$(cat target/test-classpath.txt)" <this class>}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InvoicePdfBenchmark {
+    
+    private final InvoicePdfTemplate template = new InvoicePdfTemplate();
+    
+    private Invoice invoice;
+    private Payment payment;
+    private Registration registration;
+    private Event event;
+    private User user;
+    private Ticket ticket;
+    private InvoiceContextRow context;
+    
+    @Setup
+    public void setUp() {
+        invoice = new Invoice();
+        invoice.setInvoiceNumber("INV-20260101-0000000042");
+        invoice.setAmount(new BigDecimal("149.00"));
+        invoice.setCurrency("USD");
+        invoice.setIssuedAt(LocalDateTime.of(2026, 1, 1, 12, 0));
+        
+        payment = new Payment();
+        payment.setAmount(new BigDecimal("149.00"));
+        payment.setPaymentMethod("CARD");
+        payment.setTransactionId("txn_" + UUID.randomUUID());
+        
+        registration = new Registration();
+        registration.setQuantity(2);
+        
+        event = new Event();
+        event.setTitle("Annual Developer Conference");
+        event.setStartDateTime(LocalDateTime.of(2026, 3, 14, 9, 30));
+        
+        user = new User();
+        user.setFirstName("Alex");
+        user.setLastName("Morgan");
+        user.setEmail("alex.morgan@example.com");
+        
+        ticket = new Ticket();
+        ticket.setName("General Admission");
+        
+        context = new InvoiceContextRow() {
+            public UUID getPaymentId() { return payment.getId(); }
+            public BigDecimal getAmount() { return payment.getAmount(); }
+            public String getCurrency() { return payment.getCurrency(); }
+            public String getPaymentMethod() { return payment.getPaymentMethod(); }
+            public String getTransactionId() { return payment.getTransactionId(); }
+            public PaymentStatus getStatus() { return payment.getStatus(); }
+            public Integer getQuantity() { return registration.getQuantity(); }
+            public String getFirstName() { return user.getFirstName(); }
+            public String getLastName() { return user.getLastName(); }
+            public String getEmail() { return user.getEmail(); }
+            public String getEventTitle() { return event.getTitle(); }
+            public LocalDateTime getEventStartDateTime() { return event.getStartDateTime(); }
+            public String getTicketName() { return ticket.getName(); }
+        };
+    }
+    
+    @Benchmark
+    public byte[] previousRenderer() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+        try (PDDocument document = new PDDocument()) {
+            PDPage page = new PDPage();
+            document.addPage(page);
+            
+            try (PDPageContentStream contentStream = new PDPageContentStream(document, page)) {
+                float yPosition = 750;
+                float margin = 50;
+                float lineHeight = 20;
+                
+                // Header
+                contentStream.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD), 24);
+                contentStream.beginText();
+                contentStream.newLineAtOffset(margin, yPosition);
+                contentStream.showText("INVOICE");
+                contentStream.endText();
+                
+                yPosition -= 40;
+                
+                // Invoice details
+                contentStream.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 12);
+                contentStream.beginText();
+                contentStream.newLineAtOffset(margin, yPosition);
+                contentStream.showText("Invoice Number: " + invoice.getInvoiceNumber());
+                contentStream.endText();
+                
+                yPosition -= lineHeight;
+                contentStream.beginText();
+                contentStream.newLineAtOffset(margin, yPosition);
+                contentStream.showText("Date: " + invoice.getIssuedAt().format(DateTimeFormatter.ofPattern("yyyy-MM-dd")));
+                contentStream.endText();
+                
+                yPosition -= 40;
+                
+                // Customer information
+                contentStream.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD), 14);
+                contentStream.beginText();
+                contentStream.newLineAtOffset(margin, yPosition);
+                contentStream.showText("Bill To:");
+                contentStream.endText();
+                
+                yPosition -= lineHeight;
+                contentStream.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 12);
+                contentStream.beginText();
+                contentStream.newLineAtOffset(margin, yPosition);
+                contentStream.showText(user.getFirstName() + " " + user.getLastName());
+                contentStream.endText();
+                
+                yPosition -= lineHeight;
+                contentStream.beginText();
+                contentStream.newLineAtOffset(margin, yPosition);
+                contentStream.showText(user.getEmail());
+                contentStream.endText();
+                
+                yPosition -= 40;
+                
+                // Event information
+                contentStream.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD), 14);
+                contentStream.beginText();
+                contentStream.newLineAtOffset(margin, yPosition);
+                contentStream.showText("Event Details:");
+                contentStream.endText();
+                
+                yPosition -= lineHeight;
+                contentStream.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 12);
+                contentStream.beginText();
+                contentStream.newLineAtOffset(margin, yPosition);
+                contentStream.showText("Event: " + event.getTitle());
+                contentStream.endText();
+                
+                yPosition -= lineHeight;
+                contentStream.beginText();
+                contentStream.newLineAtOffset(margin, yPosition);
+                contentStream.showText("Date: " + event.getStartDateTime().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")));
+                contentStream.endText();
+                
+                yPosition -= 40;
+                
+                // Line items
+                contentStream.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD), 12);
+                contentStream.beginText();
+                contentStream.newLineAtOffset(margin, yPosition);
+                contentStream.showText("Description");
+                contentStream.endText();
+                
+                contentStream.beginText();
+                contentStream.newLineAtOffset(400, yPosition);
+                contentStream.showText("Quantity");
+                contentStream.endText();
+                
+                contentStream.beginText();
+                contentStream.newLineAtOffset(480, yPosition);
+                contentStream.showText("Amount");
+                contentStream.endText();
+                
+                yPosition -= lineHeight;
+                contentStream.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 12);
+                
+                String description = ticket != null ? ticket.getName() : "Event Registration";
+                contentStream.beginText();
+                contentStream.newLineAtOffset(margin, yPosition);
+                contentStream.showText(description);
+                contentStream.endText();
+                
+                contentStream.beginText();
+                contentStream.newLineAtOffset(400, yPosition);
+                contentStream.showText(String.valueOf(registration.getQuantity()));
+                contentStream.endText();
+                
+                contentStream.beginText();
+                contentStream.newLineAtOffset(480, yPosition);
+                contentStream.showText("$" + payment.getAmount().toString());
+                contentStream.endText();
+                
+                yPosition -= 40;
+                
+                // Total
+                contentStream.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD), 14);
+                contentStream.beginText();
+                contentStream.newLineAtOffset(400, yPosition);
+                contentStream.showText("Total: $" + payment.getAmount().toString());
+                contentStream.endText();
+                
+                yPosition -= 40;
+                
+                // Payment information
+                contentStream.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 10);
+                contentStream.beginText();
+                contentStream.newLineAtOffset(margin, yPosition);
+                contentStream.showText("Payment Method: " + (payment.getPaymentMethod() != null ? payment.getPaymentMethod() : "N/A"));
+                contentStream.endText();
+                
+                yPosition -= lineHeight;
+                contentStream.beginText();
+                contentStream.newLineAtOffset(margin, yPosition);
+                contentStream.showText("Transaction ID: " + (payment.getTransactionId() != null ? payment.getTransactionId() : "N/A"));
+                contentStream.endText();
+            }
+            
+            document.save(out);
+        }
+        return out.toByteArray();
+    }
+    
+    @Benchmark
+    public byte[] template() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+        template.write(invoice, context, out);
+        return out.toByteArray();
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(InvoicePdfBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
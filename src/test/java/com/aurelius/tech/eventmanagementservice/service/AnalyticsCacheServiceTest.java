@@ -0,0 +1,149 @@
+package com.aurelius.tech.eventmanagementservice.service;
+
+import com.aurelius.tech.eventmanagementservice.config.AnalyticsCacheProperties;
+import com.aurelius.tech.eventmanagementservice.entity.enums.CounterScope;
+import com.aurelius.tech.eventmanagementservice.entity.enums.RegistrationStatus;
+import com.aurelius.tech.eventmanagementservice.event.EventDataChangedEvent;
+import com.aurelius.tech.eventmanagementservice.event.RegistrationCreatedEvent;
+import com.aurelius.tech.eventmanagementservice.repository.EventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.aurelius.tech.eventmanagementservice.service.AnalyticsCounterService.PLATFORM_SCOPE_ID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class AnalyticsCacheServiceTest {
+
+    private static final UUID EVENT_ID = UUID.randomUUID();
+    private static final UUID ORGANIZER_ID = UUID.randomUUID();
+
+    @SuppressWarnings("unchecked")
+    private final RedisTemplate<String, Object> redisTemplate = mock(RedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, Object> valueOperations = mock(ValueOperations.class);
+    private final EventRepository eventRepository = mock(EventRepository.class);
+    private final AnalyticsCacheProperties properties = new AnalyticsCacheProperties();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private AnalyticsCacheService cacheService;
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(eventRepository.findOrganizerIdById(EVENT_ID)).thenReturn(Optional.of(ORGANIZER_ID));
+        cacheService = new AnalyticsCacheService(redisTemplate, eventRepository, properties, JsonMapper.builder().build());
+    }
+
+    @Test
+    void localHitSkipsLoaderAndRedis() {
+        assertThat(get("summary")).isEqualTo("load-1");
+        assertThat(get("summary")).isEqualTo("load-1");
+
+        assertThat(loads).hasValue(1);
+        verify(valueOperations).multiGet(anyList());
+    }
+
+    @Test
+    void redisKeyEmbedsGlobalAndScopeGenerations() {
+        String scopeKey = "analytics:event:" + EVENT_ID;
+        when(valueOperations.multiGet(List.of("analytics:gen", scopeKey + ":gen"))).thenReturn(Arrays.asList(3L, null));
+        when(valueOperations.get(scopeKey + ":3.0:summary")).thenReturn("\"from-redis\"");
+
+        assertThat(get("summary")).isEqualTo("from-redis");
+        assertThat(loads).hasValue(0);
+
+        assertThat(get("timeline")).isEqualTo("load-1");
+        verify(valueOperations).set(scopeKey + ":3.0:timeline", "\"load-1\"", properties.getEventTtl());
+    }
+
+    @Test
+    void invalidateDropsLocalEntriesAndBumpsScopeGeneration() {
+        String scopeKey = "analytics:event:" + EVENT_ID;
+        get("summary");
+
+        cacheService.invalidate(CounterScope.EVENT, EVENT_ID);
+
+        assertThat(get("summary")).isEqualTo("load-2");
+        verify(valueOperations).increment(scopeKey + ":gen");
+        verify(redisTemplate).expire(scopeKey + ":gen", Duration.ofDays(1));
+    }
+
+    @Test
+    void invalidateAllBumpsGlobalGeneration() {
+        get("summary");
+
+        cacheService.invalidateAll();
+
+        assertThat(get("summary")).isEqualTo("load-2");
+        verify(valueOperations).increment("analytics:gen");
+    }
+
+    @Test
+    void domainEventsInvalidateEventOrganizerAndPlatform() {
+        cacheService.onRegistrationCreated(new RegistrationCreatedEvent(UUID.randomUUID(), EVENT_ID,
+                RegistrationStatus.CONFIRMED, 1, LocalDateTime.now()));
+
+        verify(valueOperations).increment("analytics:event:" + EVENT_ID + ":gen");
+        verify(valueOperations).increment("analytics:organizer:" + ORGANIZER_ID + ":gen");
+        verify(valueOperations).increment("analytics:platform:" + PLATFORM_SCOPE_ID + ":gen");
+    }
+
+    @Test
+    void eventDataChangeUsesTheOrganizerItCarries() {
+        UUID newOrganizerId = UUID.randomUUID();
+
+        cacheService.onEventDataChanged(new EventDataChangedEvent(EVENT_ID, newOrganizerId));
+
+        verify(valueOperations).increment("analytics:organizer:" + newOrganizerId + ":gen");
+        verify(eventRepository, never()).findOrganizerIdById(any());
+    }
+
+    @Test
+    void redisFailureFallsThroughToLoaderAndBypassesRedis() {
+        when(valueOperations.multiGet(anyList())).thenThrow(new RedisConnectionFailureException("down"));
+
+        assertThat(get("summary")).isEqualTo("load-1");
+        cacheService.invalidate(CounterScope.EVENT, EVENT_ID);
+        assertThat(get("summary")).isEqualTo("load-2");
+
+        verify(valueOperations).multiGet(anyList());
+        verify(valueOperations, never()).set(anyString(), any(), any(Duration.class));
+        verify(valueOperations, never()).increment(anyString());
+    }
+
+    @Test
+    void disabledCacheAlwaysLoads() {
+        properties.setEnabled(false);
+
+        get("summary");
+        get("summary");
+
+        assertThat(loads).hasValue(2);
+        verifyNoInteractions(redisTemplate);
+    }
+
+    private String get(String variant) {
+        return cacheService.get(CounterScope.EVENT, EVENT_ID, variant, String.class,
+                () -> "load-" + loads.incrementAndGet());
+    }
+}
@@ -0,0 +1,178 @@
+package com.aurelius.tech.eventmanagementservice.service;
+
+import com.aurelius.tech.eventmanagementservice.entity.enums.CounterScope;
+import com.aurelius.tech.eventmanagementservice.entity.enums.RegistrationStatus;
+import com.aurelius.tech.eventmanagementservice.event.EventDataChangedEvent;
+import com.aurelius.tech.eventmanagementservice.event.PaymentCompletedEvent;
+import com.aurelius.tech.eventmanagementservice.event.PaymentRefundedEvent;
+import com.aurelius.tech.eventmanagementservice.event.RegistrationCreatedEvent;
+import com.aurelius.tech.eventmanagementservice.event.RegistrationStatusChangedEvent;
+import com.aurelius.tech.eventmanagementservice.repository.AnalyticsCounterRepository;
+import com.aurelius.tech.eventmanagementservice.repository.EventRepository;
+import com.aurelius.tech.eventmanagementservice.repository.RegistrationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static com.aurelius.tech.eventmanagementservice.service.AnalyticsCounterService.PLATFORM_SCOPE_ID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class AnalyticsCounterServiceTest {
+
+    private static final UUID EVENT_ID = UUID.randomUUID();
+    private static final UUID ORGANIZER_ID = UUID.randomUUID();
+    private static final LocalDateTime OCCURRED_AT = LocalDateTime.of(2026, 4, 2, 9, 30);
+
+    private final AnalyticsCounterRepository counterRepository = mock(AnalyticsCounterRepository.class);
+    private final EventRepository eventRepository = mock(EventRepository.class);
+    private final RegistrationRepository registrationRepository = mock(RegistrationRepository.class);
+    private final AnalyticsRollupService rollupService = mock(AnalyticsRollupService.class);
+    private final AnalyticsCounterService counterService = new AnalyticsCounterService(counterRepository,
+            eventRepository, registrationRepository, rollupService);
+
+    @BeforeEach
+    void setUp() {
+        when(eventRepository.findOrganizerIdById(EVENT_ID)).thenReturn(Optional.of(ORGANIZER_ID));
+    }
+
+    @Test
+    void registrationIncrementsEventOrganizerAndPlatform() {
+        counterService.onRegistrationCreated(new RegistrationCreatedEvent(UUID.randomUUID(), EVENT_ID,
+                RegistrationStatus.CONFIRMED, 3, OCCURRED_AT));
+
+        for (Scope scope : Scope.all()) {
+            verify(counterRepository).increment(scope.name, scope.id, 1, 0, 1, 0, 3, BigDecimal.ZERO, BigDecimal.ZERO);
+            verify(rollupService).record(scope.scope, scope.id, OCCURRED_AT, 1, 3, BigDecimal.ZERO, BigDecimal.ZERO);
+        }
+    }
+
+    @Test
+    void statusChangeMovesCountsBetweenStatusesWithoutTouchingRollups() {
+        counterService.onRegistrationStatusChanged(new RegistrationStatusChangedEvent(UUID.randomUUID(), EVENT_ID,
+                RegistrationStatus.PENDING, RegistrationStatus.CANCELLED));
+
+        for (Scope scope : Scope.all()) {
+            verify(counterRepository).increment(scope.name, scope.id, 0, -1, 0, 1, 0, BigDecimal.ZERO, BigDecimal.ZERO);
+        }
+        verifyNoInteractions(rollupService);
+    }
+
+    @Test
+    void paymentAddsRevenueAndRefundReversesItInThePaymentsBucket() {
+        BigDecimal amount = new BigDecimal("49.90");
+
+        counterService.onPaymentCompleted(new PaymentCompletedEvent(UUID.randomUUID(), UUID.randomUUID(), EVENT_ID,
+                amount, OCCURRED_AT));
+        counterService.onPaymentRefunded(new PaymentRefundedEvent(UUID.randomUUID(), UUID.randomUUID(), EVENT_ID,
+                amount, OCCURRED_AT));
+
+        for (Scope scope : Scope.all()) {
+            verify(counterRepository).increment(scope.name, scope.id, 0, 0, 0, 0, 0, amount, BigDecimal.ZERO);
+            verify(counterRepository).increment(scope.name, scope.id, 0, 0, 0, 0, 0, amount.negate(), amount);
+            verify(rollupService).record(scope.scope, scope.id, OCCURRED_AT, 0, 0, amount.negate(), amount);
+        }
+    }
+
+    @Test
+    void eventWithoutOrganizerOnlyCountsForItselfAndThePlatform() {
+        UUID orphanEventId = UUID.randomUUID();
+        when(eventRepository.findOrganizerIdById(orphanEventId)).thenReturn(Optional.empty());
+
+        counterService.onPaymentCompleted(new PaymentCompletedEvent(UUID.randomUUID(), UUID.randomUUID(), orphanEventId,
+                BigDecimal.TEN, OCCURRED_AT));
+
+        verify(counterRepository).increment(eq("EVENT"), eq(orphanEventId), anyLong(), anyLong(), anyLong(), anyLong(),
+                anyLong(), any(), any());
+        verify(counterRepository).increment(eq("PLATFORM"), eq(PLATFORM_SCOPE_ID), anyLong(), anyLong(), anyLong(),
+                anyLong(), anyLong(), any(), any());
+        verify(counterRepository, never()).increment(eq("ORGANIZER"), any(), anyLong(), anyLong(), anyLong(), anyLong(),
+                anyLong(), any(), any());
+    }
+
+    @Test
+    void eventDataChangeOnlyMovesTheDataVersion() {
+        counterService.onEventDataChanged(new EventDataChangedEvent(EVENT_ID, ORGANIZER_ID));
+
+        verify(counterRepository).touchEvent(EVENT_ID);
+        verify(counterRepository, never()).increment(anyString(), any(), anyLong(), anyLong(), anyLong(), anyLong(),
+                anyLong(), any(), any());
+    }
+
+    @Test
+    void rebuildLocksBeforeReplacingCountersAndRollups() {
+        when(counterRepository.rebuildEventCounters()).thenReturn(4);
+        when(counterRepository.rebuildOrganizerCounters()).thenReturn(2);
+        when(counterRepository.rebuildPlatformCounter(PLATFORM_SCOPE_ID)).thenReturn(1);
+        when(rollupService.rebuildRollups(PLATFORM_SCOPE_ID)).thenReturn(30);
+
+        Map<String, Integer> rebuilt = counterService.rebuildCounters();
+
+        InOrder order = inOrder(counterRepository, rollupService);
+        order.verify(counterRepository).lockForRebuild();
+        order.verify(counterRepository).deleteAllCounters();
+        order.verify(counterRepository).rebuildEventCounters();
+        order.verify(rollupService).rebuildRollups(PLATFORM_SCOPE_ID);
+        assertThat(rebuilt).containsExactly(Map.entry("eventCounters", 4), Map.entry("organizerCounters", 2),
+                Map.entry("platformCounters", 1), Map.entry("rollupBuckets", 30));
+    }
+
+    @Test
+    void countersAreSeededOnlyWhenEmptyAndThereIsDataToCount() {
+        when(counterRepository.count()).thenReturn(0L);
+        when(registrationRepository.count()).thenReturn(0L);
+        counterService.initializeCounters();
+        verify(counterRepository, never()).lockForRebuild();
+
+        when(registrationRepository.count()).thenReturn(5L);
+        counterService.initializeCounters();
+        verify(counterRepository, times(1)).lockForRebuild();
+
+        // Counters present but rollups missing, e.g. right after the rollup table was added
+        when(counterRepository.count()).thenReturn(10L);
+        when(rollupService.hasRollups()).thenReturn(false);
+        counterService.initializeCounters();
+        verify(counterRepository, times(2)).lockForRebuild();
+
+        when(rollupService.hasRollups()).thenReturn(true);
+        counterService.initializeCounters();
+        verify(counterRepository, times(2)).lockForRebuild();
+    }
+
+    private static class Scope {
+
+        private final CounterScope scope;
+        private final String name;
+        private final UUID id;
+
+        private Scope(CounterScope scope, UUID id) {
+            this.scope = scope;
+            this.name = scope.name();
+            this.id = id;
+        }
+
+        private static Scope[] all() {
+            return new Scope[] {
+                    new Scope(CounterScope.EVENT, EVENT_ID),
+                    new Scope(CounterScope.ORGANIZER, ORGANIZER_ID),
+                    new Scope(CounterScope.PLATFORM, PLATFORM_SCOPE_ID)
+            };
+        }
+    }
+}
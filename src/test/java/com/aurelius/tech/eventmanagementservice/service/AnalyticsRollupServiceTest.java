@@ -0,0 +1,110 @@
+package com.aurelius.tech.eventmanagementservice.service;
+
+import com.aurelius.tech.eventmanagementservice.entity.AnalyticsRollup;
+import com.aurelius.tech.eventmanagementservice.entity.enums.CounterScope;
+import com.aurelius.tech.eventmanagementservice.entity.enums.RollupGranularity;
+import com.aurelius.tech.eventmanagementservice.exception.BusinessException;
+import com.aurelius.tech.eventmanagementservice.repository.AnalyticsRollupRepository;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AnalyticsRollupServiceTest {
+
+    private static final UUID EVENT_ID = UUID.randomUUID();
+
+    private final AnalyticsRollupRepository rollupRepository = mock(AnalyticsRollupRepository.class);
+    private final AnalyticsRollupService rollupService = new AnalyticsRollupService(rollupRepository);
+
+    @Test
+    void hourBucketsCoverTheRangeAndFillGaps() {
+        LocalDateTime nine = LocalDateTime.of(2026, 4, 2, 9, 0);
+        when(rollupRepository.findBuckets(any(), any(), any(), any(), any()))
+                .thenReturn(List.of(rollup(nine.plusHours(1), 4)));
+
+        List<AnalyticsRollup> buckets = rollupService.getBuckets(CounterScope.EVENT, EVENT_ID, RollupGranularity.HOUR,
+                nine.plusMinutes(45), nine.plusHours(2).plusMinutes(5));
+
+        verify(rollupRepository).findBuckets(CounterScope.EVENT, EVENT_ID, RollupGranularity.HOUR, nine, nine.plusHours(2));
+        assertThat(buckets).extracting(AnalyticsRollup::getBucketStart)
+                .containsExactly(nine, nine.plusHours(1), nine.plusHours(2));
+        assertThat(buckets).extracting(AnalyticsRollup::getRegistrations).containsExactly(0L, 4L, 0L);
+        assertThat(buckets.get(0).getRevenue()).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(buckets.get(2).getScopeId()).isEqualTo(EVENT_ID);
+        assertThat(buckets.get(2).getGranularity()).isEqualTo(RollupGranularity.HOUR);
+    }
+
+    @Test
+    void dayAndMonthBucketsStartAtMidnightAndOnTheFirst() {
+        when(rollupRepository.findBuckets(any(), any(), any(), any(), any())).thenReturn(List.of());
+        LocalDateTime from = LocalDateTime.of(2026, 1, 31, 23, 59);
+        LocalDateTime to = LocalDateTime.of(2026, 3, 1, 0, 1);
+
+        List<AnalyticsRollup> days = rollupService.getBuckets(CounterScope.EVENT, EVENT_ID, RollupGranularity.DAY, from, to);
+        List<AnalyticsRollup> months = rollupService.getBuckets(CounterScope.EVENT, EVENT_ID, RollupGranularity.MONTH, from, to);
+
+        assertThat(days).hasSize(30);
+        assertThat(days.get(0).getBucketStart()).isEqualTo(LocalDateTime.of(2026, 1, 31, 0, 0));
+        assertThat(days.get(29).getBucketStart()).isEqualTo(LocalDateTime.of(2026, 3, 1, 0, 0));
+        assertThat(months).extracting(AnalyticsRollup::getBucketStart).containsExactly(
+                LocalDateTime.of(2026, 1, 1, 0, 0), LocalDateTime.of(2026, 2, 1, 0, 0), LocalDateTime.of(2026, 3, 1, 0, 0));
+    }
+
+    @Test
+    void batchReadsOneQueryAndFillsEveryScopeId() {
+        UUID otherEventId = UUID.randomUUID();
+        LocalDateTime day = LocalDateTime.of(2026, 4, 2, 0, 0);
+        AnalyticsRollup stored = rollup(day, 2);
+        stored.setScopeId(otherEventId);
+        when(rollupRepository.findBucketsIn(any(), any(), any(), any(), any())).thenReturn(List.of(stored));
+
+        Map<UUID, List<AnalyticsRollup>> buckets = rollupService.getBuckets(CounterScope.EVENT,
+                List.of(EVENT_ID, otherEventId), RollupGranularity.DAY, day, day.plusDays(1));
+
+        assertThat(buckets).containsOnlyKeys(EVENT_ID, otherEventId);
+        assertThat(buckets.get(EVENT_ID)).extracting(AnalyticsRollup::getRegistrations).containsExactly(0L, 0L);
+        assertThat(buckets.get(otherEventId)).extracting(AnalyticsRollup::getRegistrations).containsExactly(2L, 0L);
+    }
+
+    @Test
+    void rejectsReversedAndOversizedRanges() {
+        LocalDateTime now = LocalDateTime.of(2026, 4, 2, 12, 0);
+
+        assertThatThrownBy(() -> rollupService.getBuckets(CounterScope.PLATFORM, EVENT_ID, RollupGranularity.DAY,
+                now, now.minusDays(1))).isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> rollupService.getBuckets(CounterScope.PLATFORM, EVENT_ID, RollupGranularity.HOUR,
+                now.minusHours(AnalyticsRollupService.MAX_BUCKETS), now)).isInstanceOf(BusinessException.class);
+    }
+
+    @Test
+    void parsesAndFormatsGranularities() {
+        assertThat(rollupService.parseGranularity(" Month ", RollupGranularity.DAY)).isEqualTo(RollupGranularity.MONTH);
+        assertThat(rollupService.parseGranularity(null, RollupGranularity.DAY)).isEqualTo(RollupGranularity.DAY);
+        assertThatThrownBy(() -> rollupService.parseGranularity("week", RollupGranularity.DAY))
+                .isInstanceOf(BusinessException.class);
+
+        LocalDateTime bucket = LocalDateTime.of(2026, 4, 2, 9, 0);
+        assertThat(rollupService.formatBucket(bucket, RollupGranularity.HOUR)).isEqualTo("2026-04-02T09:00");
+        assertThat(rollupService.formatBucket(bucket.withHour(0), RollupGranularity.DAY)).isEqualTo("2026-04-02");
+    }
+
+    private static AnalyticsRollup rollup(LocalDateTime bucketStart, long registrations) {
+        AnalyticsRollup rollup = new AnalyticsRollup();
+        rollup.setScope(CounterScope.EVENT);
+        rollup.setScopeId(EVENT_ID);
+        rollup.setBucketStart(bucketStart);
+        rollup.setRegistrations(registrations);
+        return rollup;
+    }
+}
@@ -0,0 +1,180 @@
+package com.aurelius.tech.eventmanagementservice.service;
+
+import com.aurelius.tech.eventmanagementservice.config.InvoiceArchiveProperties;
+import com.aurelius.tech.eventmanagementservice.dto.response.InvoiceArchiveMigrationResponse;
+import com.aurelius.tech.eventmanagementservice.entity.Invoice;
+import com.aurelius.tech.eventmanagementservice.repository.InvoiceRepository;
+import com.aurelius.tech.eventmanagementservice.repository.projection.SegmentUsageRow;
+import com.aurelius.tech.eventmanagementservice.service.InvoiceSegmentStore.Slot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.aurelius.tech.eventmanagementservice.service.InvoiceSegmentStoreTest.bytes;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InvoiceArchiveServiceTest {
+
+    @TempDir
+    Path storage;
+
+    private final InvoiceRepository invoiceRepository = mock(InvoiceRepository.class);
+    private final AtomicLong segmentIds = new AtomicLong(1);
+    private final InvoiceArchiveProperties properties = new InvoiceArchiveProperties();
+    private InvoiceSegmentStore store;
+    private InvoiceArchiveService archiveService;
+
+    @BeforeEach
+    void setUp() {
+        when(invoiceRepository.reserveSegmentId()).thenAnswer(invocation -> segmentIds.getAndIncrement());
+        properties.setSegmentSize(DataSize.ofBytes(150));
+        store = new InvoiceSegmentStore(invoiceRepository, properties, storage.toString());
+        archiveService = new InvoiceArchiveService(invoiceRepository, store, properties,
+                mock(PlatformTransactionManager.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void compactionDeletesUnreferencedSegmentsAndMovesLiveInvoicesOutOfSparseOnes() throws IOException {
+        // Segment 1: a live 40-byte PDF next to 80 replaced bytes. Segment 2: nothing live.
+        Slot live = store.append(bytes(40, 'a'));
+        store.append(bytes(80, 'b'));
+        Slot dead = store.append(bytes(60, 'c'));
+        store.append(bytes(60, 'd'));
+        store.append(bytes(60, 'e'));
+        makeIdle(live.getSegmentId());
+        makeIdle(dead.getSegmentId());
+
+        Invoice invoice = invoiceAt(live);
+        SegmentUsageRow usage = usage(live.getSegmentId(), 40);
+        when(invoiceRepository.sumLiveBytesBySegment(any())).thenReturn(List.of(usage));
+        when(invoiceRepository.findBySegment(eq(live.getSegmentId()), eq(-1L), any())).thenReturn(List.of(invoice));
+        when(invoiceRepository.findBySegment(eq(live.getSegmentId()), eq(0L), any())).thenReturn(List.of());
+        when(invoiceRepository.relocate(any(), any(), any(), any(), anyLong(), anyLong(), anyInt())).thenReturn(1);
+
+        archiveService.compactSegments();
+
+        assertThat(store.segmentPath(dead.getSegmentId())).doesNotExist();
+        // Left for the next run, so downloads that already looked up the old slot can finish
+        assertThat(store.segmentPath(live.getSegmentId())).exists();
+
+        ArgumentCaptor<Long> segmentId = ArgumentCaptor.forClass(Long.class);
+        ArgumentCaptor<Long> offset = ArgumentCaptor.forClass(Long.class);
+        ArgumentCaptor<Integer> length = ArgumentCaptor.forClass(Integer.class);
+        verify(invoiceRepository).relocate(eq(invoice.getId()), eq(live.getSegmentId()), eq(live.getOffset()), isNull(),
+                segmentId.capture(), offset.capture(), length.capture());
+        Slot moved = new Slot(segmentId.getValue(), offset.getValue(), length.getValue());
+        assertThat(moved.getSegmentId()).isNotEqualTo(live.getSegmentId());
+        assertThat(store.read(moved)).isEqualTo(bytes(40, 'a'));
+    }
+
+    @Test
+    void compactionLeavesMostlyLiveAndActiveSegmentsAlone() throws IOException {
+        Slot mostlyLive = store.append(bytes(100, 'a'));
+        store.append(bytes(40, 'b'));
+        Slot active = store.append(bytes(60, 'c'));
+        makeIdle(mostlyLive.getSegmentId());
+        makeIdle(active.getSegmentId());
+        SegmentUsageRow usage = usage(mostlyLive.getSegmentId(), 100);
+        when(invoiceRepository.sumLiveBytesBySegment(any())).thenReturn(List.of(usage));
+
+        archiveService.compactSegments();
+
+        assertThat(store.segmentPath(mostlyLive.getSegmentId())).exists();
+        assertThat(store.segmentPath(active.getSegmentId())).exists();
+        verify(invoiceRepository, never()).findBySegment(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void migrationMovesLegacyFilesIntoSegmentsAndCountsMissingOnes() throws IOException {
+        Path legacyFile = storage.resolve("invoice_1.pdf");
+        Files.write(legacyFile, bytes(30, 'p'));
+        Invoice legacy = new Invoice();
+        legacy.setId(new UUID(0, 1));
+        legacy.setFilePath(legacyFile.toString());
+        Invoice missing = new Invoice();
+        missing.setId(new UUID(0, 2));
+        missing.setFilePath(storage.resolve("gone.pdf").toString());
+        when(invoiceRepository.findUnarchived(eq(new UUID(0, 0)), any())).thenReturn(List.of(legacy, missing));
+        when(invoiceRepository.findUnarchived(eq(missing.getId()), any())).thenReturn(List.of());
+        when(invoiceRepository.relocate(any(), isNull(), isNull(), anyString(), anyLong(), anyLong(), anyInt())).thenReturn(1);
+
+        InvoiceArchiveMigrationResponse result = archiveService.migrateLegacyFiles();
+
+        assertThat(result.getMigrated()).isEqualTo(1);
+        assertThat(result.getMissing()).isEqualTo(1);
+        assertThat(result.getBytes()).isEqualTo(30);
+        assertThat(legacyFile).doesNotExist();
+        ArgumentCaptor<Long> segmentId = ArgumentCaptor.forClass(Long.class);
+        ArgumentCaptor<Long> offset = ArgumentCaptor.forClass(Long.class);
+        verify(invoiceRepository).relocate(eq(legacy.getId()), isNull(), isNull(), eq(legacyFile.toString()),
+                segmentId.capture(), offset.capture(), eq(30));
+        assertThat(store.read(new Slot(segmentId.getValue(), offset.getValue(), 30))).isEqualTo(bytes(30, 'p'));
+    }
+
+    @Test
+    void migrationKeepsTheFileOfAnInvoiceChangedMeanwhile() throws IOException {
+        Path legacyFile = storage.resolve("invoice_1.pdf");
+        Files.write(legacyFile, bytes(30, 'p'));
+        Invoice legacy = new Invoice();
+        legacy.setId(new UUID(0, 1));
+        legacy.setFilePath(legacyFile.toString());
+        when(invoiceRepository.findUnarchived(eq(new UUID(0, 0)), any())).thenReturn(List.of(legacy));
+        when(invoiceRepository.findUnarchived(eq(legacy.getId()), any())).thenReturn(List.of());
+        when(invoiceRepository.relocate(any(), any(), any(), any(), anyLong(), anyLong(), anyInt())).thenReturn(0);
+
+        InvoiceArchiveMigrationResponse result = archiveService.migrateLegacyFiles();
+
+        assertThat(result.getMigrated()).isZero();
+        assertThat(legacyFile).exists();
+    }
+
+    private void makeIdle(long segmentId) throws IOException {
+        Instant past = Instant.now().minus(properties.getSegmentMaxAge().multipliedBy(3));
+        Files.setLastModifiedTime(store.segmentPath(segmentId), FileTime.from(past));
+    }
+
+    private static Invoice invoiceAt(Slot slot) {
+        Invoice invoice = new Invoice();
+        invoice.setId(UUID.randomUUID());
+        invoice.setSegmentId(slot.getSegmentId());
+        invoice.setSegmentOffset(slot.getOffset());
+        invoice.setSegmentLength(slot.getLength());
+        return invoice;
+    }
+
+    private static SegmentUsageRow usage(long segmentId, long liveBytes) {
+        SegmentUsageRow row = mock(SegmentUsageRow.class);
+        when(row.getSegmentId()).thenReturn(segmentId);
+        when(row.getLiveBytes()).thenReturn(liveBytes);
+        return row;
+    }
+}
@@ -0,0 +1,96 @@
+package com.aurelius.tech.eventmanagementservice.service;
+
+import com.aurelius.tech.eventmanagementservice.repository.InvoiceRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InvoiceNumberAllocatorTest {
+
+    private static final LocalDate DATE = LocalDate.of(2026, 1, 15);
+
+    private final InvoiceRepository invoiceRepository = mock(InvoiceRepository.class);
+    private final InvoiceNumberAllocator allocator = new InvoiceNumberAllocator(invoiceRepository);
+
+    @Test
+    void formatsNumbersWithTheIssueDate() {
+        when(invoiceRepository.reserveInvoiceNumberBlock()).thenReturn(12_345L);
+
+        assertThat(allocator.nextInvoiceNumber(DATE)).isEqualTo("INV-20260115-0000012345");
+    }
+
+    @Test
+    void servesABlockFromMemoryBeforeReservingTheNext() {
+        when(invoiceRepository.reserveInvoiceNumberBlock()).thenReturn(1L, 101L);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(allocator.nextInvoiceNumber(DATE)).endsWith(String.format("%010d", 1 + i));
+        }
+        verify(invoiceRepository, times(1)).reserveInvoiceNumberBlock();
+
+        assertThat(allocator.nextInvoiceNumber(DATE)).endsWith("0000000101");
+        verify(invoiceRepository, times(2)).reserveInvoiceNumberBlock();
+    }
+
+    @Test
+    void followsTheBlockTheSequenceHandsOut() {
+        // Another instance took the blocks in between, so this one jumps ahead
+        when(invoiceRepository.reserveInvoiceNumberBlock()).thenReturn(1L, 501L);
+
+        for (int i = 0; i < 100; i++) {
+            allocator.nextInvoiceNumber(DATE);
+        }
+
+        assertThat(allocator.nextInvoiceNumber(DATE)).endsWith("0000000501");
+    }
+
+    @Test
+    void concurrentCallersGetDistinctNumbersAndExhaustedBlocksAreReplacedOnce() throws Exception {
+        AtomicLong sequence = new AtomicLong(1);
+        when(invoiceRepository.reserveInvoiceNumberBlock()).thenAnswer(invocation -> sequence.getAndAdd(100));
+        int threads = 8;
+        int perThread = 1_000;
+
+        Set<String> numbers = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        numbers.add(allocator.nextInvoiceNumber(DATE));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(numbers).hasSize(threads * perThread);
+        // Every block is used up completely before the next one is reserved
+        verify(invoiceRepository, times(threads * perThread / 100)).reserveInvoiceNumberBlock();
+    }
+}
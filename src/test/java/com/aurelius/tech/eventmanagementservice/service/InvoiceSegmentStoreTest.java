@@ -0,0 +1,164 @@
+package com.aurelius.tech.eventmanagementservice.service;
+
+import com.aurelius.tech.eventmanagementservice.config.InvoiceArchiveProperties;
+import com.aurelius.tech.eventmanagementservice.entity.Invoice;
+import com.aurelius.tech.eventmanagementservice.repository.InvoiceRepository;
+import com.aurelius.tech.eventmanagementservice.service.InvoiceSegmentStore.Slot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InvoiceSegmentStoreTest {
+
+    @TempDir
+    Path storage;
+
+    private final InvoiceRepository invoiceRepository = mock(InvoiceRepository.class);
+    private final AtomicLong segmentIds = new AtomicLong(1);
+    private final InvoiceArchiveProperties properties = new InvoiceArchiveProperties();
+    private InvoiceSegmentStore store;
+
+    @BeforeEach
+    void setUp() {
+        when(invoiceRepository.reserveSegmentId()).thenAnswer(invocation -> segmentIds.getAndIncrement());
+        properties.setSegmentSize(DataSize.ofBytes(100));
+        store = new InvoiceSegmentStore(invoiceRepository, properties, storage.toString());
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void readsBackWhatWasAppended() throws IOException {
+        byte[] first = bytes(30, 'a');
+        byte[] second = bytes(20, 'b');
+
+        Slot firstSlot = store.append(first);
+        Slot secondSlot = store.append(second);
+
+        assertThat(firstSlot.getSegmentId()).isEqualTo(secondSlot.getSegmentId());
+        assertThat(firstSlot.getOffset()).isZero();
+        assertThat(secondSlot.getOffset()).isEqualTo(30);
+        assertThat(secondSlot.getLength()).isEqualTo(20);
+        assertThat(store.read(firstSlot)).isEqualTo(first);
+        assertThat(store.read(secondSlot)).isEqualTo(second);
+        assertThat(Files.size(store.segmentPath(firstSlot.getSegmentId()))).isEqualTo(50);
+    }
+
+    @Test
+    void resourceExposesOnlyTheSlice() throws IOException {
+        store.append(bytes(30, 'a'));
+        Slot slot = store.append(bytes(20, 'b'));
+        store.append(bytes(10, 'c'));
+
+        Resource resource = store.resource(slot);
+
+        assertThat(resource.contentLength()).isEqualTo(20);
+        try (InputStream in = resource.getInputStream()) {
+            assertThat(in.readAllBytes()).isEqualTo(bytes(20, 'b'));
+        }
+        try (InputStream in = resource.getInputStream()) {
+            assertThat(in.skip(15)).isEqualTo(15);
+            assertThat(in.readAllBytes()).hasSize(5);
+        }
+    }
+
+    @Test
+    void startsANewSegmentOnceTheCurrentOneIsFull() throws IOException {
+        Slot first = store.append(bytes(60, 'a'));
+        Slot second = store.append(bytes(60, 'b'));
+        // A PDF larger than the segment size still goes into a segment of its own
+        Slot oversized = store.append(bytes(150, 'c'));
+
+        assertThat(second.getSegmentId()).isNotEqualTo(first.getSegmentId());
+        assertThat(second.getOffset()).isZero();
+        assertThat(oversized.getSegmentId()).isNotEqualTo(second.getSegmentId());
+        assertThat(store.read(oversized)).isEqualTo(bytes(150, 'c'));
+    }
+
+    @Test
+    void appendAllReturnsSlotsInOrderAcrossSegments() throws IOException {
+        List<byte[]> records = Arrays.asList(bytes(40, 'a'), bytes(40, 'b'), bytes(40, 'c'));
+
+        List<Slot> slots = store.appendAll(records);
+
+        assertThat(slots).hasSize(3);
+        assertThat(slots.get(1).getSegmentId()).isEqualTo(slots.get(0).getSegmentId());
+        assertThat(slots.get(2).getSegmentId()).isNotEqualTo(slots.get(0).getSegmentId());
+        for (int i = 0; i < records.size(); i++) {
+            assertThat(store.read(slots.get(i))).isEqualTo(records.get(i));
+        }
+    }
+
+    @Test
+    void neverAppendsToASegmentFileThatAlreadyExists() throws IOException {
+        // E.g. the sequence was reset by a database restore
+        Path existing = store.segmentPath(1);
+        Files.createDirectories(existing.getParent());
+        Files.write(existing, bytes(10, 'x'));
+
+        Slot slot = store.append(bytes(10, 'a'));
+
+        assertThat(slot.getSegmentId()).isEqualTo(2);
+        assertThat(Files.readAllBytes(existing)).isEqualTo(bytes(10, 'x'));
+    }
+
+    @Test
+    void idleSegmentsLeaveOutTheCurrentAndRecentlyWrittenOnes() throws IOException {
+        Slot old = store.append(bytes(60, 'a'));
+        Slot recent = store.append(bytes(60, 'b'));
+        Slot current = store.append(bytes(60, 'c'));
+        Instant past = Instant.now().minus(Duration.ofHours(3));
+        Files.setLastModifiedTime(store.segmentPath(old.getSegmentId()), FileTime.from(past));
+        Files.setLastModifiedTime(store.segmentPath(current.getSegmentId()), FileTime.from(past));
+        Files.write(storage.resolve("segments").resolve("notes.txt"), bytes(5, 'n'));
+
+        Map<Long, Long> idle = store.idleSegments(Instant.now().minus(Duration.ofHours(2)));
+
+        assertThat(idle).containsOnly(Map.entry(old.getSegmentId(), 60L));
+        assertThat(idle).doesNotContainKey(recent.getSegmentId());
+    }
+
+    @Test
+    void slotOfInvoiceStoredAsItsOwnFileIsNull() {
+        Invoice legacy = new Invoice();
+        legacy.setFilePath("invoices/legacy.pdf");
+        Invoice archived = new Invoice();
+        archived.setSegmentId(7L);
+        archived.setSegmentOffset(120L);
+        archived.setSegmentLength(40);
+
+        assertThat(InvoiceSegmentStore.slotOf(legacy)).isNull();
+        Slot slot = InvoiceSegmentStore.slotOf(archived);
+        assertThat(slot.getSegmentId()).isEqualTo(7);
+        assertThat(slot.getOffset()).isEqualTo(120);
+        assertThat(slot.getLength()).isEqualTo(40);
+    }
+
+    static byte[] bytes(int length, char fill) {
+        byte[] data = new byte[length];
+        Arrays.fill(data, (byte) fill);
+        return data;
+    }
+}
@@ -0,0 +1,105 @@
+package com.aurelius.tech.eventmanagementservice.service;
+
+import com.aurelius.tech.eventmanagementservice.entity.enums.PaymentStatus;
+import com.aurelius.tech.eventmanagementservice.exception.BusinessException;
+import com.aurelius.tech.eventmanagementservice.repository.EventRepository;
+import com.aurelius.tech.eventmanagementservice.repository.PaymentRepository;
+import com.aurelius.tech.eventmanagementservice.repository.RegistrationRepository;
+import com.aurelius.tech.eventmanagementservice.repository.projection.PaymentChangeRow;
+import com.aurelius.tech.eventmanagementservice.util.ChangeCursor;
+import jakarta.persistence.EntityManager;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVRecord;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Limit;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReportServiceTest {
+
+    private final PaymentRepository paymentRepository = mock(PaymentRepository.class);
+    private final ReportService reportService = new ReportService(mock(EventRepository.class),
+            mock(RegistrationRepository.class), paymentRepository, mock(EventFinancialsService.class),
+            mock(EntityManager.class));
+
+    @Test
+    void firstPageStartsAtTheBeginningAndHoldsBackRecentChanges() throws IOException {
+        when(paymentRepository.streamChangedAfter(any(), any(), any(), any())).thenReturn(Stream.empty());
+
+        LocalDateTime before = LocalDateTime.now();
+        List<CSVRecord> rows = writeChanges(null, 50);
+
+        ArgumentCaptor<LocalDateTime> until = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(paymentRepository).streamChangedAfter(eq(ChangeCursor.START.getUpdatedAt()),
+                eq(ChangeCursor.START.getId()), until.capture(), eq(Limit.of(50)));
+        assertThat(until.getValue()).isBefore(before);
+        assertThat(rows).isEmpty();
+    }
+
+    @Test
+    void eachRowCarriesTheCursorToResumeAfterIt() throws IOException {
+        LocalDateTime updatedAt = LocalDateTime.of(2026, 5, 1, 12, 0);
+        UUID firstId = new UUID(0, 1);
+        UUID secondId = new UUID(0, 2);
+        PaymentChangeRow first = change(updatedAt, firstId);
+        PaymentChangeRow second = change(updatedAt, secondId);
+        when(paymentRepository.streamChangedAfter(any(), any(), any(), any())).thenReturn(Stream.of(first, second));
+
+        List<CSVRecord> rows = writeChanges(null, 2);
+
+        assertThat(rows).hasSize(2);
+        ChangeCursor last = ChangeCursor.decode(rows.get(1).get("Cursor"));
+        assertThat(last.getUpdatedAt()).isEqualTo(updatedAt);
+        assertThat(last.getId()).isEqualTo(secondId);
+        assertThat(rows.get(0).get("Payment ID")).isEqualTo(firstId.toString());
+
+        // The next page continues strictly after the last row seen, also when timestamps tie
+        when(paymentRepository.streamChangedAfter(any(), any(), any(), any())).thenReturn(Stream.empty());
+        writeChanges(rows.get(1).get("Cursor"), 2);
+        verify(paymentRepository).streamChangedAfter(eq(updatedAt), eq(secondId), any(), eq(Limit.of(2)));
+    }
+
+    @Test
+    void rejectsLimitsOutsideTheAllowedRange() {
+        assertThatThrownBy(() -> reportService.validateChangeLimit(0)).isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> reportService.validateChangeLimit(10_001)).isInstanceOf(BusinessException.class);
+        reportService.validateChangeLimit(10_000);
+    }
+
+    private List<CSVRecord> writeChanges(String cursor, int limit) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        reportService.writePaymentChangesCSV(cursor, limit, out);
+        CSVFormat format = CSVFormat.DEFAULT.builder().setHeader().setSkipHeaderRecord(true).build();
+        return format.parse(new StringReader(out.toString(StandardCharsets.UTF_8))).getRecords();
+    }
+
+    private static PaymentChangeRow change(LocalDateTime updatedAt, UUID paymentId) {
+        PaymentChangeRow row = mock(PaymentChangeRow.class);
+        when(row.getPaymentId()).thenReturn(paymentId);
+        when(row.getRegistrationId()).thenReturn(UUID.randomUUID());
+        when(row.getEventId()).thenReturn(UUID.randomUUID());
+        when(row.getAmount()).thenReturn(new BigDecimal("25.00"));
+        when(row.getCurrency()).thenReturn("USD");
+        when(row.getStatus()).thenReturn(PaymentStatus.SUCCESS);
+        when(row.getCreatedAt()).thenReturn(updatedAt);
+        when(row.getUpdatedAt()).thenReturn(updatedAt);
+        return row;
+    }
+}
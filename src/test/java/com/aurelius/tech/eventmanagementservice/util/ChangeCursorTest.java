@@ -0,0 +1,63 @@
+package com.aurelius.tech.eventmanagementservice.util;
+
+import com.aurelius.tech.eventmanagementservice.exception.BusinessException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ChangeCursorTest {
+
+    @Test
+    void encodeAndDecodeRoundTrip() {
+        ChangeCursor cursor = new ChangeCursor(LocalDateTime.of(2026, 3, 14, 15, 9, 26, 535_897_000), UUID.randomUUID());
+
+        ChangeCursor decoded = ChangeCursor.decode(cursor.encode());
+
+        assertThat(decoded.getUpdatedAt()).isEqualTo(cursor.getUpdatedAt());
+        assertThat(decoded.getId()).isEqualTo(cursor.getId());
+    }
+
+    @Test
+    void encodedCursorIsUrlSafe() {
+        // Over this many random ids, standard Base64 would almost surely produce '+', '/' or padding
+        for (int i = 0; i < 100; i++) {
+            String encoded = new ChangeCursor(LocalDateTime.of(2026, 1, 1, 0, 0).plusNanos(i * 1_000L), UUID.randomUUID()).encode();
+            assertThat(encoded).doesNotContain("+", "/", "=");
+        }
+    }
+
+    @Test
+    void missingCursorStartsFromTheBeginning() {
+        assertThat(ChangeCursor.decode(null)).isSameAs(ChangeCursor.START);
+        assertThat(ChangeCursor.decode("  ")).isSameAs(ChangeCursor.START);
+    }
+
+    @Test
+    void startSortsBeforeAnyChange() {
+        assertThat(ChangeCursor.START.getUpdatedAt()).isBefore(LocalDateTime.of(2000, 1, 1, 0, 0));
+        assertThat(ChangeCursor.START.getId()).isEqualTo(new UUID(0, 0));
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        assertThatThrownBy(() -> ChangeCursor.decode("not base64!"))
+                .isInstanceOf(BusinessException.class)
+                .hasMessage("Invalid cursor");
+        assertThatThrownBy(() -> ChangeCursor.decode(urlEncode("2026-01-01T00:00")))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> ChangeCursor.decode(urlEncode("yesterday|" + UUID.randomUUID())))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> ChangeCursor.decode(urlEncode("2026-01-01T00:00|not-a-uuid")))
+                .isInstanceOf(BusinessException.class);
+    }
+
+    private static String urlEncode(String raw) {
+        return Base64.getUrlEncoder().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
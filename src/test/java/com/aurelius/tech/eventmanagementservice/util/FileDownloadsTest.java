@@ -0,0 +1,152 @@
+package com.aurelius.tech.eventmanagementservice.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+class FileDownloadsTest {
+
+    private static final String ETAG = "\"invoice-1\"";
+    private static final Instant LAST_MODIFIED = Instant.parse("2026-03-01T10:15:30Z");
+    // The download is bytes 4-13 of the file, as for a PDF stored in a segment
+    private static final String CONTENT = "0123456789";
+
+    @TempDir
+    Path storage;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Path file = storage.resolve("segment.dat");
+        Files.writeString(file, "head" + CONTENT + "tail", StandardCharsets.US_ASCII);
+        mockMvc = MockMvcBuilders.standaloneSetup(new DownloadController(new FileSliceResource(file, 4, CONTENT.length())))
+                .build();
+    }
+
+    @Test
+    void servesTheWholeFileWithValidators() throws Exception {
+        MockHttpServletResponse response = download(HttpHeaders.ACCEPT, "*/*");
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).isEqualTo(CONTENT);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_LENGTH)).isEqualTo(String.valueOf(CONTENT.length()));
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(ETAG);
+        assertThat(response.getDateHeader(HttpHeaders.LAST_MODIFIED)).isEqualTo(LAST_MODIFIED.toEpochMilli());
+        assertThat(response.getHeader(HttpHeaders.CONTENT_DISPOSITION)).isEqualTo("attachment; filename=\"invoice.pdf\"");
+        assertThat(response.getContentType()).isEqualTo(MediaType.APPLICATION_PDF_VALUE);
+        assertThat(response.getHeader(HttpHeaders.ACCEPT_RANGES)).isEqualTo("bytes");
+    }
+
+    @Test
+    void matchingETagIsNotModified() throws Exception {
+        MockHttpServletResponse response = download(HttpHeaders.IF_NONE_MATCH, ETAG);
+
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(ETAG);
+    }
+
+    @Test
+    void staleETagGetsTheFile() throws Exception {
+        MockHttpServletResponse response = download(HttpHeaders.IF_NONE_MATCH, "\"invoice-0\"");
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void unchangedSinceIsNotModified() throws Exception {
+        MockHttpServletResponse notModified = download(HttpHeaders.IF_MODIFIED_SINCE, httpDate(LAST_MODIFIED));
+        MockHttpServletResponse modified = download(HttpHeaders.IF_MODIFIED_SINCE,
+                httpDate(LAST_MODIFIED.minus(1, ChronoUnit.HOURS)));
+
+        assertThat(notModified.getStatus()).isEqualTo(304);
+        assertThat(modified.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void singleRangeIsPartialContent() throws Exception {
+        MockHttpServletResponse response = download(HttpHeaders.RANGE, "bytes=2-5");
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getContentAsString()).isEqualTo("2345");
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 2-5/10");
+        assertThat(response.getHeader(HttpHeaders.CONTENT_LENGTH)).isEqualTo("4");
+    }
+
+    @Test
+    void suffixRangeReadsTheEndOfTheSlice() throws Exception {
+        MockHttpServletResponse response = download(HttpHeaders.RANGE, "bytes=-3");
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getContentAsString()).isEqualTo("789");
+    }
+
+    @Test
+    void multipleRangesAdvertiseTheMultipartBodyLength() throws Exception {
+        MockHttpServletResponse response = download(HttpHeaders.RANGE, "bytes=0-1,8-9");
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getContentType()).startsWith("multipart/byteranges");
+        String body = response.getContentAsString();
+        assertThat(body).contains("Content-Range: bytes 0-1/10", "Content-Range: bytes 8-9/10");
+        String contentLength = response.getHeader(HttpHeaders.CONTENT_LENGTH);
+        if (contentLength != null) {
+            assertThat(Long.parseLong(contentLength)).isEqualTo(response.getContentAsByteArray().length);
+        }
+    }
+
+    @Test
+    void rangeBeyondTheSliceIsNotSatisfiable() throws Exception {
+        MockHttpServletResponse response = download(HttpHeaders.RANGE, "bytes=10-20");
+
+        assertThat(response.getStatus()).isEqualTo(416);
+    }
+
+    private MockHttpServletResponse download(String header, String value) throws Exception {
+        return mockMvc.perform(get("/download").header(header, value)).andReturn().getResponse();
+    }
+
+    private static String httpDate(Instant instant) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setDate(HttpHeaders.IF_MODIFIED_SINCE, instant.toEpochMilli());
+        return headers.getFirst(HttpHeaders.IF_MODIFIED_SINCE);
+    }
+
+    @RestController
+    static class DownloadController {
+
+        private final Resource resource;
+
+        DownloadController(Resource resource) {
+            this.resource = resource;
+        }
+
+        @GetMapping("/download")
+        ResponseEntity<Resource> download(WebRequest webRequest) {
+            return FileDownloads.attachment(resource, "invoice.pdf", MediaType.APPLICATION_PDF, ETAG, LAST_MODIFIED,
+                    webRequest);
+        }
+    }
+}